@@ -0,0 +1,98 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteDoiRequestWrapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Realistic DataCite DOI payloads of different shapes, used by the benchmarks.
+ */
+public enum BenchmarkPayloads {
+
+    /** DOI with only the fields required for publishing */
+    SMALL(1, 0, 0, 0),
+
+    /** DOI with many creators, each with several ROR affiliations, as returned with ?affiliation=true */
+    AFFILIATION_HEAVY(50, 3, 20, 0),
+
+    /** DOI with ~200KB of base64-encoded metadata XML */
+    LARGE_XML(3, 1, 5, 150_000);
+
+    private final int creators;
+    private final int affiliationsPerCreator;
+    private final int subjects;
+    private final int xmlChars;
+
+    BenchmarkPayloads(int creators, int affiliationsPerCreator, int subjects, int xmlChars) {
+        this.creators = creators;
+        this.affiliationsPerCreator = affiliationsPerCreator;
+        this.subjects = subjects;
+        this.xmlChars = xmlChars;
+    }
+
+    public DataCiteDoi createDoi() {
+        DataCiteDoi doi = new DataCiteDoi();
+        doi.setId("10.82316/bench-" + name().toLowerCase());
+        DataCiteDoiAttributes attributes = doi.getAttributes();
+        attributes.setDoi(doi.getId());
+        attributes.setPrefix("10.82316");
+        attributes.setSuffix("bench-" + name().toLowerCase());
+        attributes.setTitles(List.of(new DataCiteDoiAttributes.Title("Benchmark DOI " + name())));
+        attributes.setPublisher("ResearchSpace");
+        attributes.setPublicationYear(2023);
+        attributes.setTypes(new DataCiteDoiAttributes.Types("RSpace sample", "PhysicalObject"));
+        attributes.setUrl("https://researchspace.com/public/" + name().toLowerCase());
+        attributes.setState("findable");
+        attributes.setCreated(new Date(1690800000000L));
+        attributes.setUpdated(new Date(1690806402000L));
+
+        List<DataCiteDoiAttributes.Creator> creatorList = new ArrayList<>();
+        for (int i = 0; i < creators; i++) {
+            DataCiteDoiAttributes.Affiliation[] affiliations = new DataCiteDoiAttributes.Affiliation[affiliationsPerCreator];
+            for (int j = 0; j < affiliationsPerCreator; j++) {
+                affiliations[j] = new DataCiteDoiAttributes.Affiliation("University " + j, "https://ror.org/02h4qpx1" + j);
+            }
+            creatorList.add(new DataCiteDoiAttributes.Creator("Creator " + i, "Personal", affiliations));
+        }
+        attributes.setCreators(creatorList);
+
+        List<DataCiteDoiAttributes.Subject> subjectList = new ArrayList<>();
+        for (int i = 0; i < subjects; i++) {
+            subjectList.add(new DataCiteDoiAttributes.Subject("Subject " + i, "Fields of Science and Technology (FOS)",
+                    "http://www.oecd.org/science/inno/38235147.pdf", "", "1." + i));
+        }
+        attributes.setSubjects(subjectList);
+        attributes.setDescriptions(List.of(new DataCiteDoiAttributes.Description("Benchmark description", "Abstract")));
+
+        if (xmlChars > 0) {
+            StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><resource>");
+            while (xml.length() < xmlChars) {
+                xml.append("<subject subjectScheme=\"FOS\">Computer and information sciences</subject>");
+            }
+            xml.append("</resource>");
+            attributes.setXml(Base64.getEncoder().encodeToString(xml.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return doi;
+    }
+
+    public DataCiteDoiRequestWrapper createResponse() {
+        DataCiteDoiRequestWrapper wrapper = new DataCiteDoiRequestWrapper();
+        wrapper.setData(createDoi());
+        return wrapper;
+    }
+
+    public byte[] createResponseJson() {
+        try {
+            return DataCiteJson.WRAPPER_WRITER.writeValueAsBytes(createResponse());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
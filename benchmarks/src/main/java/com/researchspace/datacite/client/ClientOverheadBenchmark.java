@@ -0,0 +1,73 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end client calls against local stub server: request building, transport, (de)serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClientOverheadBenchmark {
+
+    @Param({"SMALL", "AFFILIATION_HEAVY", "LARGE_XML"})
+    private BenchmarkPayloads payload;
+
+    private StubDataCiteServer server;
+    private DataCiteClient client;
+    private DataCiteDoi doiUpdate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StubDataCiteServer(payload.createResponseJson());
+        client = DataCiteClientImpl.builder()
+                .dataciteApiURI(server.getUri())
+                .username("benchmark")
+                .password("benchmark")
+                .repositoryPrefix("10.82316")
+                .maxConnections(64)
+                .build();
+        doiUpdate = payload.createDoi();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public DataCiteDoi retrieveDoi() {
+        return client.retrieveDoi(doiUpdate.getId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public DataCiteDoi retrieveDoiConcurrently() {
+        return client.retrieveDoi(doiUpdate.getId());
+    }
+
+    @Benchmark
+    public DataCiteDoi updateDoi() {
+        return client.updateDoi(doiUpdate);
+    }
+
+}
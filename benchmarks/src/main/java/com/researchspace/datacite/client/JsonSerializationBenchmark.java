@@ -0,0 +1,70 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.researchspace.datacite.model.DataCiteDoiRequestWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Jackson (de)serialization of DOI request/response payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonSerializationBenchmark {
+
+    @Param({"SMALL", "AFFILIATION_HEAVY", "LARGE_XML"})
+    private BenchmarkPayloads payload;
+
+    private byte[] responseJson;
+    private DataCiteDoiRequestWrapper request;
+
+    /* a fresh, default mapper, as a baseline for the tuned shared readers */
+    private final ObjectMapper plainMapper = new ObjectMapper();
+
+    private DataCiteJson.DoiReaders skippingReaders;
+
+    @Setup
+    public void setUp() {
+        responseJson = payload.createResponseJson();
+        request = payload.createResponse();
+        skippingReaders = DataCiteJson.readers(EnumSet.of(DoiField.XML, DoiField.GEO_LOCATIONS));
+    }
+
+    @Benchmark
+    public DataCiteDoiRequestWrapper deserializePlainMapper() throws IOException {
+        return plainMapper.readValue(responseJson, DataCiteDoiRequestWrapper.class);
+    }
+
+    @Benchmark
+    public DataCiteDoiRequestWrapper deserializeStreaming() throws IOException {
+        return DataCiteJson.readDoiResponse(new ByteArrayInputStream(responseJson), DataCiteJson.DEFAULT_READERS);
+    }
+
+    @Benchmark
+    public DataCiteDoiRequestWrapper deserializeStreamingSkippingHeavyFields() throws IOException {
+        return DataCiteJson.readDoiResponse(new ByteArrayInputStream(responseJson), skippingReaders);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return DataCiteJson.WRAPPER_WRITER.writeValueAsBytes(request);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.researchspace.datacite.client;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server answering every DOI request with the same canned response, so client benchmarks
+ * measure client-side overhead rather than DataCite latency.
+ */
+class StubDataCiteServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    StubDataCiteServer(byte[] doiResponse) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/dois", exchange -> {
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                requestBody.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/vnd.api+json; charset=utf-8");
+            exchange.sendResponseHeaders("POST".equals(exchange.getRequestMethod()) ? 201 : 200, doiResponse.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(doiResponse);
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    URI getUri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.researchspace.datacite.client;
+
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building of DataCite API URIs and headers, done on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class UriBuildingBenchmark {
+
+    private final DataCiteApiUris uris = new DataCiteApiUris(URI.create("https://api.test.datacite.org/"));
+
+    private final Set<DoiField> summaryFields = EnumSet.of(DoiField.STATE, DoiField.URL, DoiField.UPDATED);
+
+    @Benchmark
+    public URI doiUri() {
+        return uris.doi("10.82316/9w24-z012");
+    }
+
+    @Benchmark
+    public URI doiFieldsUri() {
+        return uris.doiFields("10.82316/9w24-z012", summaryFields);
+    }
+
+    @Benchmark
+    public URI clientPrefixesUri() {
+        return uris.clientPrefixes("AJFO.JIJEMD", "10.82316");
+    }
+
+    @Benchmark
+    public URI pageLinkUri() {
+        return uris.pageLink("https://api.datacite.org/dois?page%5Bcursor%5D=MTY5MDgwMDAwMDAwMCwxMC44MjMxNi9hYmM&page%5Bsize%5D=100&prefix=10.82316");
+    }
+
+    @Benchmark
+    public String basicAuthenticationHeader() {
+        return DataCiteClientImpl.basicAuthenticationHeader("AJFO.JIJEMD", "password");
+    }
+
+}
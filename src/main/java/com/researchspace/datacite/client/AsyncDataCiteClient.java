@@ -0,0 +1,45 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link DataCiteClient}. Methods return immediately, the returned
+ * futures complete when DataCite responds.
+ * 
+ * Failed calls complete the future exceptionally with {@link com.researchspace.datacite.model.DataCiteConnectionException}
+ * (wrapped in CompletionException when accessed through join()).
+ */
+public interface AsyncDataCiteClient {
+
+    /**
+     * Retrieve DOI details by its id.
+     */
+    CompletableFuture<DataCiteDoi> retrieveDoi(String doiId);
+
+    /**
+     * Register/mint new DOI.
+     */
+    CompletableFuture<DataCiteDoi> registerDoi(DataCiteDoi doiToCreate);
+
+    /**
+     * Update DOI.
+     */
+    CompletableFuture<DataCiteDoi> updateDoi(DataCiteDoi doiUpdate);
+
+    /**
+     * Delete DOI with given id. Only possible for DOIs in 'draft' state.
+     */
+    CompletableFuture<Boolean> deleteDoi(String doiId);
+
+    /**
+     * Update and publish DOI. Only possible for DOIs in 'draft' or 'registered' state.
+     */
+    CompletableFuture<DataCiteDoi> publishDoi(DataCiteDoi doiToPublish);
+
+    /**
+     * Retract published DOI. Only possible for DOIs in 'published' state.
+     */
+    CompletableFuture<DataCiteDoi> retractDoi(DataCiteDoi doiToRetract);
+
+}
@@ -0,0 +1,328 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.researchspace.datacite.model.DataCiteCircuitOpenException;
+import com.researchspace.datacite.model.DataCiteConnectionException;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiRequestWrapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.lang.Validate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+/**
+ * AsyncDataCiteClient running on top of non-blocking JDK {@link HttpClient}. 
+ * 
+ * No thread is blocked while waiting for DataCite response, so many requests can be in flight at once.
+ * Error responses are mapped to exceptions in the same way as in {@link DataCiteClientImpl}.
+ *
+ * When created with {@link DataCiteClientImpl.Builder#buildAsync()}, the client applies the builder's connection
+ * limit (shared with blocking clients of the same builder), rate limiter, retry policies and circuit breakers,
+ * without blocking threads: requests wait for a free connection or rate limiter permit, and retries wait for
+ * their backoff, on timers. The bulkhead, conditional requests, request coalescing and request compression
+ * apply only to the blocking client.
+ */
+public class AsyncDataCiteClientImpl implements AsyncDataCiteClient {
+
+    private final DataCiteApiUris dataciteApiUris;
+
+    private final String basicAuthenticationHeader;
+
+    private final String repositoryPrefix;
+
+    private final HttpClient httpClient;
+
+    private final Duration readTimeout;
+
+    private final DataCiteInstrumentation instrumentation;
+
+    /* shared with blocking clients using the same request factory, null if unlimited */
+    private final ConnectionPermits connectionPermits;
+
+    /* null if requests aren't rate limited */
+    private final DataCiteRateLimiter rateLimiter;
+
+    private final DataCiteRetryPolicy defaultRetryPolicy;
+
+    private final Map<DataCiteOperation, DataCiteRetryPolicy> retryPolicies;
+
+    private final Map<DataCiteOperation, DataCiteCircuitBreaker> circuitBreakers;
+
+    /**
+     * @param dataciteApiURI url to datacite api, e.g. "https://api.test.datacite.org/"
+     * @param username datacite username to use for creating/updating DOIs
+     * @param password datacite user's password
+     * @param repositoryPrefix prefix to use when creating new DOIs, e.g. "10.82316"
+     */
+    public AsyncDataCiteClientImpl(URI dataciteApiURI, String username, String password, String repositoryPrefix) {
+        this(dataciteApiURI, username, password, repositoryPrefix, 
+                JdkHttpClientRequestFactory.builder().build().getHttpClient(), JdkHttpClientRequestFactory.DEFAULT_READ_TIMEOUT);
+    }
+
+    /**
+     * @param httpClient http client to use, can be shared with synchronous client (see {@link DataCiteClientImpl.Builder#buildAsync()})
+     * @param readTimeout maximum time to wait for DataCite response, or null for no timeout
+     */
+    public AsyncDataCiteClientImpl(URI dataciteApiURI, String username, String password, String repositoryPrefix,
+            HttpClient httpClient, Duration readTimeout) {
+        this(dataciteApiURI, username, password, repositoryPrefix, httpClient, readTimeout, DataCiteInstrumentation.NOOP);
+    }
+
+    /**
+     * @param instrumentation receives timings, status codes and errors of all calls to DataCite
+     */
+    public AsyncDataCiteClientImpl(URI dataciteApiURI, String username, String password, String repositoryPrefix,
+            HttpClient httpClient, Duration readTimeout, DataCiteInstrumentation instrumentation) {
+        this(dataciteApiURI, username, password, repositoryPrefix, httpClient, readTimeout, instrumentation,
+                null, null, DataCiteRetryPolicy.NONE, Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    AsyncDataCiteClientImpl(URI dataciteApiURI, String username, String password, String repositoryPrefix,
+            HttpClient httpClient, Duration readTimeout, DataCiteInstrumentation instrumentation,
+            ConnectionPermits connectionPermits, DataCiteRateLimiter rateLimiter, DataCiteRetryPolicy defaultRetryPolicy,
+            Map<DataCiteOperation, DataCiteRetryPolicy> retryPolicies,
+            Map<DataCiteOperation, DataCiteCircuitBreaker> circuitBreakers) {
+        Validate.notNull(dataciteApiURI);
+        Validate.notNull(httpClient);
+        Validate.notNull(instrumentation);
+        Validate.notNull(defaultRetryPolicy);
+        this.dataciteApiUris = new DataCiteApiUris(dataciteApiURI);
+        this.basicAuthenticationHeader = DataCiteClientImpl.basicAuthenticationHeader(username, password);
+        this.repositoryPrefix = repositoryPrefix;
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+        this.instrumentation = instrumentation;
+        this.connectionPermits = connectionPermits;
+        this.rateLimiter = rateLimiter;
+        this.defaultRetryPolicy = defaultRetryPolicy;
+        this.retryPolicies = copyOf(retryPolicies);
+        this.circuitBreakers = copyOf(circuitBreakers);
+    }
+
+    private static <V> Map<DataCiteOperation, V> copyOf(Map<DataCiteOperation, V> map) {
+        Map<DataCiteOperation, V> copy = new EnumMap<>(DataCiteOperation.class);
+        copy.putAll(map);
+        return copy;
+    }
+
+    @Override
+    public CompletableFuture<DataCiteDoi> retrieveDoi(String doiId) {
+        HttpRequest request = requestBuilder(dataciteApiUris.doi(doiId)).GET().build();
+        return send(DataCiteOperation.RETRIEVE, request).thenApply(this::readDoi);
+    }
+
+    @Override
+    public CompletableFuture<DataCiteDoi> registerDoi(DataCiteDoi doiToCreate) {
+        DataCiteDoi doiRequestData = doiToCreate.shallowCopy();
+        doiRequestData.getAttributes().setPrefix(repositoryPrefix);
+        return sendDoi(DataCiteOperation.REGISTER, "POST", dataciteApiUris.dois(), doiRequestData);
+    }
+
+    @Override
+    public CompletableFuture<DataCiteDoi> updateDoi(DataCiteDoi doiUpdate) {
+        return updateDoi(DataCiteOperation.UPDATE, doiUpdate);
+    }
+
+    private CompletableFuture<DataCiteDoi> updateDoi(DataCiteOperation operation, DataCiteDoi doiUpdate) {
+        return sendDoi(operation, "PUT", dataciteApiUris.doi(doiUpdate.getId()), doiUpdate);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteDoi(String doiId) {
+        HttpRequest request = requestBuilder(dataciteApiUris.doiWithoutParams(doiId)).DELETE().build();
+        return send(DataCiteOperation.DELETE, request).thenApply(response -> response.statusCode() == HttpStatus.NO_CONTENT.value());
+    }
+
+    @Override
+    public CompletableFuture<DataCiteDoi> publishDoi(DataCiteDoi doiToPublish) {
+        return updateDoi(DataCiteOperation.PUBLISH, DataCiteClientImpl.withEvent(doiToPublish, "publish"));
+    }
+
+    @Override
+    public CompletableFuture<DataCiteDoi> retractDoi(DataCiteDoi doiToRetract) {
+        return updateDoi(DataCiteOperation.RETRACT, DataCiteClientImpl.withEvent(doiToRetract, "hide"));
+    }
+
+    private CompletableFuture<DataCiteDoi> sendDoi(DataCiteOperation operation, String method, URI uri, DataCiteDoi doi) {
+        DataCiteDoiRequestWrapper doiRequest = new DataCiteDoiRequestWrapper();
+        doiRequest.setData(doi);
+        byte[] body;
+        try {
+            body = DataCiteJson.WRAPPER_WRITER.writeValueAsBytes(doiRequest);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(
+                    new DataCiteConnectionException("Unable to serialize DOI request.", e));
+        }
+        HttpRequest request = requestBuilder(uri)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return send(operation, request).thenApply(this::readDoi);
+    }
+
+    private HttpRequest.Builder requestBuilder(URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header("authorization", basicAuthenticationHeader);
+        if (readTimeout != null) {
+            builder.timeout(readTimeout);
+        }
+        return builder;
+    }
+
+    /** Sends the request and maps connection problems and error responses into DataCiteConnectionException */
+    private CompletableFuture<HttpResponse<byte[]>> send(DataCiteOperation operation, HttpRequest request) {
+        DataCiteInstrumentation.Observation observation = instrumentation.start(operation);
+        return withRetries(operation, request, observation, 1, System.nanoTime())
+                .whenComplete((response, error) -> observation.stop(unwrap(error)));
+    }
+
+    /** Sends the request, repeating it after a delay as long as retry policy configured for the operation allows */
+    private CompletableFuture<HttpResponse<byte[]>> withRetries(DataCiteOperation operation, HttpRequest request,
+            DataCiteInstrumentation.Observation observation, int attempt, long startNanos) {
+        DataCiteRetryPolicy retryPolicy = retryPolicies.getOrDefault(operation, defaultRetryPolicy);
+        return guarded(operation, () -> limited(() -> exchange(request, observation))).handle((response, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(response);
+            }
+            Throwable failure = unwrap(error);
+            Duration delay = failure instanceof Exception ? retryPolicy.nextDelay(attempt, (Exception) failure,
+                    Duration.ofNanos(System.nanoTime() - startNanos), operation.isIdempotent()) : null;
+            if (delay == null) {
+                return CompletableFuture.<HttpResponse<byte[]>>failedFuture(failure);
+            }
+            observation.onRetry(attempt, failure, delay);
+            return after(delay.toNanos())
+                    .thenCompose(ignored -> withRetries(operation, request, observation, attempt + 1, startNanos));
+        }).thenCompose(Function.identity());
+    }
+
+    /** Runs single attempt through circuit breaker configured for the operation */
+    private CompletableFuture<HttpResponse<byte[]>> guarded(DataCiteOperation operation,
+            Supplier<CompletableFuture<HttpResponse<byte[]>>> call) {
+        DataCiteCircuitBreaker circuitBreaker = circuitBreakers.get(operation);
+        if (circuitBreaker == null) {
+            return call.get();
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new DataCiteCircuitOpenException(
+                    "Calls to DataCite suspended after repeated failures, try again later.",
+                    circuitBreaker.getRemainingOpenDuration()));
+        }
+        return call.get().whenComplete((response, error) -> circuitBreaker.record(unwrap(error)));
+    }
+
+    /** Waits for rate limiter permit and then for free connection, both without blocking the caller */
+    private CompletableFuture<HttpResponse<byte[]>> limited(Supplier<CompletableFuture<HttpResponse<byte[]>>> call) {
+        CompletableFuture<Void> rateLimited = rateLimiter != null
+                ? after(rateLimiter.reserve(System.nanoTime())) : CompletableFuture.completedFuture(null);
+        if (connectionPermits == null) {
+            return rateLimited.thenCompose(ignored -> call.get());
+        }
+        return rateLimited
+                .thenCompose(ignored -> connectionPermits.acquireAsync())
+                .thenCompose(ignored -> {
+                    try {
+                        return call.get().whenComplete((response, error) -> connectionPermits.release());
+                    } catch (RuntimeException e) {
+                        connectionPermits.release();
+                        throw e;
+                    }
+                });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> exchange(HttpRequest request, DataCiteInstrumentation.Observation observation) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    if (response == null) {
+                        return;
+                    }
+                    observation.onResponse(response.statusCode());
+                    if (response.statusCode() == RateLimitingInterceptor.TOO_MANY_REQUESTS) {
+                        observation.onThrottled(DataCiteRateLimiter.parseRetryAfter(toResponseHeaders(response)));
+                    }
+                    if (rateLimiter != null) {
+                        RateLimitingInterceptor.onResponse(rateLimiter, response.statusCode(), toResponseHeaders(response));
+                    }
+                })
+                .handle(this::checkResponse);
+    }
+
+    private static CompletableFuture<Void> after(long delayNanos) {
+        if (delayNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS));
+    }
+
+    private HttpResponse<byte[]> checkResponse(HttpResponse<byte[]> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = unwrap(error);
+            if (cause instanceof IOException) {
+                /* as RestTemplate does, so retry policies and circuit breakers see timeouts and resets as transient */
+                cause = new ResourceAccessException("I/O error on request to DataCite: " + cause.getMessage(), (IOException) cause);
+            }
+            throw DataCiteClientImpl.wrapDataCiteException(
+                    cause instanceof Exception ? (Exception) cause : new CompletionException(cause));
+        }
+        if (response.statusCode() >= 400) {
+            // the only GETs are DOI lookups
+            throw "GET".equals(response.request().method())
+                    ? DataCiteClientImpl.wrapLookupException(toResponseException(response))
+                    : DataCiteClientImpl.wrapDataCiteException(toResponseException(response));
+        }
+        return response;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private DataCiteDoi readDoi(HttpResponse<byte[]> response) {
+        try {
+            return DataCiteJson.DEFAULT_READERS.wrapperReader.<DataCiteDoiRequestWrapper>readValue(response.body()).getData();
+        } catch (IOException e) {
+            throw new DataCiteConnectionException("Unable to parse DataCite response.", e);
+        }
+    }
+
+    /** Creates the same exception as RestTemplate would throw for given error response */
+    static RestClientResponseException toResponseException(HttpResponse<byte[]> response) {
+        HttpHeaders headers = toResponseHeaders(response);
+        HttpStatus status = HttpStatus.resolve(response.statusCode());
+        if (status == null) {
+            return new UnknownHttpStatusCodeException(response.statusCode(), "", headers, response.body(), StandardCharsets.UTF_8);
+        }
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status, status.getReasonPhrase(), headers, response.body(), StandardCharsets.UTF_8);
+        }
+        return HttpServerErrorException.create(status, status.getReasonPhrase(), headers, response.body(), StandardCharsets.UTF_8);
+    }
+
+    private static HttpHeaders toResponseHeaders(HttpResponse<?> response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.headers().map().forEach(headers::addAll);
+        return headers;
+    }
+
+}
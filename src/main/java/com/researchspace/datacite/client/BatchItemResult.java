@@ -0,0 +1,43 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import lombok.Value;
+
+/**
+ * Outcome of processing a single DOI in a batch.
+ */
+@Value
+public class BatchItemResult {
+
+    public enum Stage {
+        REGISTER, PUBLISH
+    }
+
+    /** position of the item in the submitted list */
+    int index;
+
+    /** DOI as submitted to the batch */
+    DataCiteDoi input;
+
+    /** DOI as returned by DataCite after last successful stage, null if registration failed */
+    DataCiteDoi result;
+
+    /** stage at which processing failed, null if item succeeded */
+    Stage failedStage;
+
+    /** exception thrown by failed stage, null if item succeeded */
+    Exception error;
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+
+    static BatchItemResult success(int index, DataCiteDoi input, DataCiteDoi result) {
+        return new BatchItemResult(index, input, result, null, null);
+    }
+
+    static BatchItemResult failure(int index, DataCiteDoi input, DataCiteDoi result, Stage failedStage, Exception error) {
+        return new BatchItemResult(index, input, result, failedStage, error);
+    }
+
+}
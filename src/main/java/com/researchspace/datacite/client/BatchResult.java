@@ -0,0 +1,27 @@
+package com.researchspace.datacite.client;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Value;
+
+/**
+ * Results of batch operation, one per submitted DOI, in submission order.
+ */
+@Value
+public class BatchResult {
+
+    List<BatchItemResult> items;
+
+    public List<BatchItemResult> getSucceeded() {
+        return items.stream().filter(BatchItemResult::isSucceeded).collect(Collectors.toList());
+    }
+
+    public List<BatchItemResult> getFailed() {
+        return items.stream().filter(item -> !item.isSucceeded()).collect(Collectors.toList());
+    }
+
+    public boolean isAllSucceeded() {
+        return items.stream().allMatch(BatchItemResult::isSucceeded);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.researchspace.datacite.client;
+
+import lombok.Value;
+
+/**
+ * Outcome of {@link DataCiteBulkTransfer} export or import.
+ */
+@Value
+public class BulkTransferResult {
+
+    /** number of records written (export) or sent to DataCite (import) by this run */
+    long recordCount;
+
+    /** number of records skipped by import, as already done according to the checkpoint */
+    long skippedCount;
+
+    /** number of imported DOIs that didn't exist in DataCite, and were created */
+    long createdCount;
+
+    /** number of records that DataCite rejected */
+    long failedCount;
+
+    public boolean isSucceeded() {
+        return failedCount == 0;
+    }
+
+}
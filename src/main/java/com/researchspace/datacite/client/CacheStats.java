@@ -0,0 +1,29 @@
+package com.researchspace.datacite.client;
+
+import lombok.Value;
+
+/**
+ * Snapshot of {@link DataCiteDoiCache} statistics.
+ */
+@Value
+public class CacheStats {
+
+    long hitCount;
+    long missCount;
+    /** number of entries removed because they expired or the cache was full */
+    long evictionCount;
+    int size;
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return ratio of cache hits to all lookups, 1.0 if there were no lookups yet
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+}
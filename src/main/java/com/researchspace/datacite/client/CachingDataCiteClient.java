@@ -0,0 +1,149 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiSummary;
+import com.researchspace.datacite.model.ImmutableDataCiteDoi;
+import java.time.Instant;
+import java.util.stream.Stream;
+import org.apache.commons.lang.Validate;
+
+/**
+ * DataCiteClient decorator serving repeated {@link #retrieveDoi(String)} calls from {@link DataCiteDoiCache}.
+ * 
+ * Cached entries are invalidated whenever the DOI is updated, published, retracted or deleted through this client.
+ * Changes made outside of this client become visible once cached entry expires.
+ */
+public class CachingDataCiteClient implements DataCiteClient {
+
+    private final DataCiteClient delegate;
+
+    private final DataCiteDoiCache cache;
+
+    /* prepended to cache keys, so clients of different repositories can share the cache */
+    private final String keyPrefix;
+
+    public CachingDataCiteClient(DataCiteClient delegate) {
+        this(delegate, new DataCiteDoiCache());
+    }
+
+    public CachingDataCiteClient(DataCiteClient delegate, DataCiteDoiCache cache) {
+        this(delegate, cache, "");
+    }
+
+    CachingDataCiteClient(DataCiteClient delegate, DataCiteDoiCache cache, String keyPrefix) {
+        Validate.notNull(delegate);
+        Validate.notNull(cache);
+        Validate.notNull(keyPrefix);
+        this.delegate = delegate;
+        this.cache = cache;
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * Returns copy of cached DOI if available, the caller is free to modify it.
+     */
+    @Override
+    public DataCiteDoi retrieveDoi(String doiId) {
+        DataCiteDoi cached = cache.get(key(doiId));
+        if (cached != null) {
+            return cached;
+        }
+        long loadId = cache.startLoad();
+        try {
+            DataCiteDoi retrieved = delegate.retrieveDoi(doiId);
+            cache.put(key(doiId), retrieved, loadId);
+            return retrieved;
+        } finally {
+            cache.endLoad(loadId);
+        }
+    }
+
+    /**
+     * Creates summary from cached DOI if available, otherwise retrieves the summary without caching it.
+     */
+    @Override
+    public DataCiteDoiSummary retrieveDoiSummary(String doiId, DoiField... fields) {
+        ImmutableDataCiteDoi cached = cache.getSnapshot(key(doiId));
+        if (cached != null) {
+            return DataCiteDoiSummary.of(cached);
+        }
+        return delegate.retrieveDoiSummary(doiId, fields);
+    }
+
+    @Override
+    public DataCiteDoi registerDoi(DataCiteDoi doiToCreate) {
+        return delegate.registerDoi(doiToCreate);
+    }
+
+    @Override
+    public DataCiteDoi updateDoi(DataCiteDoi doiUpdate) {
+        try {
+            return delegate.updateDoi(doiUpdate);
+        } finally {
+            cache.invalidate(key(doiUpdate.getId()));
+        }
+    }
+
+    @Override
+    public boolean deleteDoi(String doiId) {
+        try {
+            return delegate.deleteDoi(doiId);
+        } finally {
+            cache.invalidate(key(doiId));
+        }
+    }
+
+    @Override
+    public DataCiteDoi publishDoi(DataCiteDoi doiToPublish) {
+        try {
+            return delegate.publishDoi(doiToPublish);
+        } finally {
+            cache.invalidate(key(doiToPublish.getId()));
+        }
+    }
+
+    @Override
+    public DataCiteDoi retractDoi(DataCiteDoi doiToRetract) {
+        try {
+            return delegate.retractDoi(doiToRetract);
+        } finally {
+            cache.invalidate(key(doiToRetract.getId()));
+        }
+    }
+
+    @Override
+    public Stream<DataCiteDoi> listDois(int pageSize) {
+        return delegate.listDois(pageSize);
+    }
+
+    @Override
+    public Stream<DataCiteDoi> listDoisUpdatedSince(Instant updatedSince, int pageSize) {
+        return delegate.listDoisUpdatedSince(updatedSince, pageSize);
+    }
+
+    @Override
+    public boolean testConnectionToDataCite() {
+        return delegate.testConnectionToDataCite();
+    }
+
+    /**
+     * Drops the cached DOI, e.g. after it was changed by other means than this client.
+     */
+    public void invalidate(String doiId) {
+        cache.invalidate(key(doiId));
+    }
+
+    /* DOI names are case-insensitive, so '10.82316/ABC' and '10.82316/abc' share the entry */
+    private String key(String doiId) {
+        return doiId == null ? null : keyPrefix + doiId.toLowerCase();
+    }
+
+    public DataCiteDoiCache getCache() {
+        return cache;
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.researchspace.datacite.client;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Fair limit of concurrent exchanges with DataCite, shared by blocking and non-blocking clients using the same
+ * {@link JdkHttpClientRequestFactory}. Blocking callers wait in {@link #acquire()}, non-blocking ones get a future
+ * from {@link #acquireAsync()} that completes once the permit is theirs; both are served in the order they arrived.
+ */
+class ConnectionPermits {
+
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+    /* guarded by this */
+    private int availablePermits;
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    ConnectionPermits(int maxPermits) {
+        this.availablePermits = maxPermits;
+    }
+
+    /**
+     * @return future completed when the permit is acquired, already completed if a permit was free
+     */
+    CompletableFuture<Void> acquireAsync() {
+        synchronized (this) {
+            if (availablePermits > 0 && waiters.isEmpty()) {
+                availablePermits--;
+                return ACQUIRED;
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+
+    void acquire() throws InterruptedException {
+        CompletableFuture<Void> waiter = acquireAsync();
+        try {
+            waiter.get();
+        } catch (InterruptedException e) {
+            if (!waiter.cancel(false)) {
+                release(); // permit was handed over just before the interruption
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e); // waiters are never completed exceptionally
+        }
+    }
+
+    /**
+     * Hands the permit over to the longest waiting caller, or returns it to the pool if nobody waits.
+     */
+    void release() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    availablePermits++;
+                    return;
+                }
+            }
+            /* completed outside the lock, as it runs the waiter's continuation; cancelled waiters are skipped */
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    synchronized int getAvailablePermits() {
+        return availablePermits;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.researchspace.datacite.client;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Builds URIs of DataCite REST API endpoints used by the clients.
+ */
+class DataCiteApiUris {
+
+    private static final DateTimeFormatter UPDATED_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private final URI dataciteApiURI;
+
+    DataCiteApiUris(URI dataciteApiURI) {
+        this.dataciteApiURI = dataciteApiURI;
+    }
+
+    /** DOI details endpoint, with affiliation details included */
+    URI doi(String doiId) {
+        return dataciteApiURI.resolve("/dois/" + doiId + "/?affiliation=true");
+    }
+
+    /** DOI details endpoint, returning only requested attributes (sparse fieldset) */
+    URI doiFields(String doiId, Collection<DoiField> fields) {
+        String fieldList = fields.stream().map(DoiField::getJsonName).collect(Collectors.joining(","));
+        return dataciteApiURI.resolve("/dois/" + doiId + "?fields%5Bdois%5D=" + fieldList);
+    }
+
+    /** DOI endpoint without parameters, used for deletion */
+    URI doiWithoutParams(String doiId) {
+        return dataciteApiURI.resolve("/dois/" + doiId);
+    }
+
+    /** DOI creation endpoint, with affiliation details included in response */
+    URI dois() {
+        return dataciteApiURI.resolve("/dois/?affiliation=true");
+    }
+
+    /** DOI creation endpoint without parameters */
+    URI doisWithoutParams() {
+        return dataciteApiURI.resolve("/dois");
+    }
+
+    /** First page of DOIs with given prefix, using cursor-based pagination */
+    URI doisPage(String prefix, int pageSize) {
+        return dataciteApiURI.resolve("/dois?prefix=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8)
+                + "&page%5Bcursor%5D=1&page%5Bsize%5D=" + pageSize + "&affiliation=true");
+    }
+
+    /**
+     * First page of DOIs with given prefix updated at or after given time, oldest change first, using cursor-based
+     * pagination. Uses query of DataCite search index, with colons of the timestamp escaped.
+     */
+    URI doisUpdatedSincePage(String prefix, Instant updatedSince, int pageSize) {
+        String updatedQuery = "updated:[" + UPDATED_FORMAT.format(updatedSince).replace(":", "\\:") + " TO *]";
+        return dataciteApiURI.resolve("/dois?prefix=" + URLEncoder.encode(prefix, StandardCharsets.UTF_8)
+                + "&query=" + URLEncoder.encode(updatedQuery, StandardCharsets.UTF_8)
+                + "&sort=updated&page%5Bcursor%5D=1&page%5Bsize%5D=" + pageSize + "&affiliation=true");
+    }
+
+    /** 
+     * Resolves pagination link returned by DataCite against configured API url, so requests (and credentials) 
+     * are never sent to another host.
+     */
+    URI pageLink(String link) {
+        URI linkUri = URI.create(link);
+        String pathAndQuery = linkUri.getRawPath() + (linkUri.getRawQuery() != null ? "?" + linkUri.getRawQuery() : "");
+        return dataciteApiURI.resolve(pathAndQuery);
+    }
+
+    URI heartbeat() {
+        return dataciteApiURI.resolve("/heartbeat");
+    }
+
+    URI clientPrefixes(String clientId, String prefixId) {
+        return dataciteApiURI.resolve("/client-prefixes?"
+                + "client-id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8)
+                + "&prefix-id=" + URLEncoder.encode(prefixId, StandardCharsets.UTF_8));
+    }
+
+}
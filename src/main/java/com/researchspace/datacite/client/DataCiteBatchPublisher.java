@@ -0,0 +1,146 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.client.BatchItemResult.Stage;
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Registers and publishes collections of DOIs, running up to 'concurrency' DOIs through 
+ * the register -> publish pipeline at the same time.
+ * 
+ * Failure of one item doesn't stop the batch, outcome of each item is reported in {@link BatchResult}.
+ */
+public class DataCiteBatchPublisher {
+
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    private final DataCiteClient dataCiteClient;
+
+    private final int concurrency;
+
+    /* caller-provided executor; if null a pool is created for each batch */
+    private final ExecutorService executor;
+
+    public DataCiteBatchPublisher(DataCiteClient dataCiteClient) {
+        this(dataCiteClient, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param concurrency number of DOIs processed in parallel
+     */
+    public DataCiteBatchPublisher(DataCiteClient dataCiteClient, int concurrency) {
+        this(dataCiteClient, concurrency, null);
+    }
+
+    /**
+     * @param concurrency maximum number of DOIs processed in parallel
+     * @param executor executor to run the calls on, not shut down by this class
+     */
+    public DataCiteBatchPublisher(DataCiteClient dataCiteClient, int concurrency, ExecutorService executor) {
+        Validate.notNull(dataCiteClient);
+        Validate.isTrue(concurrency > 0, "concurrency must be positive");
+        this.dataCiteClient = dataCiteClient;
+        this.concurrency = concurrency;
+        this.executor = executor;
+    }
+
+    /**
+     * Registers each of provided DOIs and then publishes it. Blocks until all items are processed.
+     * 
+     * @return per-item results, in the same order as provided DOIs
+     */
+    public BatchResult registerAndPublishAll(List<DataCiteDoi> doisToPublish) {
+        return runAll(doisToPublish, this::registerAndPublish);
+    }
+
+    /**
+     * Publishes each of provided, already registered DOIs. Blocks until all items are processed.
+     * 
+     * @return per-item results, in the same order as provided DOIs
+     */
+    public BatchResult publishAll(List<DataCiteDoi> doisToPublish) {
+        return runAll(doisToPublish, this::publish);
+    }
+
+    private BatchItemResult registerAndPublish(int index, DataCiteDoi doi) {
+        DataCiteDoi registered;
+        try {
+            registered = dataCiteClient.registerDoi(doi);
+        } catch (Exception e) {
+            return BatchItemResult.failure(index, doi, null, Stage.REGISTER, e);
+        }
+        try {
+            return BatchItemResult.success(index, doi, dataCiteClient.publishDoi(registered));
+        } catch (Exception e) {
+            return BatchItemResult.failure(index, doi, registered, Stage.PUBLISH, e);
+        }
+    }
+
+    private BatchItemResult publish(int index, DataCiteDoi doi) {
+        try {
+            return BatchItemResult.success(index, doi, dataCiteClient.publishDoi(doi));
+        } catch (Exception e) {
+            return BatchItemResult.failure(index, doi, null, Stage.PUBLISH, e);
+        }
+    }
+
+    private interface ItemProcessor {
+        BatchItemResult process(int index, DataCiteDoi doi);
+    }
+
+    private BatchResult runAll(List<DataCiteDoi> dois, ItemProcessor processor) {
+        Validate.notNull(dois);
+        if (dois.isEmpty()) {
+            return new BatchResult(List.of());
+        }
+        ExecutorService batchExecutor = executor != null ? executor : createBatchExecutor(dois.size());
+        try {
+            /* with shared executor the pool may be bigger than requested concurrency, so limit with permits */
+            Semaphore permits = new Semaphore(concurrency);
+            List<CompletableFuture<BatchItemResult>> futures = new ArrayList<>(dois.size());
+            for (int i = 0; i < dois.size(); i++) {
+                int index = i;
+                DataCiteDoi doi = dois.get(i);
+                permits.acquireUninterruptibly();
+                try {
+                    futures.add(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return processor.process(index, doi);
+                        } finally {
+                            permits.release();
+                        }
+                    }, batchExecutor));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            List<BatchItemResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<BatchItemResult> future : futures) {
+                results.add(future.join());
+            }
+            return new BatchResult(results);
+        } finally {
+            if (batchExecutor != executor) {
+                batchExecutor.shutdown();
+            }
+        }
+    }
+
+    private ExecutorService createBatchExecutor(int batchSize) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.min(concurrency, batchSize), runnable -> {
+            Thread thread = new Thread(runnable, "datacite-batch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+}
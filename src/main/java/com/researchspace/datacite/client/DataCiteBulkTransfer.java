@@ -0,0 +1,372 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteNotFoundException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Exports all DOIs of the repository to an NDJSON file (one {@link DataCiteDoi} JSON per line), and imports
+ * them back, for backups and migrations.
+ *
+ * Both directions stream the records: export writes DOIs as pages of {@link DataCiteClient#listDois(int)} are
+ * retrieved, import keeps only the records being sent, so memory use doesn't depend on the number of DOIs.
+ *
+ * Import sends records in parallel, and keeps a checkpoint file with the number of leading records that are
+ * done. When import is run again with the same checkpoint file (e.g. after a crash), these records are skipped.
+ * Records rejected by DataCite count as done, they are reported to {@link Listener#onFailed(long, DataCiteDoi, Exception)}.
+ */
+public class DataCiteBulkTransfer {
+
+    public enum Compression {
+        NONE, GZIP
+    }
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    private static final ObjectWriter DOI_WRITER = DataCiteJson.OBJECT_MAPPER.writerFor(DataCiteDoi.class);
+    private static final ObjectReader DOI_READER = DataCiteJson.OBJECT_MAPPER.readerFor(DataCiteDoi.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Receives results of imported records. Called on import threads.
+     */
+    public interface Listener {
+
+        /**
+         * @param recordNumber position of the record in the file, from 0
+         * @param doi imported record
+         * @param error the reason DataCite rejected the record
+         */
+        default void onFailed(long recordNumber, DataCiteDoi doi, Exception error) {
+        }
+    }
+
+    private final DataCiteClient client;
+    private final Compression compression;
+    private final int pageSize;
+    private final int parallelism;
+    private final int checkpointInterval;
+    private final Listener listener;
+
+    private DataCiteBulkTransfer(Builder builder) {
+        this.client = builder.client;
+        this.compression = builder.compression;
+        this.pageSize = builder.pageSize;
+        this.parallelism = builder.parallelism;
+        this.checkpointInterval = builder.checkpointInterval;
+        this.listener = builder.listener;
+    }
+
+    public static Builder builder(DataCiteClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Writes all DOIs of the repository to the file. The file is replaced only once all DOIs are written.
+     */
+    public BulkTransferResult exportDois(Path file) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        long recordCount = 0;
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                OutputStream out = compressed(Channels.newOutputStream(channel));
+                Stream<DataCiteDoi> dois = client.listDois(pageSize)) {
+            Iterator<DataCiteDoi> iterator = dois.iterator();
+            while (iterator.hasNext()) {
+                out.write(DOI_WRITER.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                recordCount++;
+            }
+            finishAndSync(out, channel);
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new BulkTransferResult(recordCount, 0, 0, 0);
+    }
+
+    /**
+     * Sends DOIs from the file to DataCite. Existing DOIs are updated, DOIs that don't exist are created
+     * (with repository prefix of the client) in the state they had when exported. Compression of the file
+     * is detected.
+     *
+     * @param checkpointFile file keeping import progress, created if it doesn't exist
+     */
+    public BulkTransferResult importDois(Path file, Path checkpointFile) throws IOException {
+        long alreadyDone = readCheckpoint(checkpointFile);
+        ImportProgress progress = new ImportProgress(alreadyDone, checkpointFile);
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "datacite-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long recordNumber = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        decompressed(Channels.newInputStream(channel)), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                long currentRecord = recordNumber++;
+                if (currentRecord < alreadyDone) {
+                    continue;
+                }
+                DataCiteDoi doi = DOI_READER.readValue(line);
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        importRecord(currentRecord, doi, progress);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(parallelism * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+            progress.saveCheckpoint();
+        }
+        return new BulkTransferResult(recordNumber - Math.min(alreadyDone, recordNumber), Math.min(alreadyDone, recordNumber),
+                progress.createdCount.get(), progress.failedCount.get());
+    }
+
+    private void importRecord(long recordNumber, DataCiteDoi doi, ImportProgress progress) {
+        try {
+            if (updateOrCreate(doi)) {
+                progress.createdCount.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            progress.failedCount.incrementAndGet();
+            listener.onFailed(recordNumber, doi, e);
+        }
+        progress.recordDone(recordNumber);
+    }
+
+    /** @return true if DOI didn't exist and was created */
+    private boolean updateOrCreate(DataCiteDoi doi) {
+        try {
+            client.updateDoi(copyOf(doi));
+            return false;
+        } catch (DataCiteNotFoundException e) {
+            // DOI not in the repository yet, created below
+        }
+        DataCiteDoi toCreate = copyOf(doi);
+        String suffix = StringUtils.substringAfter(doi.getId(), "/");
+        toCreate.setId(null);
+        toCreate.getAttributes().setDoi(null);
+        toCreate.getAttributes().setSuffix(suffix);
+        toCreate.getAttributes().setEvent(eventRestoring(doi.getAttributes().getState()));
+        client.registerDoi(toCreate);
+        return true;
+    }
+
+    /* DataCite event moving new draft DOI to the exported state */
+    private static String eventRestoring(String state) {
+        if ("findable".equals(state)) {
+            return "publish";
+        }
+        if ("registered".equals(state)) {
+            return "register";
+        }
+        return null;
+    }
+
+    /** Tracks completed records, advancing the checkpoint over the ones completed without gaps */
+    private class ImportProgress {
+        private final Path checkpointFile;
+        private final AtomicLong createdCount = new AtomicLong();
+        private final AtomicLong failedCount = new AtomicLong();
+
+        /* records completed ahead of the checkpoint, bounded by the number of records in flight */
+        private final TreeSet<Long> completedAhead = new TreeSet<>();
+        private long checkpoint;
+        private long savedCheckpoint;
+
+        ImportProgress(long checkpoint, Path checkpointFile) {
+            this.checkpoint = checkpoint;
+            this.savedCheckpoint = checkpoint;
+            this.checkpointFile = checkpointFile;
+        }
+
+        void recordDone(long recordNumber) {
+            boolean save;
+            synchronized (this) {
+                completedAhead.add(recordNumber);
+                while (!completedAhead.isEmpty() && completedAhead.first() == checkpoint) {
+                    completedAhead.pollFirst();
+                    checkpoint++;
+                }
+                save = checkpoint - savedCheckpoint >= checkpointInterval;
+            }
+            if (save) {
+                saveCheckpoint();
+            }
+        }
+
+        synchronized void saveCheckpoint() {
+            if (checkpoint == savedCheckpoint && Files.exists(checkpointFile)) {
+                return;
+            }
+            try {
+                writeCheckpoint(checkpointFile, checkpoint);
+                savedCheckpoint = checkpoint;
+            } catch (IOException e) {
+                // progress is saved again with the next checkpoint, at worst some records are imported twice
+            }
+        }
+    }
+
+    private static long readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String content = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+        try {
+            return content.isEmpty() ? 0 : Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid import checkpoint file " + checkpointFile, e);
+        }
+    }
+
+    private static void writeCheckpoint(Path checkpointFile, long checkpoint) throws IOException {
+        Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.writeString(tempFile, String.valueOf(checkpoint), StandardCharsets.UTF_8);
+        Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    OutputStream compressed(OutputStream out) throws IOException {
+        return compression == Compression.GZIP ? new GZIPOutputStream(out, BUFFER_SIZE) : new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    /**
+     * Writes out everything the stream holds, including pending compressed data and gzip trailer, and syncs
+     * it to disk, so the file is complete before it replaces the previous export.
+     */
+    static void finishAndSync(OutputStream out, FileChannel channel) throws IOException {
+        if (out instanceof DeflaterOutputStream) {
+            ((DeflaterOutputStream) out).finish();
+        }
+        out.flush();
+        channel.force(true);
+    }
+
+    /* gzip is recognised by its magic number */
+    private static InputStream decompressed(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        boolean gzip = first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+        return gzip ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static DataCiteDoi copyOf(DataCiteDoi doi) {
+        return DataCiteJson.OBJECT_MAPPER.convertValue(doi, DataCiteDoi.class);
+    }
+
+    public static class Builder {
+
+        private final DataCiteClient client;
+        private Compression compression = Compression.GZIP;
+        private int pageSize = DEFAULT_PAGE_SIZE;
+        private int parallelism = DEFAULT_PARALLELISM;
+        private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        private Listener listener = new Listener() {};
+
+        private Builder(DataCiteClient client) {
+            Validate.notNull(client);
+            this.client = client;
+        }
+
+        /**
+         * @param compression compression of exported files, gzip by default
+         */
+        public Builder compression(Compression compression) {
+            Validate.notNull(compression);
+            this.compression = compression;
+            return this;
+        }
+
+        /**
+         * @param pageSize number of DOIs retrieved in a single call during export, up to 1000
+         */
+        public Builder pageSize(int pageSize) {
+            Validate.isTrue(pageSize > 0 && pageSize <= 1000, "pageSize must be between 1 and 1000");
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param parallelism number of DOIs sent to DataCite concurrently during import
+         */
+        public Builder parallelism(int parallelism) {
+            Validate.isTrue(parallelism > 0, "parallelism must be positive");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param checkpointInterval number of imported records after which the checkpoint file is updated
+         */
+        public Builder checkpointInterval(int checkpointInterval) {
+            Validate.isTrue(checkpointInterval > 0, "checkpointInterval must be positive");
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        public Builder listener(Listener listener) {
+            Validate.notNull(listener);
+            this.listener = listener;
+            return this;
+        }
+
+        public DataCiteBulkTransfer build() {
+            return new DataCiteBulkTransfer(this);
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Delivers DOIs of the repository that changed since the previous sync, e.g. for mirroring DOI state and
+ * usage counts into a local database.
+ *
+ * Keeps a high-water mark of 'updated' timestamps of delivered DOIs in a checkpoint file, and asks DataCite
+ * only for DOIs updated at or after the mark (see {@link DataCiteClient#listDoisUpdatedSince(Instant, int)}),
+ * so a sync takes time proportional to the number of changes. DOIs already delivered with the mark's
+ * timestamp are remembered together with a hash of their content, so they're not delivered again, unless they
+ * changed again within the same timestamp.
+ *
+ * Changes are delivered at least once: the checkpoint advances only over changes that the consumer accepted,
+ * and if the consumer throws, the next sync starts with the rejected change.
+ */
+public class DataCiteChangeFeed {
+
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Checkpoint {
+        /* epoch millis of the latest 'updated' timestamp delivered */
+        private long highWaterMark;
+        /* keys of DOI versions delivered with the high-water mark timestamp */
+        private List<String> doisAtHighWaterMark = new ArrayList<>();
+    }
+
+    private static final ObjectWriter CHECKPOINT_WRITER = DataCiteJson.OBJECT_MAPPER.writerFor(Checkpoint.class);
+    private static final ObjectReader CHECKPOINT_READER = DataCiteJson.OBJECT_MAPPER.readerFor(Checkpoint.class);
+
+    private final DataCiteClient client;
+    private final Path checkpointFile;
+    private final Instant initialUpdatedSince;
+    private final int pageSize;
+    private final int checkpointInterval;
+
+    private DataCiteChangeFeed(Builder builder) {
+        this.client = builder.client;
+        this.checkpointFile = builder.checkpointFile;
+        this.initialUpdatedSince = builder.initialUpdatedSince;
+        this.pageSize = builder.pageSize;
+        this.checkpointInterval = builder.checkpointInterval;
+    }
+
+    /**
+     * @param client client listing the changed DOIs
+     * @param checkpointFile file keeping the high-water mark between syncs, created if it doesn't exist
+     */
+    public static Builder builder(DataCiteClient client, Path checkpointFile) {
+        return new Builder(client, checkpointFile);
+    }
+
+    /**
+     * Delivers DOIs changed since the previous sync to the consumer, oldest change first, on the calling thread.
+     *
+     * @return number of delivered changes
+     */
+    public synchronized int sync(Consumer<DoiChange> consumer) throws IOException {
+        Checkpoint checkpoint = readCheckpoint();
+        long highWaterMark = checkpoint.getHighWaterMark();
+        Set<String> doisAtHighWaterMark = new HashSet<>(checkpoint.getDoisAtHighWaterMark());
+        int deliveredCount = 0;
+        int unsavedCount = 0;
+        try (Stream<DataCiteDoi> changed = client.listDoisUpdatedSince(Instant.ofEpochMilli(highWaterMark), pageSize)) {
+            Iterator<DataCiteDoi> iterator = changed.iterator();
+            while (iterator.hasNext()) {
+                DataCiteDoi doi = iterator.next();
+                if (doi.getAttributes().getUpdated() == null) {
+                    continue;
+                }
+                long updated = doi.getAttributes().getUpdated().getTime();
+                String key = versionKey(doi);
+                if (updated < highWaterMark || (updated == highWaterMark && doisAtHighWaterMark.contains(key))) {
+                    continue;
+                }
+                consumer.accept(new DoiChange(doi.getId(), Instant.ofEpochMilli(updated), doi));
+                if (updated > highWaterMark) {
+                    highWaterMark = updated;
+                    doisAtHighWaterMark.clear();
+                }
+                doisAtHighWaterMark.add(key);
+                deliveredCount++;
+                if (++unsavedCount >= checkpointInterval) {
+                    writeCheckpoint(highWaterMark, doisAtHighWaterMark);
+                    unsavedCount = 0;
+                }
+            }
+        } finally {
+            if (unsavedCount > 0) {
+                writeCheckpoint(highWaterMark, doisAtHighWaterMark);
+            }
+        }
+        return deliveredCount;
+    }
+
+    /**
+     * @return 'updated' timestamp of the latest delivered change, or the initial timestamp if nothing was delivered yet
+     */
+    public synchronized Instant getHighWaterMark() throws IOException {
+        return Instant.ofEpochMilli(readCheckpoint().getHighWaterMark());
+    }
+
+    /* 'updated' has only second precision in DataCite, so the content tells apart changes within the same second */
+    private static String versionKey(DataCiteDoi doi) {
+        return doi.getId().toLowerCase() + "#" + Integer.toHexString(doi.getAttributes().hashCode());
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return new Checkpoint(initialUpdatedSince.toEpochMilli(), new ArrayList<>());
+        }
+        return CHECKPOINT_READER.readValue(checkpointFile.toFile());
+    }
+
+    private void writeCheckpoint(long highWaterMark, Set<String> doisAtHighWaterMark) throws IOException {
+        Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        CHECKPOINT_WRITER.writeValue(tempFile.toFile(), new Checkpoint(highWaterMark, new ArrayList<>(doisAtHighWaterMark)));
+        Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static class Builder {
+
+        private final DataCiteClient client;
+        private final Path checkpointFile;
+        private Instant initialUpdatedSince = Instant.EPOCH;
+        private int pageSize = DEFAULT_PAGE_SIZE;
+        private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+        private Builder(DataCiteClient client, Path checkpointFile) {
+            Validate.notNull(client);
+            Validate.notNull(checkpointFile);
+            this.client = client;
+            this.checkpointFile = checkpointFile;
+        }
+
+        /**
+         * @param initialUpdatedSince where the first sync starts, when there is no checkpoint yet. By default
+         *      the first sync delivers all DOIs.
+         */
+        public Builder initialUpdatedSince(Instant initialUpdatedSince) {
+            Validate.notNull(initialUpdatedSince);
+            this.initialUpdatedSince = initialUpdatedSince;
+            return this;
+        }
+
+        /**
+         * @param pageSize number of DOIs retrieved in a single call to DataCite, up to 1000
+         */
+        public Builder pageSize(int pageSize) {
+            Validate.isTrue(pageSize > 0 && pageSize <= 1000, "pageSize must be between 1 and 1000");
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param checkpointInterval number of delivered changes after which the checkpoint file is updated,
+         *      it's also updated at the end of each sync
+         */
+        public Builder checkpointInterval(int checkpointInterval) {
+            Validate.isTrue(checkpointInterval > 0, "checkpointInterval must be positive");
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        public DataCiteChangeFeed build() {
+            return new DataCiteChangeFeed(this);
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.researchspace.datacite.client;
+
+import java.time.Duration;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Circuit breaker stopping calls to DataCite while it's failing, so callers fail fast instead of 
+ * waiting for timeouts.
+ * 
+ * While CLOSED, outcomes of recent calls are recorded in a sliding window, and the breaker opens when the 
+ * failure rate in the window reaches the threshold. While OPEN, calls are rejected. After the open duration
+ * the breaker is HALF_OPEN and lets a few trial calls through: if they all succeed it closes again, 
+ * otherwise it opens again.
+ * 
+ * Only transient failures (connection problems, timeouts, 429 and 5xx responses) count as failures. 
+ * One breaker can be shared by several operations, e.g. all the operations changing DOIs.
+ */
+public class DataCiteCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    /* ring buffer of outcomes of recent calls, true for failure */
+    private final boolean[] window;
+    private int windowPosition;
+    private int recordedCalls;
+    private int recordedFailures;
+
+    private State state = State.CLOSED;
+    private long openUntilNanos;
+    private int halfOpenPermitsUsed;
+    private int halfOpenSuccesses;
+
+    private DataCiteCircuitBreaker(Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.openDurationNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.window = new boolean[windowSize];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true if the call can go ahead, in which case its outcome must be then recorded
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    synchronized boolean tryAcquire(long nowNanos) {
+        if (state == State.OPEN) {
+            if (nowNanos - openUntilNanos < 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermitsUsed = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitsUsed >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermitsUsed++;
+        }
+        return true;
+    }
+
+    /**
+     * Records outcome of a call allowed by {@link #tryAcquire()}.
+     * 
+     * @param error exception thrown by the call, or null if it succeeded
+     */
+    public void record(Throwable error) {
+        boolean failure = error instanceof Exception && DataCiteRetryPolicy.isTransient((Exception) error, true);
+        record(failure, System.nanoTime());
+    }
+
+    synchronized void record(boolean failure, long nowNanos) {
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open(nowNanos);
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return; // late outcome of a call started before opening
+        }
+        if (recordedCalls == windowSize) {
+            recordedFailures -= window[windowPosition] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        window[windowPosition] = failure;
+        recordedFailures += failure ? 1 : 0;
+        windowPosition = (windowPosition + 1) % windowSize;
+        if (recordedCalls >= minimumCalls && recordedFailures >= failureRateThreshold * recordedCalls) {
+            open(nowNanos);
+        }
+    }
+
+    private void open(long nowNanos) {
+        state = State.OPEN;
+        openUntilNanos = nowNanos + openDurationNanos;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        windowPosition = 0;
+        recordedCalls = 0;
+        recordedFailures = 0;
+    }
+
+    /**
+     * @return current state; OPEN breaker reports HALF_OPEN once open duration has passed
+     */
+    public State getState() {
+        return getState(System.nanoTime());
+    }
+
+    synchronized State getState(long nowNanos) {
+        if (state == State.OPEN && nowNanos - openUntilNanos >= 0) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @return time left until trial calls are let through, zero if the breaker isn't open
+     */
+    public Duration getRemainingOpenDuration() {
+        return getRemainingOpenDuration(System.nanoTime());
+    }
+
+    synchronized Duration getRemainingOpenDuration(long nowNanos) {
+        return state == State.OPEN ? Duration.ofNanos(Math.max(0, openUntilNanos - nowNanos)) : Duration.ZERO;
+    }
+
+    public static class Builder {
+
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+
+        /**
+         * @param windowSize number of recent calls from which failure rate is calculated
+         */
+        public Builder windowSize(int windowSize) {
+            Validate.isTrue(windowSize > 0, "windowSize must be positive");
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param minimumCalls number of calls that must be recorded before the breaker can open
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            Validate.isTrue(minimumCalls > 0, "minimumCalls must be positive");
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param failureRateThreshold fraction of failed calls (0 - 1] in the window that opens the breaker
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            Validate.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 1, "failureRateThreshold must be in (0, 1]");
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param openDuration time for which calls are rejected after the breaker opens
+         */
+        public Builder openDuration(Duration openDuration) {
+            Validate.notNull(openDuration);
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * @param halfOpenCalls number of trial calls that must succeed to close the breaker again
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            Validate.isTrue(halfOpenCalls > 0, "halfOpenCalls must be positive");
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        public DataCiteCircuitBreaker build() {
+            Validate.isTrue(minimumCalls <= windowSize, "minimumCalls can't be greater than windowSize");
+            return new DataCiteCircuitBreaker(this);
+        }
+    }
+
+}
@@ -3,8 +3,11 @@ package com.researchspace.datacite.client;
 import com.researchspace.datacite.model.DataCiteConnectionException;
 import com.researchspace.datacite.model.DataCiteDoi;
 import com.researchspace.datacite.model.DataCiteDoiRequestWrapper;
+import com.researchspace.datacite.model.DataCiteDoiSummary;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
+import java.time.Instant;
+import java.util.stream.Stream;
 
 public interface DataCiteClient {
 
@@ -13,6 +16,15 @@ public interface DataCiteClient {
      */
     DataCiteDoi retrieveDoi(String doiId);
 
+    /**
+     * Retrieve only selected, simple-valued attributes of DOI. Much less data is transferred and parsed 
+     * than with {@link #retrieveDoi(String)}, useful e.g. for checking state of many DOIs.
+     * 
+     * @param fields attributes to retrieve, must be among {@link DoiField#summaryFields()}; all of these 
+     *      if none provided
+     */
+    DataCiteDoiSummary retrieveDoiSummary(String doiId, DoiField... fields);
+
     /**
      * Register/mint new DOI.
      */
@@ -39,9 +51,28 @@ public interface DataCiteClient {
      */
     DataCiteDoi retractDoi(DataCiteDoi doiToRetract);
 
+    /**
+     * List all DOIs with repository prefix of this client, in all states. Pages of the list are retrieved lazily, 
+     * as the stream is consumed, so the stream should be closed if not consumed to the end.
+     * 
+     * @param pageSize number of DOIs retrieved in a single call to DataCite, up to 1000
+     */
+    Stream<DataCiteDoi> listDois(int pageSize);
+
+    /**
+     * List DOIs with repository prefix of this client that were changed at or after given time, oldest change first.
+     * Pages of the list are retrieved lazily, so the stream should be closed if not consumed to the end.
+     * See {@link DataCiteChangeFeed} for keeping track of the changes between runs.
+     * 
+     * @param updatedSince earliest 'updated' timestamp of listed DOIs, inclusive
+     * @param pageSize number of DOIs retrieved in a single call to DataCite, up to 1000
+     */
+    Stream<DataCiteDoi> listDoisUpdatedSince(Instant updatedSince, int pageSize);
+
     /**
      * Check if this instance of DataCiteClient is able to successfully connect to DataCite.
      * Currently verifies datacite url, username and password, but doesn't really validate repository prefix.
+     * Makes several calls to DataCite, for frequent checks (e.g. readiness probes) see {@link DataCiteHealthMonitor}.
      * 
      * @return true if url/username/password combination can be used to successfully connect to Datacite API. 
      *      Doesn't verify repository prefix.
@@ -1,12 +1,41 @@
 package com.researchspace.datacite.client;
 
+import com.researchspace.datacite.model.DataCiteApiError;
+import com.researchspace.datacite.model.DataCiteApiException;
+import com.researchspace.datacite.model.DataCiteAuthenticationException;
+import com.researchspace.datacite.model.DataCiteBulkheadFullException;
+import com.researchspace.datacite.model.DataCiteCircuitOpenException;
+import com.researchspace.datacite.model.DataCiteConflictException;
 import com.researchspace.datacite.model.DataCiteConnectionException;
 import com.researchspace.datacite.model.DataCiteDoi;
 import com.researchspace.datacite.model.DataCiteDoiRequestWrapper;
+import com.researchspace.datacite.model.DataCiteDoiSummary;
+import com.researchspace.datacite.model.DataCiteNotFoundException;
+import com.researchspace.datacite.model.DataCiteRateLimitException;
+import com.researchspace.datacite.model.DataCiteServerException;
+import com.researchspace.datacite.model.DataCiteValidationException;
+import com.researchspace.datacite.model.ImmutableDataCiteDoi;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URLEncoder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import lombok.SneakyThrows;
 import org.apache.commons.lang.StringUtils;
@@ -18,119 +47,595 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.util.Base64Utils;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 public class DataCiteClientImpl implements DataCiteClient {
 
-    private URI dataciteDoisApiURI;
+    /** Maximum page size accepted by DataCite DOI list endpoint */
+    public static final int MAX_PAGE_SIZE = 1000;
 
-    private String basicAuthenticationHeader;
-    
-    private String username;
+    private DataCiteApiUris dataciteApiUris;
+
+    /* replaced as a whole on rotation, so a call never mixes username and password of different accounts */
+    private volatile Credentials credentials;
     
     private String repositoryPrefix;
 
     private RestTemplate restTemplate;
 
+    private DataCiteRetryPolicy defaultRetryPolicy;
+
+    private Map<DataCiteOperation, DataCiteRetryPolicy> retryPolicies;
+
+    private DataCiteJson.DoiReaders doiReaders;
+
+    /* null if conditional requests are disabled */
+    private DoiValidatorStore doiValidatorStore;
+
+    private DataCiteInstrumentation instrumentation;
+
+    /* null if request coalescing is disabled */
+    private SingleFlight<String, ImmutableDataCiteDoi> retrievals;
+
+    /* serializes changes of the same DOI, null if request coalescing is disabled */
+    private KeySequencer<String> doiChanges;
+
+    private Map<DataCiteOperation, DataCiteCircuitBreaker> circuitBreakers;
+
+    /* limits concurrent calls, null if unlimited */
+    private Semaphore bulkhead;
+
+    private Duration bulkheadMaxWait;
+
     /**
+     * Creates client using default pooled transport, see {@link #builder()} for more configuration options.
+     * 
      * @param dataciteApiURI url to datacite api, e.g. "https://api.test.datacite.org/"
      * @param username datacite username to use for creating/updating DOIs
      * @param password datacite user's password
      * @param repositoryPrefix prefix to use when creating new DOIs, e.g. "10.82316"
      */
     public DataCiteClientImpl(URI dataciteApiURI, String username, String password, String repositoryPrefix) {
-        Validate.notNull(dataciteApiURI);
-        this.dataciteDoisApiURI = dataciteApiURI;
-        this.restTemplate = new RestTemplate();
-        this.basicAuthenticationHeader = String.format("Basic %s", new String(Base64Utils.encode((username + ":" + password).getBytes())));
-        this.username = username;
-        this.repositoryPrefix = repositoryPrefix;
+        this(builder().dataciteApiURI(dataciteApiURI).username(username)
+                .password(password).repositoryPrefix(repositoryPrefix));
+    }
+
+    private DataCiteClientImpl(Builder builder) {
+        Validate.notNull(builder.dataciteApiURI);
+        this.dataciteApiUris = new DataCiteApiUris(builder.dataciteApiURI);
+        this.restTemplate = builder.createRestTemplate();
+        this.credentials = new Credentials(builder.username, builder.password);
+        this.repositoryPrefix = builder.repositoryPrefix;
+        this.defaultRetryPolicy = builder.defaultRetryPolicy;
+        this.retryPolicies = new EnumMap<>(builder.retryPolicies);
+        this.doiReaders = DataCiteJson.readers(builder.skippedFields);
+        if (builder.conditionalRequestsMaxDois > 0) {
+            this.doiValidatorStore = new DoiValidatorStore(builder.conditionalRequestsMaxDois);
+        }
+        this.instrumentation = builder.instrumentation;
+        if (builder.coalesceRequests) {
+            this.retrievals = new SingleFlight<>();
+            this.doiChanges = new KeySequencer<>();
+        }
+        this.circuitBreakers = new EnumMap<>(builder.circuitBreakers);
+        if (builder.bulkheadMaxConcurrentCalls > 0) {
+            this.bulkhead = new Semaphore(builder.bulkheadMaxConcurrentCalls, true);
+            this.bulkheadMaxWait = builder.bulkheadMaxWait;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** DataCite account used by the client */
+    private static class Credentials {
+        private final String username;
+        private final String authorizationHeader;
+
+        Credentials(String username, String password) {
+            this.username = username;
+            this.authorizationHeader = basicAuthenticationHeader(username, password);
+        }
+    }
+
+    /**
+     * Replaces credentials used by the client, e.g. after the repository password was rotated. Calls started 
+     * afterwards use new credentials, calls in progress complete with the previous ones.
+     */
+    public void updateCredentials(String username, String password) {
+        this.credentials = new Credentials(username, password);
     }
 
+    /**
+     * {@inheritDoc}
+     * 
+     * If conditional requests are enabled and DataCite confirms the DOI didn't change since previous retrieval,
+     * a copy of previously retrieved DOI is returned.
+     * 
+     * If request coalescing is enabled, concurrent retrievals of the same DOI share one call to DataCite,
+     * and each caller gets its own copy of the result.
+     */
     @Override
     public DataCiteDoi retrieveDoi(String doiId) {
-        URI uri = dataciteDoisApiURI.resolve("/dois/" + doiId+"/?affiliation=true");
-        return restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(getHttpHeaders()),
-                DataCiteDoiRequestWrapper.class).getBody().getData();
+        if (retrievals == null) {
+            return doRetrieveDoi(doiId);
+        }
+        return retrievals.execute(doiId.toLowerCase(), () -> ImmutableDataCiteDoi.of(doRetrieveDoi(doiId)))
+                .toDataCiteDoi();
+    }
+
+    private DataCiteDoi doRetrieveDoi(String doiId) {
+        URI uri = dataciteApiUris.doi(doiId);
+        return withRetries(DataCiteOperation.RETRIEVE, () -> callDataCite(() -> {
+            if (doiValidatorStore == null) {
+                return exchangeDoi(new RequestEntity<>(getHttpHeaders(), HttpMethod.GET, uri)).getBody().getData();
+            }
+            return retrieveDoiConditionally(doiId, uri);
+        }));
+    }
+
+    private DataCiteDoi retrieveDoiConditionally(String doiId, URI uri) {
+        HttpHeaders headers = getHttpHeaders();
+        DoiValidatorStore.ValidatedDoi previous = doiValidatorStore.get(doiId);
+        if (previous != null) {
+            if (previous.eTag != null) {
+                headers.setIfNoneMatch(previous.eTag);
+            }
+            if (previous.lastModified >= 0) {
+                headers.setIfModifiedSince(previous.lastModified);
+            }
+        }
+        ResponseEntity<DataCiteDoiRequestWrapper> response = exchangeDoi(new RequestEntity<>(headers, HttpMethod.GET, uri));
+        if (previous != null && HttpStatus.NOT_MODIFIED.equals(response.getStatusCode())) {
+            return previous.doi.toDataCiteDoi();
+        }
+        DataCiteDoi retrieved = response.getBody().getData();
+        doiValidatorStore.put(doiId, response.getHeaders().getETag(), response.getHeaders().getLastModified(), retrieved);
+        return retrieved;
+    }
+
+    @Override
+    public DataCiteDoiSummary retrieveDoiSummary(String doiId, DoiField... fields) {
+        Set<DoiField> requestedFields = fields.length == 0 
+                ? DoiField.summaryFields() : EnumSet.copyOf(Arrays.asList(fields));
+        Validate.isTrue(DoiField.summaryFields().containsAll(requestedFields), 
+                "Only simple-valued fields can be retrieved in DOI summary: " + DoiField.summaryFields());
+        URI uri = dataciteApiUris.doiFields(doiId, requestedFields);
+        return withRetries(DataCiteOperation.RETRIEVE, () -> callDataCite(() -> restTemplate.<DataCiteDoiSummary>execute(
+                uri, HttpMethod.GET,
+                request -> request.getHeaders().putAll(getHttpHeaders()),
+                response -> DataCiteJson.readDoiSummary(response.getBody()))));
     }
 
     @Override
     public DataCiteDoi registerDoi(DataCiteDoi doiToCreate) {
-        URI uri = dataciteDoisApiURI.resolve("/dois/?affiliation=true");
+        URI uri = dataciteApiUris.dois();
         DataCiteDoiRequestWrapper doiRequest = new DataCiteDoiRequestWrapper();
-        doiToCreate.getAttributes().setPrefix(repositoryPrefix);
-        doiRequest.setData(doiToCreate);
-        RequestEntity creationRequest = new RequestEntity<>(doiRequest, getHttpHeaders(), HttpMethod.POST, uri);
-        return callDataCiteWithDoiRequest(creationRequest).getBody().getData();
+        DataCiteDoi doiRequestData = doiToCreate.shallowCopy();
+        doiRequestData.getAttributes().setPrefix(repositoryPrefix);
+        doiRequest.setData(doiRequestData);
+        RequestEntity<DataCiteDoiRequestWrapper> creationRequest = 
+                new RequestEntity<>(doiRequest, getHttpHeaders(), HttpMethod.POST, uri);
+
+        String expectedDoiId = getExpectedDoiId(doiRequestData);
+        if (expectedDoiId == null) {
+            /* DataCite will generate the suffix, so repeated POST could mint a duplicate */
+            return withRetries(DataCiteOperation.REGISTER, false,
+                    () -> callDataCiteWithDoiRequest(creationRequest).getBody().getData());
+        }
+        /* DOI id is known up front, so before repeating the POST check if previous attempt didn't create it already */
+        AtomicBoolean attempted = new AtomicBoolean();
+        return withRetries(DataCiteOperation.REGISTER, true, () -> {
+            if (attempted.getAndSet(true)) {
+                DataCiteDoi alreadyCreated = findDoi(expectedDoiId);
+                if (alreadyCreated != null) {
+                    return alreadyCreated;
+                }
+            }
+            return callDataCiteWithDoiRequest(creationRequest).getBody().getData();
+        });
+    }
+
+    private String getExpectedDoiId(DataCiteDoi doiToCreate) {
+        if (StringUtils.isNotEmpty(doiToCreate.getAttributes().getDoi())) {
+            return doiToCreate.getAttributes().getDoi();
+        }
+        if (StringUtils.isNotEmpty(doiToCreate.getAttributes().getSuffix())) {
+            return doiToCreate.getAttributes().getPrefix() + "/" + doiToCreate.getAttributes().getSuffix();
+        }
+        return null;
+    }
+
+    /** Retrieves DOI without retries, returns null if DOI doesn't exist */
+    private DataCiteDoi findDoi(String doiId) {
+        try {
+            return callDataCite(() -> exchangeDoi(new RequestEntity<>(getHttpHeaders(), HttpMethod.GET, 
+                    dataciteApiUris.doi(doiId))).getBody().getData());
+        } catch (DataCiteNotFoundException e) {
+            return null;
+        }
+    }
+
+    private <T> T withRetries(DataCiteOperation operation, Supplier<T> call) {
+        return withRetries(operation, operation.isIdempotent(), call);
+    }
+
+    /** Runs the call, repeating it as long as retry policy configured for the operation allows */
+    private <T> T withRetries(DataCiteOperation operation, boolean idempotent, Supplier<T> call) {
+        DataCiteRetryPolicy retryPolicy = retryPolicies.getOrDefault(operation, defaultRetryPolicy);
+        return observed(operation, observation -> {
+            long startNanos = System.nanoTime();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return guarded(operation, call);
+                } catch (RuntimeException e) {
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+                    Duration delay = retryPolicy.nextDelay(attempt, e, elapsed, idempotent);
+                    if (delay == null) {
+                        throw e;
+                    }
+                    observation.onRetry(attempt, e, delay);
+                    try {
+                        Thread.sleep(delay.toMillis());
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        });
+    }
+
+    /** Runs single attempt of the call through circuit breaker and bulkhead configured for the operation */
+    private <T> T guarded(DataCiteOperation operation, Supplier<T> call) {
+        acquireBulkhead();
+        try {
+            DataCiteCircuitBreaker circuitBreaker = circuitBreakers.get(operation);
+            if (circuitBreaker == null) {
+                return call.get();
+            }
+            if (!circuitBreaker.tryAcquire()) {
+                throw new DataCiteCircuitOpenException("Calls to DataCite suspended after repeated failures, try again later.",
+                        circuitBreaker.getRemainingOpenDuration());
+            }
+            Throwable error = null;
+            try {
+                return call.get();
+            } catch (RuntimeException | Error e) {
+                error = e;
+                throw e;
+            } finally {
+                circuitBreaker.record(error);
+            }
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private void acquireBulkhead() {
+        if (bulkhead == null) {
+            return;
+        }
+        try {
+            if (!bulkhead.tryAcquire(bulkheadMaxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new DataCiteBulkheadFullException("Too many concurrent calls to DataCite, try again later.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataCiteBulkheadFullException("Interrupted while waiting for a free slot to call DataCite.");
+        }
+    }
+
+    /**
+     * @return state of circuit breakers configured for the operations, e.g. for health checks
+     */
+    public Map<DataCiteOperation, DataCiteCircuitBreaker.State> getCircuitBreakerStates() {
+        Map<DataCiteOperation, DataCiteCircuitBreaker.State> states = new EnumMap<>(DataCiteOperation.class);
+        circuitBreakers.forEach((operation, circuitBreaker) -> states.put(operation, circuitBreaker.getState()));
+        return states;
+    }
+
+    /** Runs the operation reporting it to configured instrumentation */
+    private <T> T observed(DataCiteOperation operation, Function<DataCiteInstrumentation.Observation, T> call) {
+        if (instrumentation == DataCiteInstrumentation.NOOP) {
+            return call.apply(DataCiteInstrumentation.Observation.NOOP);
+        }
+        DataCiteInstrumentation.Observation observation = instrumentation.start(operation);
+        DataCiteInstrumentation.Observation previous = InstrumentingInterceptor.attach(observation);
+        try {
+            T result = call.apply(observation);
+            observation.stop(null);
+            return result;
+        } catch (RuntimeException | Error e) {
+            observation.stop(e);
+            throw e;
+        } finally {
+            InstrumentingInterceptor.restore(previous);
+        }
     }
 
     /** Methods that calls DataCite API and wraps connection errors into custom exception */
-    private ResponseEntity<DataCiteDoiRequestWrapper> callDataCiteWithDoiRequest(RequestEntity creationRequest) {
+    private ResponseEntity<DataCiteDoiRequestWrapper> callDataCiteWithDoiRequest(RequestEntity<DataCiteDoiRequestWrapper> creationRequest) {
         ResponseEntity<DataCiteDoiRequestWrapper> response = null;
         try {
-            response = restTemplate.exchange(creationRequest, DataCiteDoiRequestWrapper.class);
-
-        } catch (HttpServerErrorException.InternalServerError e) {
-            throw new DataCiteConnectionException("InternalServerError when connecting to DataCite Members API. Is repository prefix correct?", e);
-        } catch (HttpClientErrorException.NotFound e) {
-            throw new DataCiteConnectionException("NotFound error when connecting to DataCite Members API. Are connection credentials correct?", e);
+            response = exchangeDoi(creationRequest);
         } catch (Exception e) {
-            throw new DataCiteConnectionException("Unknown problem with connecting to DataCite API.", e);
+            throw wrapDataCiteException(e);
         }
         return response;
         
     }
 
+    /** Runs DOI lookup, wrapping connection errors and error responses into typed exceptions */
+    private static <T> T callDataCite(Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (DataCiteConnectionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw wrapLookupException(e);
+        }
+    }
+
+    /**
+     * As {@link #wrapDataCiteException(Exception)}, for DOI lookups. Missing DOI is an ordinary outcome of
+     * a lookup, so 404 is described by the response rather than blamed on credentials.
+     */
+    static DataCiteConnectionException wrapLookupException(Exception e) {
+        if (e instanceof RestClientResponseException && ((RestClientResponseException) e).getRawStatusCode() == 404) {
+            List<DataCiteApiError> errors = DataCiteJson.readErrors(((RestClientResponseException) e).getResponseBodyAsByteArray());
+            return new DataCiteNotFoundException(describeErrorResponse(404, errors), 404, errors, e);
+        }
+        return wrapDataCiteException(e);
+    }
+
+    /** 
+     * Sends DOI request to DataCite. Request body is serialized straight into request stream, and response 
+     * is bound straight from response stream, with shared Jackson writer/reader.
+     */
+    private ResponseEntity<DataCiteDoiRequestWrapper> exchangeDoi(RequestEntity<DataCiteDoiRequestWrapper> request) {
+        return restTemplate.execute(request.getUrl(), request.getMethod(), httpRequest -> {
+            httpRequest.getHeaders().putAll(request.getHeaders());
+            if (request.getBody() != null) {
+                httpRequest.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                DataCiteJson.WRAPPER_WRITER.writeValue(StreamUtils.nonClosing(httpRequest.getBody()), request.getBody());
+            }
+        }, this::readDoiResponse);
+    }
+
+    private ResponseEntity<DataCiteDoiRequestWrapper> readDoiResponse(ClientHttpResponse response) throws IOException {
+        int status = response.getRawStatusCode();
+        DataCiteDoiRequestWrapper body = null;
+        if (status != HttpStatus.NO_CONTENT.value() && status != HttpStatus.NOT_MODIFIED.value()) {
+            body = DataCiteJson.readDoiResponse(response.getBody(), doiReaders);
+        }
+        return new ResponseEntity<>(body, response.getHeaders(), HttpStatus.valueOf(status));
+    }
+
+    /** 
+     * Maps exception thrown when calling DataCite API into custom exception, typed by response status and
+     * carrying errors listed in the response body. Shared with async client. 
+     */
+    static DataCiteConnectionException wrapDataCiteException(Exception e) {
+        if (!(e instanceof RestClientResponseException)) {
+            return new DataCiteConnectionException("Unknown problem with connecting to DataCite API.", e);
+        }
+        RestClientResponseException responseException = (RestClientResponseException) e;
+        int status = responseException.getRawStatusCode();
+        List<DataCiteApiError> errors = DataCiteJson.readErrors(responseException.getResponseBodyAsByteArray());
+        switch (status) {
+            case 500:
+                return new DataCiteServerException("InternalServerError when connecting to DataCite Members API. Is repository prefix correct?", status, errors, e);
+            case 404:
+                return new DataCiteNotFoundException("NotFound error when connecting to DataCite Members API. Are connection credentials correct?", status, errors, e);
+            case 429:
+                return new DataCiteRateLimitException("DataCite API rate limit exceeded, try again later.",
+                        DataCiteRateLimiter.parseRetryAfter(responseException.getResponseHeaders()), errors, e);
+            case 400:
+            case 422:
+                return new DataCiteValidationException(describeErrorResponse(status, errors), status, errors, e);
+            case 401:
+            case 403:
+                return new DataCiteAuthenticationException(describeErrorResponse(status, errors), status, errors, e);
+            case 409:
+            case 412:
+                return new DataCiteConflictException(describeErrorResponse(status, errors), status, errors, e);
+            default:
+                if (status >= 500) {
+                    return new DataCiteServerException(describeErrorResponse(status, errors), status, errors, e);
+                }
+                return new DataCiteApiException(describeErrorResponse(status, errors), status, errors, e);
+        }
+    }
+
+    private static String describeErrorResponse(int status, List<DataCiteApiError> errors) {
+        StringBuilder message = new StringBuilder("DataCite API responded with status ").append(status);
+        String separator = ": ";
+        for (DataCiteApiError error : errors) {
+            message.append(separator).append(error.getTitle());
+            if (error.getSource() != null) {
+                message.append(" (").append(error.getSource()).append(")");
+            }
+            separator = "; ";
+        }
+        return message.toString();
+    }
+
     @Override
     public DataCiteDoi updateDoi(DataCiteDoi doiUpdate) {
-        URI uri = dataciteDoisApiURI.resolve("/dois/" + doiUpdate.getId()+"/?affiliation=true");
+        return updateDoi(DataCiteOperation.UPDATE, doiUpdate);
+    }
+
+    private DataCiteDoi updateDoi(DataCiteOperation operation, DataCiteDoi doiUpdate) {
+        URI uri = dataciteApiUris.doi(doiUpdate.getId());
         DataCiteDoiRequestWrapper doiRequest = new DataCiteDoiRequestWrapper();
         doiRequest.setData(doiUpdate);
-        RequestEntity creationRequest = new RequestEntity<>(doiRequest, getHttpHeaders(), HttpMethod.PUT, uri);
-        return callDataCiteWithDoiRequest(creationRequest).getBody().getData();
+        RequestEntity<DataCiteDoiRequestWrapper> creationRequest = 
+                new RequestEntity<>(doiRequest, getHttpHeaders(), HttpMethod.PUT, uri);
+        return changingDoi(doiUpdate.getId(), 
+                () -> withRetries(operation, () -> callDataCiteWithDoiRequest(creationRequest).getBody().getData()));
+    }
+
+    /** 
+     * Runs the change of the DOI, one at a time per DOI if request coalescing is enabled, so the last 
+     * change requested is also the last one applied by DataCite. 
+     */
+    private <T> T changingDoi(String doiId, Supplier<T> change) {
+        forgetValidators(doiId);
+        if (doiChanges == null) {
+            return change.get();
+        }
+        String key = doiId.toLowerCase();
+        return doiChanges.execute(key, () -> {
+            // retrievals started before the change could return outdated DOI, don't let new callers join them
+            retrievals.forget(key);
+            try {
+                return change.get();
+            } finally {
+                retrievals.forget(key);
+            }
+        });
+    }
+
+    private void forgetValidators(String doiId) {
+        if (doiValidatorStore != null) {
+            doiValidatorStore.remove(doiId);
+        }
     }
 
     @Override
     public boolean deleteDoi(String doiId) {
-        URI uri = dataciteDoisApiURI.resolve("/dois/" + doiId);
-        RequestEntity creationRequest = new RequestEntity<>(null, getHttpHeaders(), HttpMethod.DELETE, uri);
-        ResponseEntity<DataCiteDoiRequestWrapper> response = callDataCiteWithDoiRequest(creationRequest);
-        return HttpStatus.NO_CONTENT.equals(response.getStatusCode());
+        URI uri = dataciteApiUris.doiWithoutParams(doiId);
+        RequestEntity<DataCiteDoiRequestWrapper> creationRequest = 
+                new RequestEntity<>(null, getHttpHeaders(), HttpMethod.DELETE, uri);
+        AtomicBoolean attempted = new AtomicBoolean();
+        return changingDoi(doiId, () -> withRetries(DataCiteOperation.DELETE, () -> {
+            boolean isRetry = attempted.getAndSet(true);
+            try {
+                ResponseEntity<DataCiteDoiRequestWrapper> response = callDataCiteWithDoiRequest(creationRequest);
+                return HttpStatus.NO_CONTENT.equals(response.getStatusCode());
+            } catch (DataCiteNotFoundException e) {
+                if (isRetry) {
+                    return true; // deleted by previous attempt, which failed to return the response
+                }
+                throw e;
+            }
+        }));
     }
     
     @Override
     public DataCiteDoi publishDoi(DataCiteDoi doiToPublish) {
-        doiToPublish.getAttributes().setEvent("publish");
-        return updateDoi(doiToPublish);
+        return updateDoi(DataCiteOperation.PUBLISH, withEvent(doiToPublish, "publish"));
     }
 
     @Override
     public DataCiteDoi retractDoi(DataCiteDoi doiToRetract) {
-        doiToRetract.getAttributes().setEvent("hide");
-        return updateDoi(doiToRetract);
+        return updateDoi(DataCiteOperation.RETRACT, withEvent(doiToRetract, "hide"));
+    }
+
+    /** Copy of the DOI with the event set, so caller's instance isn't modified. Shared with async client. */
+    static DataCiteDoi withEvent(DataCiteDoi doi, String event) {
+        DataCiteDoi copy = doi.shallowCopy();
+        copy.getAttributes().setEvent(event);
+        return copy;
+    }
+
+    @Override
+    public Stream<DataCiteDoi> listDois(int pageSize) {
+        Validate.isTrue(pageSize > 0 && pageSize <= MAX_PAGE_SIZE, "pageSize must be between 1 and " + MAX_PAGE_SIZE);
+        String firstPageLink = dataciteApiUris.doisPage(repositoryPrefix, pageSize).toString();
+        DoiPageIterator iterator = new DoiPageIterator(firstPageLink, this::retrieveDoiPage, 
+                DoiPageIterator.DEFAULT_PREFETCH_EXECUTOR);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    @Override
+    public Stream<DataCiteDoi> listDoisUpdatedSince(Instant updatedSince, int pageSize) {
+        Validate.notNull(updatedSince);
+        Validate.isTrue(pageSize > 0 && pageSize <= MAX_PAGE_SIZE, "pageSize must be between 1 and " + MAX_PAGE_SIZE);
+        String firstPageLink = dataciteApiUris.doisUpdatedSincePage(repositoryPrefix, updatedSince, pageSize).toString();
+        DoiPageIterator iterator = new DoiPageIterator(firstPageLink, this::retrieveDoiPage, 
+                DoiPageIterator.DEFAULT_PREFETCH_EXECUTOR);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /** Retrieves page of DOI list, parsing response directly from the stream */
+    private DataCiteJson.DoiPage retrieveDoiPage(String pageLink) {
+        URI uri = dataciteApiUris.pageLink(pageLink);
+        return withRetries(DataCiteOperation.LIST, () -> {
+            try {
+                return restTemplate.<DataCiteJson.DoiPage>execute(uri, HttpMethod.GET,
+                        request -> request.getHeaders().putAll(getHttpHeaders()),
+                        response -> DataCiteJson.readDoiPage(response.getBody(), doiReaders));
+            } catch (Exception e) {
+                throw wrapDataCiteException(e);
+            }
+        });
     }
 
     @Override
     public boolean testConnectionToDataCite() {
-        
+        return observed(DataCiteOperation.TEST_CONNECTION, observation -> checkConnectionToDataCite());
+    }
+
+    private boolean checkConnectionToDataCite() {
         /* first let's try connecting to public DataCite API, to validate the URL */
+        checkHeartbeat();
+        /* let's try finding the provided prefix, which can be done with unauthorized user */
+        checkRepositoryPrefix();
+        /* next let's try to use authenticated DataCite API, to validate credentials */
+        return checkCredentials();
+    }
+
+    /**
+     * Runs single connection check, observed as {@link DataCiteOperation#TEST_CONNECTION}.
+     * Used by {@link DataCiteHealthMonitor}, which runs the checks in parallel.
+     *
+     * @return false if the check didn't fail, but its outcome wasn't as expected
+     */
+    boolean runConnectionCheck(HealthCheckResult.Check check) {
+        return observed(DataCiteOperation.TEST_CONNECTION, observation -> {
+            switch (check) {
+                case HEARTBEAT:
+                    checkHeartbeat();
+                    return true;
+                case REPOSITORY_PREFIX:
+                    checkRepositoryPrefix();
+                    return true;
+                case CREDENTIALS:
+                    return checkCredentials();
+                default:
+                    throw new IllegalArgumentException("Unknown connection check " + check);
+            }
+        });
+    }
+
+    private void checkHeartbeat() {
         try {
-            URI uri = dataciteDoisApiURI.resolve("/heartbeat");
+            URI uri = dataciteApiUris.heartbeat();
             restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(getHttpHeaders()), String.class).getBody();
         } catch (Exception e) {
             throw new DataCiteConnectionException("Problem with checking status of DataCite server. Is DataCite URL correct?", e);
         }
-        
-        /* let's try finding the provided prefix, which can be done with unauthorized user */
+    }
+
+    private void checkRepositoryPrefix() {
         try {
-            URI uri = dataciteDoisApiURI.resolve("/client-prefixes?" 
-                    + "client-id=" + URLEncoder.encode(username) 
-                    + "&prefix-id=" + URLEncoder.encode(repositoryPrefix));
-            String prefixResponseBody = restTemplate.exchange(uri, HttpMethod.GET, new HttpEntity<>(getHttpHeaders()), String.class).getBody();
+            Credentials currentCredentials = credentials;
+            URI uri = dataciteApiUris.clientPrefixes(currentCredentials.username, repositoryPrefix);
+            String prefixResponseBody = restTemplate.exchange(uri, HttpMethod.GET, 
+                    new HttpEntity<>(getHttpHeaders(currentCredentials)), String.class).getBody();
             if (StringUtils.isEmpty(prefixResponseBody) || prefixResponseBody.contains("\"total\":0")) {
                 throw new DataCiteConnectionException("Cannot find repository prefix for provided client-id and prefix-id. Is repositoryPrefix correct?", null);
             }
@@ -138,19 +643,21 @@ public class DataCiteClientImpl implements DataCiteClient {
         } catch (RestClientException e) {
             throw new DataCiteConnectionException("Problem with checking repository prefix. Are DataCite URL and repositoryPrefix correct?", e);
         }
-            
-        /* next let's try to use authenticated DataCite API, to validate credentials */
+    }
+
+    private boolean checkCredentials() {
         try {    
             /* there is no obvious members API endpoint to call for testing the connection, so let's
                try register an empty DOI without repostiory prefix which, if credentials are good, will return 403 for unauthenticated */
-            URI uri = dataciteDoisApiURI.resolve("/dois");
+            URI uri = dataciteApiUris.doisWithoutParams();
             DataCiteDoiRequestWrapper doiRequest = new DataCiteDoiRequestWrapper();
             doiRequest.setData(new DataCiteDoi());
-            RequestEntity creationRequest = new RequestEntity<>(doiRequest, getHttpHeaders(), HttpMethod.POST, uri);
+            RequestEntity<DataCiteDoiRequestWrapper> creationRequest = 
+                    new RequestEntity<>(doiRequest, getHttpHeaders(), HttpMethod.POST, uri);
             callDataCiteWithDoiRequest(creationRequest).getBody().getData();
 
-        } catch (DataCiteConnectionException e) {
-            if (e.getCause() instanceof HttpClientErrorException.Forbidden) {
+        } catch (DataCiteAuthenticationException e) {
+            if (e.getStatus() == HttpStatus.FORBIDDEN.value()) {
                 // that's expected - we didn't provide repository prefix, which for correct credentials results in Forbidden exception
                 return true;
             } else {
@@ -161,10 +668,290 @@ public class DataCiteClientImpl implements DataCiteClient {
     }
 
     private HttpHeaders getHttpHeaders() {
+        return getHttpHeaders(credentials);
+    }
+
+    private static HttpHeaders getHttpHeaders(Credentials credentials) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-        headers.add("authorization", basicAuthenticationHeader);
+        headers.add("authorization", credentials.authorizationHeader);
         return headers;
     }
+
+    static String basicAuthenticationHeader(String username, String password) {
+        return String.format("Basic %s", new String(Base64Utils.encode((username + ":" + password).getBytes())));
+    }
     
+    public static class Builder {
+
+        private URI dataciteApiURI;
+        private String username;
+        private String password;
+        private String repositoryPrefix;
+
+        private RestTemplate restTemplate;
+        private ClientHttpRequestFactory requestFactory;
+        private Duration connectTimeout = JdkHttpClientRequestFactory.DEFAULT_CONNECT_TIMEOUT;
+        private Duration readTimeout = JdkHttpClientRequestFactory.DEFAULT_READ_TIMEOUT;
+        private int maxConnections = JdkHttpClientRequestFactory.DEFAULT_MAX_CONNECTIONS;
+        private boolean requestCompression;
+        private DataCiteRateLimiter rateLimiter;
+        private DataCiteRetryPolicy defaultRetryPolicy = DataCiteRetryPolicy.NONE;
+        private Map<DataCiteOperation, DataCiteRetryPolicy> retryPolicies = new EnumMap<>(DataCiteOperation.class);
+        private int conditionalRequestsMaxDois;
+        private Set<DoiField> skippedFields = EnumSet.noneOf(DoiField.class);
+        private DataCiteInstrumentation instrumentation = DataCiteInstrumentation.NOOP;
+        private boolean coalesceRequests;
+        private Map<DataCiteOperation, DataCiteCircuitBreaker> circuitBreakers = new EnumMap<>(DataCiteOperation.class);
+        private int bulkheadMaxConcurrentCalls;
+        private Duration bulkheadMaxWait = Duration.ZERO;
+
+        /* created lazily, so clients built from the same builder share one connection pool */
+        private JdkHttpClientRequestFactory defaultRequestFactory;
+
+        /**
+         * @param dataciteApiURI url to datacite api, e.g. "https://api.test.datacite.org/"
+         */
+        public Builder dataciteApiURI(URI dataciteApiURI) {
+            this.dataciteApiURI = dataciteApiURI;
+            return this;
+        }
+
+        /**
+         * @param username datacite username to use for creating/updating DOIs
+         */
+        public Builder username(String username) {
+            this.username = username;
+            return this;
+        }
+
+        /**
+         * @param password datacite user's password
+         */
+        public Builder password(String password) {
+            this.password = password;
+            return this;
+        }
+
+        /**
+         * @param repositoryPrefix prefix to use when creating new DOIs, e.g. "10.82316"
+         */
+        public Builder repositoryPrefix(String repositoryPrefix) {
+            this.repositoryPrefix = repositoryPrefix;
+            return this;
+        }
+
+        /**
+         * Use provided RestTemplate for all calls to DataCite. Transport settings 
+         * (requestFactory, timeouts, maxConnections) are ignored if RestTemplate is provided.
+         */
+        public Builder restTemplate(RestTemplate restTemplate) {
+            this.restTemplate = restTemplate;
+            return this;
+        }
+
+        /**
+         * Use provided request factory instead of default {@link JdkHttpClientRequestFactory}.
+         * Timeouts and maxConnections settings are ignored if request factory is provided.
+         */
+        public Builder requestFactory(ClientHttpRequestFactory requestFactory) {
+            this.requestFactory = requestFactory;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.defaultRequestFactory = null;
+            return this;
+        }
+
+        public Builder readTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            this.defaultRequestFactory = null;
+            return this;
+        }
+
+        /**
+         * @param maxConnections maximum number of concurrent connections to DataCite, 0 for no limit
+         */
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            this.defaultRequestFactory = null;
+            return this;
+        }
+
+        /**
+         * @param requestCompression whether request bodies (e.g. DOI updates) should be sent gzip-compressed,
+         *      see {@link JdkHttpClientRequestFactory.Builder#requestCompression(boolean)}. Disabled by default.
+         *      Responses are decompressed transparently regardless of this setting.
+         */
+        public Builder requestCompression(boolean requestCompression) {
+            this.requestCompression = requestCompression;
+            this.defaultRequestFactory = null;
+            return this;
+        }
+
+        /**
+         * Limit rate of requests sent to DataCite. The limiter can be shared between clients using the same 
+         * DataCite account. If custom RestTemplate is provided, add {@link DataCiteRateLimiter#asInterceptor()}
+         * to it instead.
+         */
+        public Builder rateLimiter(DataCiteRateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy retry policy for all operations that don't have their own policy set. 
+         *      By default failed calls are not retried.
+         */
+        public Builder retryPolicy(DataCiteRetryPolicy retryPolicy) {
+            Validate.notNull(retryPolicy);
+            this.defaultRetryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy retry policy for given operation type
+         */
+        public Builder retryPolicy(DataCiteOperation operation, DataCiteRetryPolicy retryPolicy) {
+            Validate.notNull(retryPolicy);
+            this.retryPolicies.put(operation, retryPolicy);
+            return this;
+        }
+
+        /**
+         * Enables conditional retrieval: validators (ETag/Last-Modified) of retrieved DOIs are remembered, and 
+         * following retrievals of the same DOI ask DataCite to return the DOI only if it was modified.
+         * 
+         * @param maxDois maximum number of DOIs for which validators and last response are kept, 0 disables
+         *      conditional requests (default)
+         */
+        public Builder conditionalRequests(int maxDois) {
+            Validate.isTrue(maxDois >= 0, "maxDois can't be negative");
+            this.conditionalRequestsMaxDois = maxDois;
+            return this;
+        }
+
+        /**
+         * DOI attributes that are skipped when reading DataCite responses, to save allocation for the fields
+         * that aren't needed, e.g. {@link DoiField#XML} or {@link DoiField#GEO_LOCATIONS}. Skipped attributes
+         * are null (or 0) in DOIs returned by the client.
+         * 
+         * Don't send back DOIs retrieved with skipped attributes in {@link DataCiteClient#updateDoi(DataCiteDoi)}, 
+         * as it would clear the attributes in DataCite. 
+         */
+        public Builder skipFields(DoiField... fields) {
+            this.skippedFields = EnumSet.noneOf(DoiField.class);
+            this.skippedFields.addAll(Arrays.asList(fields));
+            return this;
+        }
+
+        /**
+         * @param instrumentation receives timings, status codes, retry and throttle events of all calls to DataCite, 
+         *      e.g. {@link MicrometerDataCiteInstrumentation}. If custom RestTemplate is provided, add
+         *      {@link DataCiteInstrumentation#interceptor()} to it to have status codes recorded.
+         */
+        public Builder instrumentation(DataCiteInstrumentation instrumentation) {
+            Validate.notNull(instrumentation);
+            this.instrumentation = instrumentation;
+            return this;
+        }
+
+        /**
+         * Enables coalescing of concurrent requests for the same DOI: concurrent retrievals share a single 
+         * call to DataCite (and the returned DOI instance), and changes (update, publish, retract, delete) 
+         * of the same DOI are sent one at a time, in the order they were requested. Disabled by default.
+         */
+        public Builder coalesceRequests(boolean coalesceRequests) {
+            this.coalesceRequests = coalesceRequests;
+            return this;
+        }
+
+        /**
+         * Guards all operations, except for connection test, with circuit breakers created by the factory,
+         * one for each operation.
+         */
+        public Builder circuitBreakers(Supplier<DataCiteCircuitBreaker> circuitBreakerFactory) {
+            for (DataCiteOperation operation : DataCiteOperation.values()) {
+                if (operation != DataCiteOperation.TEST_CONNECTION) {
+                    circuitBreaker(operation, circuitBreakerFactory.get());
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @param circuitBreaker circuit breaker guarding calls of given operation type. The same breaker can be 
+         *      set for several operations, to have them opened and closed together.
+         */
+        public Builder circuitBreaker(DataCiteOperation operation, DataCiteCircuitBreaker circuitBreaker) {
+            Validate.notNull(circuitBreaker);
+            this.circuitBreakers.put(operation, circuitBreaker);
+            return this;
+        }
+
+        /**
+         * Caps number of concurrent calls to DataCite made by the client. Calls above the limit wait for 
+         * a free slot up to maxWait, then fail with {@link DataCiteBulkheadFullException}.
+         * 
+         * @param maxConcurrentCalls maximum number of concurrent calls, 0 for no limit (default)
+         * @param maxWait maximum time to wait for a free slot, can be zero
+         */
+        public Builder bulkhead(int maxConcurrentCalls, Duration maxWait) {
+            Validate.isTrue(maxConcurrentCalls >= 0, "maxConcurrentCalls can't be negative");
+            Validate.isTrue(maxWait != null && !maxWait.isNegative(), "maxWait can't be negative");
+            this.bulkheadMaxConcurrentCalls = maxConcurrentCalls;
+            this.bulkheadMaxWait = maxWait;
+            return this;
+        }
+
+        public DataCiteClientImpl build() {
+            return new DataCiteClientImpl(this);
+        }
+
+        /**
+         * Creates non-blocking client with the same connection details, rate limiter, retry policies and circuit
+         * breakers. If this builder uses default transport, the async client shares its HttpClient (and connection
+         * pool and limit) with clients created by {@link #build()}. See {@link AsyncDataCiteClientImpl} for options
+         * that apply only to blocking client.
+         */
+        public AsyncDataCiteClient buildAsync() {
+            Validate.notNull(dataciteApiURI);
+            JdkHttpClientRequestFactory factory = requestFactory instanceof JdkHttpClientRequestFactory
+                    ? (JdkHttpClientRequestFactory) requestFactory : getDefaultRequestFactory();
+            return new AsyncDataCiteClientImpl(dataciteApiURI, username, password, repositoryPrefix,
+                    factory.getHttpClient(), factory.getReadTimeout(), instrumentation, factory.getConnectionPermits(),
+                    rateLimiter, defaultRetryPolicy, retryPolicies, circuitBreakers);
+        }
+
+        /* package-private, so client registry can create one RestTemplate shared by all its clients */
+        RestTemplate createRestTemplate() {
+            if (restTemplate != null) {
+                return restTemplate;
+            }
+            ClientHttpRequestFactory factory = requestFactory != null ? requestFactory : getDefaultRequestFactory();
+            RestTemplate newRestTemplate = new RestTemplate(factory);
+            if (rateLimiter != null) {
+                newRestTemplate.getInterceptors().add(rateLimiter.asInterceptor());
+            }
+            if (instrumentation != DataCiteInstrumentation.NOOP) {
+                newRestTemplate.getInterceptors().add(DataCiteInstrumentation.interceptor());
+            }
+            return newRestTemplate;
+        }
+
+        private JdkHttpClientRequestFactory getDefaultRequestFactory() {
+            if (defaultRequestFactory == null) {
+                defaultRequestFactory = JdkHttpClientRequestFactory.builder()
+                        .connectTimeout(connectTimeout)
+                        .readTimeout(readTimeout)
+                        .maxConnections(maxConnections)
+                        .requestCompression(requestCompression)
+                        .build();
+            }
+            return defaultRequestFactory;
+        }
+    }
+
 }
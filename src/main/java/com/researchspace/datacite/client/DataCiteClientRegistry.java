@@ -0,0 +1,247 @@
+package com.researchspace.datacite.client;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang.Validate;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Clients for many DataCite repository accounts (tenants), e.g. for a service hosting several institutions.
+ *
+ * All clients share one RestTemplate, so one connection pool, rate limiter and instrumentation, and
+ * optionally one {@link DataCiteDoiCache}. Credentials and repository prefix are kept per tenant, and cached
+ * DOIs are visible only to the tenant that retrieved them. A tenant client is a lightweight object without
+ * own sockets or threads, so registering thousands of tenants costs little more than their credentials.
+ *
+ * Credentials can be rotated with {@link #updateCredentials(String, String, String)}, clients already
+ * handed out pick up new credentials with their next call.
+ */
+public class DataCiteClientRegistry {
+
+    /* the client used for calls, and the underlying client keeping tenant's credentials */
+    private static class Tenant {
+        private final String repositoryPrefix;
+        private final String cacheKeyPrefix;
+        private final DataCiteClientImpl clientImpl;
+        private final DataCiteClient client;
+
+        Tenant(String repositoryPrefix, String cacheKeyPrefix, DataCiteClientImpl clientImpl, DataCiteClient client) {
+            this.repositoryPrefix = repositoryPrefix;
+            this.cacheKeyPrefix = cacheKeyPrefix;
+            this.clientImpl = clientImpl;
+            this.client = client;
+        }
+    }
+
+    private final URI dataciteApiURI;
+    private final RestTemplate restTemplate;
+    private final DataCiteRetryPolicy retryPolicy;
+    private final DataCiteInstrumentation instrumentation;
+    private final DataCiteDoiCache cache;
+
+    private final ConcurrentMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+    /* numbers each tenant client, for cache keys */
+    private final AtomicLong clientCounter = new AtomicLong();
+
+    private DataCiteClientRegistry(Builder builder) {
+        this.dataciteApiURI = builder.dataciteApiURI;
+        this.restTemplate = builder.transport.createRestTemplate();
+        this.retryPolicy = builder.retryPolicy;
+        this.instrumentation = builder.instrumentation;
+        this.cache = builder.cache;
+    }
+
+    /**
+     * @param dataciteApiURI url to datacite api, e.g. "https://api.test.datacite.org/"
+     */
+    public static Builder builder(URI dataciteApiURI) {
+        return new Builder(dataciteApiURI);
+    }
+
+    /**
+     * Registers the tenant, or updates its account if it's already registered. If only credentials changed,
+     * the existing client is kept and uses the new credentials. If the repository prefix changed, a new client
+     * is created and DOIs cached for the previous one are dropped.
+     *
+     * @return client of the tenant
+     */
+    public DataCiteClient register(String tenantId, String username, String password, String repositoryPrefix) {
+        Validate.notNull(tenantId);
+        Validate.notNull(repositoryPrefix);
+        return tenants.compute(tenantId, (id, existing) -> {
+            if (existing != null && existing.repositoryPrefix.equals(repositoryPrefix)) {
+                existing.clientImpl.updateCredentials(username, password);
+                return existing;
+            }
+            invalidateCachedDois(existing);
+            return createTenant(username, password, repositoryPrefix);
+        }).client;
+    }
+
+    /**
+     * Replaces credentials of registered tenant, without rebuilding its client.
+     *
+     * @throws IllegalArgumentException if the tenant isn't registered
+     */
+    public void updateCredentials(String tenantId, String username, String password) {
+        getTenant(tenantId).clientImpl.updateCredentials(username, password);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the tenant isn't registered
+     */
+    public DataCiteClient getClient(String tenantId) {
+        return getTenant(tenantId).client;
+    }
+
+    /**
+     * Removes the tenant and drops its cached DOIs. Its client handed out before can still be used, until
+     * credentials are revoked in DataCite.
+     *
+     * @return true if the tenant was registered
+     */
+    public boolean unregister(String tenantId) {
+        Tenant removed = tenants.remove(tenantId);
+        invalidateCachedDois(removed);
+        return removed != null;
+    }
+
+    /**
+     * Drops the DOI cached for the tenant, e.g. after it was changed by other means than the tenant's client.
+     *
+     * @throws IllegalArgumentException if the tenant isn't registered
+     */
+    public void invalidateCachedDoi(String tenantId, String doiId) {
+        DataCiteClient client = getTenant(tenantId).client;
+        if (client instanceof CachingDataCiteClient) {
+            ((CachingDataCiteClient) client).invalidate(doiId);
+        }
+    }
+
+    public Set<String> getTenantIds() {
+        return Collections.unmodifiableSet(tenants.keySet());
+    }
+
+    /**
+     * @return cache shared by tenant clients, or null if caching is disabled
+     */
+    public DataCiteDoiCache getCache() {
+        return cache;
+    }
+
+    private Tenant getTenant(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        Validate.isTrue(tenant != null, "Unknown tenant: " + tenantId);
+        return tenant;
+    }
+
+    private void invalidateCachedDois(Tenant tenant) {
+        if (tenant != null && cache != null) {
+            cache.invalidateKeyPrefix(tenant.cacheKeyPrefix);
+        }
+    }
+
+    private Tenant createTenant(String username, String password, String repositoryPrefix) {
+        DataCiteClientImpl clientImpl = DataCiteClientImpl.builder()
+                .dataciteApiURI(dataciteApiURI)
+                .username(username)
+                .password(password)
+                .repositoryPrefix(repositoryPrefix)
+                .restTemplate(restTemplate)
+                .retryPolicy(retryPolicy)
+                .instrumentation(instrumentation)
+                .build();
+        /* client number in the key keeps cached DOIs of one tenant, or of its replaced client, from being served
+         * to another; "#" and " " don't occur in numbers, so no prefix is the start of another one or of a DOI id */
+        String cacheKeyPrefix = "#" + clientCounter.incrementAndGet() + " ";
+        DataCiteClient client = cache != null
+                ? new CachingDataCiteClient(clientImpl, cache, cacheKeyPrefix) : clientImpl;
+        return new Tenant(repositoryPrefix, cacheKeyPrefix, clientImpl, client);
+    }
+
+    public static class Builder {
+
+        private final URI dataciteApiURI;
+        /* collects transport settings, used only to create the shared RestTemplate */
+        private final DataCiteClientImpl.Builder transport;
+        private DataCiteRetryPolicy retryPolicy = DataCiteRetryPolicy.NONE;
+        private DataCiteInstrumentation instrumentation = DataCiteInstrumentation.NOOP;
+        private DataCiteDoiCache cache;
+
+        private Builder(URI dataciteApiURI) {
+            Validate.notNull(dataciteApiURI);
+            this.dataciteApiURI = dataciteApiURI;
+            this.transport = DataCiteClientImpl.builder().dataciteApiURI(dataciteApiURI);
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            transport.connectTimeout(connectTimeout);
+            return this;
+        }
+
+        public Builder readTimeout(Duration readTimeout) {
+            transport.readTimeout(readTimeout);
+            return this;
+        }
+
+        /**
+         * @param maxConnections maximum number of concurrent connections to DataCite of all tenants together,
+         *      0 for no limit
+         */
+        public Builder maxConnections(int maxConnections) {
+            transport.maxConnections(maxConnections);
+            return this;
+        }
+
+        /**
+         * @param requestCompression whether request bodies should be sent gzip-compressed, disabled by default
+         */
+        public Builder requestCompression(boolean requestCompression) {
+            transport.requestCompression(requestCompression);
+            return this;
+        }
+
+        /**
+         * @param rateLimiter limits rate of requests of all tenants together
+         */
+        public Builder rateLimiter(DataCiteRateLimiter rateLimiter) {
+            transport.rateLimiter(rateLimiter);
+            return this;
+        }
+
+        /**
+         * @param retryPolicy retry policy of all operations of all tenants, by default failed calls are not retried
+         */
+        public Builder retryPolicy(DataCiteRetryPolicy retryPolicy) {
+            Validate.notNull(retryPolicy);
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        public Builder instrumentation(DataCiteInstrumentation instrumentation) {
+            Validate.notNull(instrumentation);
+            transport.instrumentation(instrumentation);
+            this.instrumentation = instrumentation;
+            return this;
+        }
+
+        /**
+         * @param cache cache of retrieved DOIs shared by all tenants, with entries kept separately per tenant.
+         *      By default DOIs aren't cached.
+         */
+        public Builder cache(DataCiteDoiCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public DataCiteClientRegistry build() {
+            return new DataCiteClientRegistry(this);
+        }
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.ImmutableDataCiteDoi;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Bounded, in-memory cache of retrieved DOIs. Entries expire after configured time-to-live, 
+ * and least recently used entries are evicted when the cache is full.
+ * 
+ * DOIs are cached as {@link ImmutableDataCiteDoi} snapshots, shared by all callers; {@link #get(String)} returns 
+ * a copy that the caller is free to modify.
+ * 
+ * Entries are stored under keys built by {@link CachingDataCiteClient} from the DOI id, so they are read and
+ * invalidated through the client, e.g. {@link CachingDataCiteClient#invalidate(String)}; the cache itself only
+ * exposes statistics and {@link #invalidateAll()}.
+ */
+public class DataCiteDoiCache {
+
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    /* access-ordered, so iteration starts from least recently used entry */
+    private final LinkedHashMap<String, CacheEntry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /* incremented on each invalidation, guarded by entries lock */
+    private long invalidationCount;
+
+    /*
+     * Tombstones telling loads in flight which entries were invalidated after they started, as invalidation
+     * count after the invalidation. Kept only while some load started before them is in flight, so one
+     * tenant's writes don't stop DOIs of others from being cached. Guarded by entries lock.
+     */
+    private final Map<String, Long> invalidatedKeys = new HashMap<>();
+    private final Map<String, Long> invalidatedKeyPrefixes = new HashMap<>();
+    private long allInvalidatedAt;
+    /* invalidation count at start of loads in flight -> number of such loads */
+    private final TreeMap<Long, Integer> loadsInFlight = new TreeMap<>();
+
+    private static class CacheEntry {
+        private final ImmutableDataCiteDoi doi;
+        private final long expiresAtNanos;
+
+        CacheEntry(ImmutableDataCiteDoi doi, long expiresAtNanos) {
+            this.doi = doi;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    public DataCiteDoiCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+    }
+
+    /**
+     * @param maxSize maximum number of cached DOIs
+     * @param ttl time after which cached DOI is considered stale
+     */
+    public DataCiteDoiCache(int maxSize, Duration ttl) {
+        Validate.isTrue(maxSize > 0, "maxSize must be positive");
+        Validate.isTrue(ttl != null && !ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true);
+    }
+
+    /**
+     * @return copy of cached DOI, or null if not cached or expired
+     */
+    DataCiteDoi get(String key) {
+        ImmutableDataCiteDoi snapshot = getSnapshot(key);
+        return snapshot != null ? snapshot.toDataCiteDoi() : null;
+    }
+
+    /**
+     * @return cached DOI, or null if not cached or expired
+     */
+    ImmutableDataCiteDoi getSnapshot(String key) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.doi;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(String key, DataCiteDoi doi) {
+        put(key, doi, -1);
+    }
+
+    /**
+     * Starts loading a DOI to cache. Must be followed by {@link #endLoad(long)}, also when the load fails.
+     * 
+     * @return load id for {@link #put(String, DataCiteDoi, long)} and {@link #endLoad(long)}
+     */
+    long startLoad() {
+        synchronized (entries) {
+            loadsInFlight.merge(invalidationCount, 1, Integer::sum);
+            return invalidationCount;
+        }
+    }
+
+    void endLoad(long loadId) {
+        synchronized (entries) {
+            Integer count = loadsInFlight.get(loadId);
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                loadsInFlight.put(loadId, count - 1);
+                return;
+            }
+            boolean wasOldest = loadId == loadsInFlight.firstKey();
+            loadsInFlight.remove(loadId);
+            if (wasOldest) {
+                pruneTombstones();
+            }
+        }
+    }
+
+    /**
+     * Caches the DOI unless its entry was invalidated after the load started. Prevents caching DOI retrieved
+     * before concurrent update, which would be stale.
+     * 
+     * @param loadId id returned by {@link #startLoad()} before retrieving the DOI, or -1 to always cache
+     */
+    void put(String key, DataCiteDoi doi, long loadId) {
+        if (key == null || doi == null) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(ImmutableDataCiteDoi.of(doi), System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            if (loadId >= 0 && invalidatedSince(key, loadId)) {
+                return;
+            }
+            entries.put(key, entry);
+            if (entries.size() > maxSize) {
+                evictOverflow();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, CacheEntry>> lruIterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && lruIterator.hasNext()) {
+            lruIterator.next();
+            lruIterator.remove();
+            evictions.increment();
+        }
+    }
+
+    void invalidate(String key) {
+        if (key == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(key);
+            invalidationCount++;
+            if (!loadsInFlight.isEmpty()) {
+                invalidatedKeys.put(key, invalidationCount);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries whose key starts with provided prefix, e.g. all DOIs cached for one tenant.
+     */
+    void invalidateKeyPrefix(String keyPrefix) {
+        Validate.notNull(keyPrefix);
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.startsWith(keyPrefix));
+            invalidationCount++;
+            if (!loadsInFlight.isEmpty()) {
+                invalidatedKeyPrefixes.put(keyPrefix, invalidationCount);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            invalidationCount++;
+            allInvalidatedAt = invalidationCount;
+        }
+    }
+
+    /* called with entries lock held */
+    private boolean invalidatedSince(String key, long loadId) {
+        if (allInvalidatedAt > loadId || invalidatedKeys.getOrDefault(key, 0L) > loadId) {
+            return true;
+        }
+        for (Map.Entry<String, Long> prefix : invalidatedKeyPrefixes.entrySet()) {
+            if (prefix.getValue() > loadId && key.startsWith(prefix.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* drops tombstones no load in flight can be affected by, called with entries lock held */
+    private void pruneTombstones() {
+        if (loadsInFlight.isEmpty()) {
+            invalidatedKeys.clear();
+            invalidatedKeyPrefixes.clear();
+            return;
+        }
+        long oldestLoad = loadsInFlight.firstKey();
+        invalidatedKeys.values().removeIf(invalidatedAt -> invalidatedAt <= oldestLoad);
+        invalidatedKeyPrefixes.values().removeIf(invalidatedAt -> invalidatedAt <= oldestLoad);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+}
@@ -0,0 +1,267 @@
+package com.researchspace.datacite.client;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Keeps a cached verdict about the connection to DataCite, for admin pages and readiness probes that
+ * need an answer without waiting for DataCite.
+ *
+ * The checks done by {@link DataCiteClient#testConnectionToDataCite()} (heartbeat, repository prefix lookup,
+ * credentials) are run in parallel. {@link #getReport()} returns the latest verdict immediately, and triggers
+ * a refresh in the background if the verdict is older than its time-to-live, so DataCite is only called
+ * while somebody reads the verdict. Periodic refresh can be enabled with {@link Builder#refreshInterval(Duration)}.
+ */
+public class DataCiteHealthMonitor implements AutoCloseable {
+
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_CHECK_TIMEOUT = Duration.ofSeconds(10);
+
+    /* the report together with the time it was taken, for expiry */
+    private static class CachedReport {
+        private final HealthReport report;
+        private final long checkedAtNanos;
+
+        CachedReport(HealthReport report, long checkedAtNanos) {
+            this.report = report;
+            this.checkedAtNanos = checkedAtNanos;
+        }
+    }
+
+    private final DataCiteClientImpl client;
+    private final long ttlNanos;
+    private final Duration checkTimeout;
+
+    private final Executor checkExecutor;
+    private final ExecutorService ownCheckExecutor;
+    private final ScheduledExecutorService scheduler;
+    /* null without periodic refresh */
+    private final ScheduledFuture<?> refreshTask;
+
+    private volatile CachedReport latest;
+    private final AtomicReference<CompletableFuture<HealthReport>> refreshInFlight = new AtomicReference<>();
+
+    private DataCiteHealthMonitor(Builder builder) {
+        this.client = builder.client;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.checkTimeout = builder.checkTimeout;
+        this.ownCheckExecutor = builder.checkExecutor == null
+                ? Executors.newFixedThreadPool(HealthCheckResult.Check.values().length, daemonThreads("datacite-health-check"))
+                : null;
+        this.checkExecutor = builder.checkExecutor == null ? ownCheckExecutor : builder.checkExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("datacite-health-monitor"));
+        this.refreshTask = builder.refreshInterval == null ? null : scheduler.scheduleWithFixedDelay(
+                this::refreshAsync, 0, Math.max(1, builder.refreshInterval.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param client client whose connection is checked
+     */
+    public static Builder builder(DataCiteClientImpl client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Returns the latest verdict without waiting for DataCite. If the verdict expired, or there is none yet,
+     * a refresh is started in the background.
+     *
+     * @return latest report, or report with {@link HealthReport.Status#UNKNOWN} status before the first checks complete
+     */
+    public HealthReport getReport() {
+        CachedReport cached = latest;
+        if (cached == null || System.nanoTime() - cached.checkedAtNanos > ttlNanos) {
+            refreshAsync();
+        }
+        return cached == null ? HealthReport.unknown() : cached.report;
+    }
+
+    /**
+     * @return true if the latest verdict is that all checks succeeded
+     */
+    public boolean isHealthy() {
+        return getReport().isHealthy();
+    }
+
+    /**
+     * Runs the checks now, or joins the refresh that's already running, and waits for the result.
+     */
+    public HealthReport refresh() {
+        return refreshAsync().join();
+    }
+
+    /**
+     * Starts the checks, unless a refresh is already running.
+     *
+     * @return future completed with the new report
+     */
+    public CompletableFuture<HealthReport> refreshAsync() {
+        CompletableFuture<HealthReport> started = new CompletableFuture<>();
+        CompletableFuture<HealthReport> running = refreshInFlight.compareAndExchange(null, started);
+        if (running != null) {
+            return running;
+        }
+        try {
+            scheduler.execute(() -> runRefresh(started));
+        } catch (RuntimeException e) {
+            // monitor closed
+            refreshInFlight.set(null);
+            started.completeExceptionally(e);
+        }
+        return started;
+    }
+
+    private void runRefresh(CompletableFuture<HealthReport> refresh) {
+        try {
+            long startNanos = System.nanoTime();
+            HealthReport report = runChecks();
+            latest = new CachedReport(report, startNanos);
+            refreshInFlight.set(null);
+            refresh.complete(report);
+        } catch (RuntimeException e) {
+            refreshInFlight.set(null);
+            refresh.completeExceptionally(e);
+        }
+    }
+
+    private HealthReport runChecks() {
+        Instant checkedAt = Instant.now();
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<HealthCheckResult>> futures = new ArrayList<>();
+        for (HealthCheckResult.Check check : HealthCheckResult.Check.values()) {
+            futures.add(CompletableFuture.supplyAsync(() -> runCheck(check), checkExecutor));
+        }
+
+        List<HealthCheckResult> results = new ArrayList<>();
+        long deadlineNanos = startNanos + checkTimeout.toNanos();
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(awaitCheck(HealthCheckResult.Check.values()[i], futures.get(i), startNanos, deadlineNanos));
+        }
+        boolean healthy = results.stream().allMatch(HealthCheckResult::isHealthy);
+        return new HealthReport(healthy ? HealthReport.Status.UP : HealthReport.Status.DOWN, checkedAt,
+                Collections.unmodifiableList(results), client.getCircuitBreakerStates());
+    }
+
+    private HealthCheckResult runCheck(HealthCheckResult.Check check) {
+        long startNanos = System.nanoTime();
+        try {
+            boolean passed = client.runConnectionCheck(check);
+            Duration latency = Duration.ofNanos(System.nanoTime() - startNanos);
+            return passed ? HealthCheckResult.healthy(check, latency)
+                    : HealthCheckResult.unhealthy(check, latency, "Unexpected response from DataCite, check did not complete", null);
+        } catch (RuntimeException e) {
+            return HealthCheckResult.unhealthy(check, Duration.ofNanos(System.nanoTime() - startNanos), e.getMessage(), e);
+        }
+    }
+
+    private HealthCheckResult awaitCheck(HealthCheckResult.Check check, CompletableFuture<HealthCheckResult> future,
+            long startNanos, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return HealthCheckResult.unhealthy(check, Duration.ofNanos(System.nanoTime() - startNanos),
+                    "DataCite did not respond within " + checkTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return HealthCheckResult.unhealthy(check, Duration.ofNanos(System.nanoTime() - startNanos), "Check interrupted", e);
+        } catch (ExecutionException e) {
+            // runCheck catches check failures, so this is executor rejecting the task
+            Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            return HealthCheckResult.unhealthy(check, Duration.ofNanos(System.nanoTime() - startNanos), cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Stops background refreshing.
+     */
+    @Override
+    public void close() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+        scheduler.shutdownNow();
+        if (ownCheckExecutor != null) {
+            ownCheckExecutor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static class Builder {
+
+        private final DataCiteClientImpl client;
+        private Duration ttl = DEFAULT_TTL;
+        private Duration refreshInterval;
+        private Duration checkTimeout = DEFAULT_CHECK_TIMEOUT;
+        private Executor checkExecutor;
+
+        private Builder(DataCiteClientImpl client) {
+            Validate.notNull(client);
+            this.client = client;
+        }
+
+        /**
+         * @param ttl age after which the verdict is refreshed on read
+         */
+        public Builder ttl(Duration ttl) {
+            Validate.isTrue(!ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * @param refreshInterval pause between periodic background refreshes. By default there are none, and the
+         *      verdict is refreshed only when read after its ttl.
+         */
+        public Builder refreshInterval(Duration refreshInterval) {
+            Validate.isTrue(!refreshInterval.isNegative() && !refreshInterval.isZero(), "refreshInterval must be positive");
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        /**
+         * @param checkTimeout time after which a check that didn't complete is reported as failed
+         */
+        public Builder checkTimeout(Duration checkTimeout) {
+            Validate.isTrue(!checkTimeout.isNegative() && !checkTimeout.isZero(), "checkTimeout must be positive");
+            this.checkTimeout = checkTimeout;
+            return this;
+        }
+
+        /**
+         * @param checkExecutor executor running the checks, by default the monitor uses its own threads
+         */
+        public Builder checkExecutor(Executor checkExecutor) {
+            Validate.notNull(checkExecutor);
+            this.checkExecutor = checkExecutor;
+            return this;
+        }
+
+        public DataCiteHealthMonitor build() {
+            return new DataCiteHealthMonitor(this);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.researchspace.datacite.client;
+
+import java.time.Duration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+
+/**
+ * SPI for observing calls made by the client to DataCite, e.g. to record metrics or tracing spans.
+ * 
+ * {@link #start(DataCiteOperation)} is called once per client operation, and the returned observation
+ * receives events of all HTTP exchanges made for the operation (including retries), until it's stopped.
+ * Observations of synchronous client are started, notified and stopped on the calling thread.
+ * 
+ * See {@link MicrometerDataCiteInstrumentation} and {@link OpenTelemetryDataCiteInstrumentation} for 
+ * bindings to popular libraries. Default {@link #NOOP} instrumentation adds no overhead to the calls.
+ */
+public interface DataCiteInstrumentation {
+
+    DataCiteInstrumentation NOOP = operation -> Observation.NOOP;
+
+    /**
+     * @return observation of the operation that is just starting, never null
+     */
+    Observation start(DataCiteOperation operation);
+
+    /**
+     * Interceptor reporting response status codes to the observation of the current operation. It's added 
+     * automatically to RestTemplate created by {@link DataCiteClientImpl.Builder}, add it to custom 
+     * RestTemplate to have status codes recorded.
+     */
+    static ClientHttpRequestInterceptor interceptor() {
+        return InstrumentingInterceptor.INSTANCE;
+    }
+
+    /**
+     * Events of single client operation. All methods are optional.
+     */
+    interface Observation {
+
+        Observation NOOP = new Observation() {};
+
+        /**
+         * Called for each HTTP response received from DataCite.
+         */
+        default void onResponse(int statusCode) {
+        }
+
+        /**
+         * Called when DataCite responds with 429 Too Many Requests.
+         * 
+         * @param retryAfter pause requested by DataCite, or null if not specified
+         */
+        default void onThrottled(Duration retryAfter) {
+        }
+
+        /**
+         * Called before failed attempt is repeated.
+         * 
+         * @param attempt number of the attempt that failed, starting from 1
+         * @param failure the reason of failure
+         * @param delay time to wait before next attempt
+         */
+        default void onRetry(int attempt, Throwable failure, Duration delay) {
+        }
+
+        /**
+         * Called once, when the operation completes.
+         * 
+         * @param error exception thrown by the operation, or null if it succeeded 
+         */
+        default void stop(Throwable error) {
+        }
+    }
+
+}
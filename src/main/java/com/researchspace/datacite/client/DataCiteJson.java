@@ -0,0 +1,279 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.researchspace.datacite.model.DataCiteApiError;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteDoiRequestWrapper;
+import com.researchspace.datacite.model.DataCiteDoiSummary;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * JSON (de)serialization of DataCite API requests and responses, used where the client reads responses 
+ * directly rather than through RestTemplate message converters.
+ */
+final class DataCiteJson {
+
+    /** configured the same way as the mapper used by RestTemplate's default message converter */
+    static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    static final ObjectWriter WRAPPER_WRITER = OBJECT_MAPPER.writerFor(DataCiteDoiRequestWrapper.class);
+
+    /* readers are immutable and thread-safe, so there is one per set of skipped fields */
+    private static final Map<Set<DoiField>, DoiReaders> READERS = new ConcurrentHashMap<>();
+
+    static final DoiReaders DEFAULT_READERS = readers(Collections.emptySet());
+
+    private static final ObjectReader SUMMARY_READER = OBJECT_MAPPER.readerFor(DataCiteDoiSummary.class);
+
+    private DataCiteJson() {
+    }
+
+    /** Readers of DOI responses, binding all DOI attributes except the skipped ones */
+    static class DoiReaders {
+        final ObjectReader wrapperReader;
+        final ObjectReader doiReader;
+
+        DoiReaders(ObjectMapper mapper) {
+            this.wrapperReader = mapper.readerFor(DataCiteDoiRequestWrapper.class);
+            this.doiReader = mapper.readerFor(DataCiteDoi.class);
+        }
+    }
+
+    /**
+     * @param skippedFields DOI attributes that should be skipped when reading the response. Skipped attributes
+     *      are not allocated at all, they're left null (or 0) in returned DOIs.
+     */
+    static DoiReaders readers(Set<DoiField> skippedFields) {
+        Set<DoiField> key = skippedFields.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(EnumSet.copyOf(skippedFields));
+        return READERS.computeIfAbsent(key, DataCiteJson::createReaders);
+    }
+
+    private static DoiReaders createReaders(Set<DoiField> skippedFields) {
+        if (skippedFields.isEmpty()) {
+            return new DoiReaders(OBJECT_MAPPER);
+        }
+        SimpleModule skippingModule = new SimpleModule("DataCiteSkippedFields");
+        skippingModule.setDeserializerModifier(new SkippingDeserializerModifier(skippedFields));
+        return new DoiReaders(OBJECT_MAPPER.copy().registerModule(skippingModule));
+    }
+
+    /** Turns skipped DOI attributes into ignored properties, which parser skips over without binding */
+    private static class SkippingDeserializerModifier extends BeanDeserializerModifier {
+
+        private final Set<DoiField> skippedFields;
+
+        SkippingDeserializerModifier(Set<DoiField> skippedFields) {
+            this.skippedFields = skippedFields;
+        }
+
+        @Override
+        public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
+                BeanDeserializerBuilder builder) {
+            if (DataCiteDoiAttributes.class.equals(beanDesc.getBeanClass())) {
+                for (DoiField field : skippedFields) {
+                    builder.removeProperty(PropertyName.construct(field.getJsonName()));
+                    builder.addIgnorable(field.getJsonName());
+                }
+            }
+            return builder;
+        }
+    }
+
+    /**
+     * Reads DOI response straight from the stream.
+     * 
+     * @return response, or null if the stream is empty
+     */
+    static DataCiteDoiRequestWrapper readDoiResponse(InputStream body, DoiReaders readers) throws IOException {
+        PushbackInputStream pushbackBody = new PushbackInputStream(body, 1);
+        int firstByte = pushbackBody.read();
+        if (firstByte == -1) {
+            return null;
+        }
+        pushbackBody.unread(firstByte);
+        return readers.wrapperReader.readValue(pushbackBody);
+    }
+
+    /** One page of DOI list response */
+    static class DoiPage {
+        final List<DataCiteDoi> dois;
+        /* link to next page as returned by DataCite, null for the last page */
+        final String nextLink;
+
+        DoiPage(List<DataCiteDoi> dois, String nextLink) {
+            this.dois = dois;
+            this.nextLink = nextLink;
+        }
+    }
+
+    /**
+     * Reads DOI response into summary, binding only its id and attributes.
+     */
+    static DataCiteDoiSummary readDoiSummary(InputStream body) throws IOException {
+        try (JsonParser parser = SUMMARY_READER.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected DataCite response, expected JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("data".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    return readDoiSummaryData(parser);
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new IOException("Unexpected DataCite response, no DOI data found");
+    }
+
+    private static DataCiteDoiSummary readDoiSummaryData(JsonParser parser) throws IOException {
+        String id = null;
+        DataCiteDoiSummary summary = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("id".equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                id = parser.getText();
+            } else if ("attributes".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                summary = SUMMARY_READER.readValue(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (summary == null) {
+            summary = new DataCiteDoiSummary();
+        }
+        summary.setId(id);
+        return summary;
+    }
+
+    /**
+     * Reads DOI list response incrementally, binding DOIs one by one as they're read from the stream.
+     */
+    static DoiPage readDoiPage(InputStream body, DoiReaders readers) throws IOException {
+        List<DataCiteDoi> dois = new ArrayList<>();
+        String nextLink = null;
+        try (JsonParser parser = readers.doiReader.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected DataCite response, expected JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("data".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        dois.add(readers.doiReader.readValue(parser));
+                    }
+                } else if ("links".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String linkName = parser.getCurrentName();
+                        if (parser.nextToken() == JsonToken.VALUE_STRING && "next".equals(linkName)) {
+                            nextLink = parser.getText();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new DoiPage(dois, nextLink);
+    }
+
+    /**
+     * Reads 'errors' array of JSON:API error response, skipping over the rest of the body.
+     * 
+     * @return errors listed in the response, empty list if there are none or the body isn't JSON
+     *      (e.g. HTML error page returned by a proxy)
+     */
+    static List<DataCiteApiError> readErrors(byte[] body) {
+        if (body == null || body.length == 0) {
+            return Collections.emptyList();
+        }
+        List<DataCiteApiError> errors = new ArrayList<>();
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Collections.emptyList();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("errors".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        errors.add(readError(parser));
+                    }
+                    return errors;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // not a JSON:API body, return errors read so far
+        }
+        return errors;
+    }
+
+    private static DataCiteApiError readError(JsonParser parser) throws IOException {
+        String status = null;
+        String title = null;
+        String detail = null;
+        String source = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken valueToken = parser.nextToken();
+            if (valueToken.isScalarValue() && valueToken != JsonToken.VALUE_NULL) {
+                if ("status".equals(fieldName)) {
+                    status = parser.getText();
+                } else if ("title".equals(fieldName)) {
+                    title = parser.getText();
+                } else if ("detail".equals(fieldName)) {
+                    detail = parser.getText();
+                } else if ("source".equals(fieldName)) {
+                    source = parser.getText();
+                }
+            } else if ("source".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                source = readErrorSource(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new DataCiteApiError(status, title != null ? title : detail, source);
+    }
+
+    /* standard JSON:API source object, with 'pointer' to request document or query 'parameter' */
+    private static String readErrorSource(JsonParser parser) throws IOException {
+        String source = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING && source == null
+                    && ("pointer".equals(fieldName) || "parameter".equals(fieldName))) {
+                source = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return source;
+    }
+
+}
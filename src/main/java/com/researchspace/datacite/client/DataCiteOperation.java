@@ -0,0 +1,30 @@
+package com.researchspace.datacite.client;
+
+/**
+ * Types of calls made by the client to DataCite API.
+ */
+public enum DataCiteOperation {
+
+    RETRIEVE(true),
+    LIST(true),
+    REGISTER(false),
+    UPDATE(true),
+    PUBLISH(true),
+    RETRACT(true),
+    DELETE(true),
+    TEST_CONNECTION(true);
+
+    private final boolean idempotent;
+
+    DataCiteOperation(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * @return true if repeating the operation has the same effect as calling it once, so it's safe to retry
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+}
@@ -0,0 +1,510 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteValidationException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Durable write-behind queue of DOI changes. Operations are written to a local journal file and return
+ * immediately, then they are sent to DataCite in the background, with batching and exponential backoff
+ * while DataCite is unavailable. Pending operations survive application restart: they are read back from
+ * the journal when the outbox is created again with the same file.
+ *
+ * Pending changes are kept per DOI and coalesced: the latest DOI content is sent in a single request, together
+ * with the latest requested event (publish or retract). DOIs should therefore be passed with their full content,
+ * last write wins.
+ *
+ * Failures are retried as long as they're transient (see {@link DataCiteRetryPolicy}), other failures are
+ * reported to {@link Listener#onFailed(String, DataCiteDoi, Exception)} and the change is dropped.
+ */
+public class DataCiteOutbox implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    public static final Duration DEFAULT_DRAIN_INTERVAL = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofMinutes(5);
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+    private static final double BACKOFF_JITTER = 0.2;
+
+    /**
+     * Receives results of operations sent to DataCite. Called on the outbox drain thread.
+     */
+    public interface Listener {
+
+        /**
+         * @param doiId id of the DOI
+         * @param result DOI returned by DataCite
+         */
+        default void onCompleted(String doiId, DataCiteDoi result) {
+        }
+
+        /**
+         * @param doiId id of the DOI
+         * @param doi DOI content that DataCite rejected
+         * @param error the reason, the change won't be retried
+         */
+        default void onFailed(String doiId, DataCiteDoi doi, Exception error) {
+        }
+    }
+
+    /* pending change of single DOI */
+    private static class PendingEntry {
+        private final String key;
+        private boolean registration;
+        private DataCiteDoi doi;
+        private String event;
+        /* seq of the change that requested the event, the event is delivered once it's done */
+        private long eventSeq;
+        private long seq;
+        private int attempts;
+        private long nextAttemptNanos;
+        private boolean inFlight;
+
+        PendingEntry(String key, boolean registration) {
+            this.key = key;
+            this.registration = registration;
+        }
+    }
+
+    /* what the drain thread sends, isolated from changes made while the request is in flight */
+    private static class Attempt {
+        private final PendingEntry entry;
+        private final boolean registration;
+        private final DataCiteDoi doi;
+        private final long seq;
+        private DataCiteDoi result;
+        private Exception error;
+
+        Attempt(PendingEntry entry) {
+            this.entry = entry;
+            this.registration = entry.registration;
+            this.doi = copyOf(entry.doi);
+            this.doi.getAttributes().setEvent(entry.event);
+            this.seq = entry.seq;
+        }
+    }
+
+    private final DataCiteClient client;
+    private final OutboxJournal journal;
+    private final Listener listener;
+    private final int batchSize;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int compactionThreshold;
+
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownScheduler;
+    private final ScheduledFuture<?> drainTask;
+
+    /* guards pending entries, sequence and journal writes */
+    private final Object lock = new Object();
+
+    private final Map<String, PendingEntry> pending = new LinkedHashMap<>();
+    private long lastSeq;
+
+    private DataCiteOutbox(Builder builder) throws IOException {
+        this.client = builder.client;
+        this.listener = builder.listener;
+        this.batchSize = builder.batchSize;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.compactionThreshold = builder.compactionThreshold;
+        this.journal = new OutboxJournal(builder.journalFile, builder.syncWrites);
+        for (OutboxJournal.Record record : journal.readAll()) {
+            apply(record);
+            lastSeq = Math.max(lastSeq, record.getSeq());
+        }
+        this.ownScheduler = builder.scheduler == null;
+        this.scheduler = ownScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "datacite-outbox");
+            thread.setDaemon(true);
+            return thread;
+        }) : builder.scheduler;
+        long intervalMillis = builder.drainInterval.toMillis();
+        this.drainTask = scheduler.scheduleWithFixedDelay(this::drainSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param client client used for sending the changes, e.g. with rate limiter configured
+     * @param journalFile file keeping pending operations, created if it doesn't exist
+     */
+    public static Builder builder(DataCiteClient client, Path journalFile) {
+        return new Builder(client, journalFile);
+    }
+
+    /**
+     * Queues creation of the DOI. DOI id must be set in 'attributes.doi', so the registration can be safely
+     * repeated, and so following operations on the DOI can be coalesced with it.
+     */
+    public void register(DataCiteDoi doiToCreate) {
+        String doiId = doiToCreate.getAttributes().getDoi();
+        Validate.isTrue(StringUtils.isNotEmpty(doiId), "attributes.doi must be set for DOI registered through outbox");
+        enqueue(OutboxJournal.RecordType.REGISTER, doiId, doiToCreate, doiToCreate.getAttributes().getEvent());
+    }
+
+    public void update(DataCiteDoi doiUpdate) {
+        enqueue(OutboxJournal.RecordType.UPDATE, doiUpdate.getId(), doiUpdate, doiUpdate.getAttributes().getEvent());
+    }
+
+    public void publish(DataCiteDoi doiToPublish) {
+        enqueue(OutboxJournal.RecordType.UPDATE, doiToPublish.getId(), doiToPublish, "publish");
+    }
+
+    public void retract(DataCiteDoi doiToRetract) {
+        enqueue(OutboxJournal.RecordType.UPDATE, doiToRetract.getId(), doiToRetract, "hide");
+    }
+
+    private void enqueue(OutboxJournal.RecordType type, String doiId, DataCiteDoi doi, String event) {
+        Validate.isTrue(StringUtils.isNotEmpty(doiId), "DOI id must be set");
+        DataCiteDoi copy = copyOf(doi);
+        copy.getAttributes().setEvent(null);
+        synchronized (lock) {
+            OutboxJournal.Record record = new OutboxJournal.Record(++lastSeq, type, keyOf(doiId), event, copy);
+            journal.append(List.of(record));
+            apply(record);
+        }
+    }
+
+    /**
+     * @return number of DOIs with changes not yet sent to DataCite
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Sends all pending changes that are due now, on the calling thread.
+     *
+     * @return number of DOIs still pending afterwards
+     */
+    public int drain() {
+        List<Attempt> attempts;
+        do {
+            attempts = startAttempts();
+            for (Attempt attempt : attempts) {
+                send(attempt);
+            }
+            completeAttempts(attempts);
+        } while (attempts.size() == batchSize && attempts.stream().allMatch(attempt -> attempt.error == null));
+        compactIfNeeded();
+        return getPendingCount();
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            // journal problem, next drain will try again
+        }
+    }
+
+    /** Picks batch of due entries, oldest first */
+    private List<Attempt> startAttempts() {
+        long now = System.nanoTime();
+        synchronized (lock) {
+            return pending.values().stream()
+                    .filter(entry -> !entry.inFlight && entry.nextAttemptNanos - now <= 0)
+                    .sorted(Comparator.comparingLong(entry -> entry.seq))
+                    .limit(batchSize)
+                    .peek(entry -> entry.inFlight = true)
+                    .map(Attempt::new)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void send(Attempt attempt) {
+        try {
+            attempt.result = attempt.registration ? registerOrUpdate(attempt) : client.updateDoi(attempt.doi);
+        } catch (RuntimeException e) {
+            attempt.error = e;
+        }
+    }
+
+    /* 
+     * previous attempt (possibly before restart) could have created the DOI without us getting the response,
+     * then DataCite rejects the registration as DOI already taken, and the DOI content is sent as update instead
+     */
+    private DataCiteDoi registerOrUpdate(Attempt attempt) {
+        try {
+            return client.registerDoi(attempt.doi);
+        } catch (DataCiteValidationException e) {
+            if (e.getStatus() != HttpStatus.UNPROCESSABLE_ENTITY.value() || !isDoiTaken(e)) {
+                throw e;
+            }
+            attempt.doi.setId(attempt.doi.getAttributes().getDoi());
+            return client.updateDoi(attempt.doi);
+        }
+    }
+
+    /* other validation errors, e.g. missing attributes, must be reported rather than retried as update */
+    private static boolean isDoiTaken(DataCiteValidationException e) {
+        return e.getErrors().stream().anyMatch(error -> error.getSource() != null
+                && (error.getSource().equals("doi") || error.getSource().endsWith("/doi"))
+                && error.getTitle() != null && error.getTitle().toLowerCase().contains("taken"));
+    }
+
+    /** Records results in the journal with a single write, then updates pending entries */
+    private void completeAttempts(List<Attempt> attempts) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        boolean transientFailure = false;
+        List<OutboxJournal.Record> records = new ArrayList<>();
+        for (Attempt attempt : attempts) {
+            if (attempt.error == null) {
+                records.add(new OutboxJournal.Record(attempt.seq, OutboxJournal.RecordType.DONE, attempt.entry.key, null, null));
+            } else if (!DataCiteRetryPolicy.isTransient(attempt.error, true)) {
+                records.add(new OutboxJournal.Record(attempt.seq, OutboxJournal.RecordType.FAILED, attempt.entry.key, null, null));
+            } else {
+                transientFailure = true;
+            }
+        }
+        synchronized (lock) {
+            try {
+                journal.append(records);
+                records.forEach(this::apply);
+            } finally {
+                for (Attempt attempt : attempts) {
+                    attempt.entry.inFlight = false;
+                    if (attempt.error != null && DataCiteRetryPolicy.isTransient(attempt.error, true)) {
+                        attempt.entry.attempts++;
+                        attempt.entry.nextAttemptNanos = System.nanoTime() + backoff(attempt.entry.attempts).toNanos();
+                    }
+                }
+            }
+        }
+        for (Attempt attempt : attempts) {
+            if (attempt.error == null) {
+                listener.onCompleted(attempt.entry.key, attempt.result);
+            } else if (!DataCiteRetryPolicy.isTransient(attempt.error, true)) {
+                listener.onFailed(attempt.entry.key, attempt.doi, attempt.error);
+            }
+        }
+        if (transientFailure) {
+            postponeAll();
+        }
+    }
+
+    /* DataCite is likely unavailable, so don't hammer it with the rest of the queue either */
+    private void postponeAll() {
+        long retryAt = System.nanoTime() + initialBackoff.toNanos();
+        synchronized (lock) {
+            for (PendingEntry entry : pending.values()) {
+                if (entry.nextAttemptNanos - retryAt < 0) {
+                    entry.nextAttemptNanos = retryAt;
+                }
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        double backoffMillis = initialBackoff.toMillis() * Math.pow(2, Math.min(attempts - 1, 30));
+        backoffMillis = Math.min(backoffMillis, maxBackoff.toMillis());
+        backoffMillis *= 1 + BACKOFF_JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofMillis((long) backoffMillis);
+    }
+
+    /** Applies journal record to pending entries, used both for new operations and for journal replay */
+    private void apply(OutboxJournal.Record record) {
+        PendingEntry entry = pending.get(record.getKey());
+        switch (record.getType()) {
+            case REGISTER:
+            case UPDATE:
+                if (entry == null) {
+                    entry = new PendingEntry(record.getKey(), record.getType() == OutboxJournal.RecordType.REGISTER);
+                    pending.put(record.getKey(), entry);
+                }
+                entry.doi = record.getDoi();
+                entry.seq = record.getSeq();
+                if (record.getEvent() != null) {
+                    entry.event = record.getEvent();
+                    entry.eventSeq = record.getSeq();
+                }
+                break;
+            case DONE:
+            case FAILED:
+                if (entry != null) {
+                    if (entry.seq <= record.getSeq()) {
+                        pending.remove(record.getKey());
+                    } else if (record.getType() == OutboxJournal.RecordType.DONE) {
+                        entry.registration = false; // created, newer changes go as update
+                        if (entry.event != null && entry.eventSeq <= record.getSeq()) {
+                            entry.event = null; // state transition done, newer changes go as plain update
+                        }
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type " + record.getType());
+        }
+    }
+
+    /* event requested by an older change than the latest is kept at its own seq, so DONE of that change clears it */
+    private Stream<OutboxJournal.Record> compactedRecords(PendingEntry entry) {
+        OutboxJournal.RecordType type = entry.registration ? OutboxJournal.RecordType.REGISTER : OutboxJournal.RecordType.UPDATE;
+        OutboxJournal.Record latest = new OutboxJournal.Record(entry.seq, type, entry.key,
+                entry.eventSeq == entry.seq ? entry.event : null, entry.doi);
+        if (entry.event == null || entry.eventSeq == entry.seq) {
+            return Stream.of(latest);
+        }
+        return Stream.of(new OutboxJournal.Record(entry.eventSeq, type, entry.key, entry.event, entry.doi), latest);
+    }
+
+    /** Rewrites the journal with pending entries only, once it's grown with obsolete records */
+    private void compactIfNeeded() {
+        synchronized (lock) {
+            if (journal.getRecordCount() < compactionThreshold || journal.getRecordCount() < 2 * pending.size()) {
+                return;
+            }
+            List<OutboxJournal.Record> records = pending.values().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.seq))
+                    .flatMap(this::compactedRecords)
+                    .collect(Collectors.toList());
+            try {
+                journal.rewrite(records);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to compact outbox journal", e);
+            }
+        }
+    }
+
+    /**
+     * Stops background draining. Pending changes stay in the journal, and are sent when outbox is
+     * created again with the same journal file.
+     */
+    @Override
+    public void close() throws IOException {
+        drainTask.cancel(false);
+        if (ownScheduler) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            journal.close();
+        }
+    }
+
+    private static String keyOf(String doiId) {
+        return doiId.toLowerCase();
+    }
+
+    private static DataCiteDoi copyOf(DataCiteDoi doi) {
+        return DataCiteJson.OBJECT_MAPPER.convertValue(doi, DataCiteDoi.class);
+    }
+
+    public static class Builder {
+
+        private final DataCiteClient client;
+        private final Path journalFile;
+        private Listener listener = new Listener() {};
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private Duration drainInterval = DEFAULT_DRAIN_INTERVAL;
+        private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+        private Duration maxBackoff = DEFAULT_MAX_BACKOFF;
+        private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        private boolean syncWrites = true;
+        private ScheduledExecutorService scheduler;
+
+        private Builder(DataCiteClient client, Path journalFile) {
+            Validate.notNull(client);
+            Validate.notNull(journalFile);
+            this.client = client;
+            this.journalFile = journalFile;
+        }
+
+        public Builder listener(Listener listener) {
+            Validate.notNull(listener);
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * @param batchSize maximum number of DOIs sent in one drain round, results of the round are
+         *      written to the journal at once
+         */
+        public Builder batchSize(int batchSize) {
+            Validate.isTrue(batchSize > 0, "batchSize must be positive");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param drainInterval pause between background drain rounds
+         */
+        public Builder drainInterval(Duration drainInterval) {
+            Validate.isTrue(!drainInterval.isNegative() && !drainInterval.isZero(), "drainInterval must be positive");
+            this.drainInterval = drainInterval;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff delay before first retry of DOI change that failed with transient error
+         * @param maxBackoff maximum delay between retries, reached by doubling the delay after each failure
+         */
+        public Builder backoff(Duration initialBackoff, Duration maxBackoff) {
+            Validate.isTrue(!initialBackoff.isNegative() && maxBackoff.compareTo(initialBackoff) >= 0,
+                    "maxBackoff can't be smaller than initialBackoff");
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * @param compactionThreshold number of journal records after which the journal is rewritten
+         *      with pending operations only
+         */
+        public Builder compactionThreshold(int compactionThreshold) {
+            Validate.isTrue(compactionThreshold > 0, "compactionThreshold must be positive");
+            this.compactionThreshold = compactionThreshold;
+            return this;
+        }
+
+        /**
+         * @param syncWrites whether each journal write is forced to the disk before the operation returns
+         *      (default). Without sync, operations accepted just before a system crash can be lost.
+         */
+        public Builder syncWrites(boolean syncWrites) {
+            this.syncWrites = syncWrites;
+            return this;
+        }
+
+        /**
+         * @param scheduler scheduler to run background draining on, not shut down by the outbox. By default
+         *      outbox uses its own single daemon thread.
+         */
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public DataCiteOutbox build() throws IOException {
+            return new DataCiteOutbox(this);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Checks DOI metadata locally against constraints of DataCite Metadata Schema before the DOI is published,
+ * so invalid records are found without a round trip to DataCite. Unlike {@link DataCiteDoi#isValidForPublish()}
+ * it reports all problems found, see {@link DoiViolation}.
+ *
+ * Default rules check the properties required for publishing, controlled values (resourceTypeGeneral, nameType,
+ * dateType, descriptionType), DOI and URL syntax, dates and geoLocation coordinates. They can be replaced
+ * or extended with custom {@link DoiValidationRule}s.
+ */
+public class DataCitePublishValidator {
+
+    private final List<DoiValidationRule> rules;
+
+    /**
+     * Validator with {@link #defaultRules()}.
+     */
+    public DataCitePublishValidator() {
+        this(defaultRules());
+    }
+
+    public DataCitePublishValidator(List<DoiValidationRule> rules) {
+        Validate.notNull(rules);
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    /**
+     * @return rules mirroring DataCite schema constraints, can be used as a base for custom rule list
+     */
+    public static List<DoiValidationRule> defaultRules() {
+        return List.of(DoiValidationRules::requiredProperties, DoiValidationRules::identifiers,
+                DoiValidationRules::resourceType, DoiValidationRules::creators, DoiValidationRules::dates,
+                DoiValidationRules::descriptions, DoiValidationRules::geoLocations);
+    }
+
+    /**
+     * @return problems found, empty list if DOI can be published
+     */
+    public List<DoiViolation> validate(DataCiteDoi doi) {
+        Validate.notNull(doi);
+        List<DoiViolation> violations = new ArrayList<>();
+        for (DoiValidationRule rule : rules) {
+            rule.validate(doi, violations);
+        }
+        return violations;
+    }
+
+    /**
+     * Validates the DOIs in parallel.
+     *
+     * @return problems found, keyed by position of the DOI in the list; DOIs without problems are not included
+     */
+    public Map<Integer, List<DoiViolation>> validateAll(List<DataCiteDoi> dois) {
+        Validate.notNull(dois);
+        return IntStream.range(0, dois.size()).parallel()
+                .boxed()
+                .map(index -> Map.entry(index, validate(dois.get(index))))
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, TreeMap::new));
+    }
+
+}
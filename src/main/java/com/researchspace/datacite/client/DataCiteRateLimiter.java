@@ -0,0 +1,180 @@
+package com.researchspace.datacite.client;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+
+/**
+ * Token bucket limiting the rate of requests sent to DataCite. Can be shared by any number of threads and clients.
+ * 
+ * The rate adapts to DataCite responses: it's halved (down to configured minimum) and requests are paused
+ * for 'Retry-After' period whenever DataCite responds with 429, it's lowered when rate-limit headers show
+ * the quota is nearly used, and recovers gradually towards configured maximum with each successful response.
+ * No permits accrue during the pause, so requests queued while paused are spaced out after it rather than
+ * sent all at once.
+ */
+public class DataCiteRateLimiter {
+
+    /** DataCite allows 3000 requests per 5 minutes window */
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 10;
+
+    static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private static final double THROTTLED_RATE_MULTIPLIER = 0.5;
+    private static final double LOW_QUOTA_RATE_MULTIPLIER = 0.9;
+    private static final double LOW_QUOTA_FRACTION = 0.1;
+    private static final double RECOVERY_FRACTION = 0.01;
+
+    private final double maxRequestsPerSecond;
+    private final double minRequestsPerSecond;
+    private final int burst;
+
+    private double currentRequestsPerSecond;
+
+    /* can go negative, then it's the number of requests already queued for future tokens */
+    private double storedPermits;
+    /* in the future while paused, as permits accrue again only once the pause ends */
+    private long lastRefillNanos;
+
+    public DataCiteRateLimiter() {
+        this(DEFAULT_REQUESTS_PER_SECOND);
+    }
+
+    /**
+     * @param maxRequestsPerSecond steady rate of requests, with burst of one second worth of requests
+     */
+    public DataCiteRateLimiter(double maxRequestsPerSecond) {
+        this(maxRequestsPerSecond, Math.max(1, (int) maxRequestsPerSecond), maxRequestsPerSecond / 10);
+    }
+
+    /**
+     * @param maxRequestsPerSecond maximum steady rate of requests
+     * @param burst number of requests that can be sent at once after a period of inactivity
+     * @param minRequestsPerSecond lowest rate the limiter adapts down to when DataCite throttles requests
+     */
+    public DataCiteRateLimiter(double maxRequestsPerSecond, int burst, double minRequestsPerSecond) {
+        Validate.isTrue(maxRequestsPerSecond > 0, "maxRequestsPerSecond must be positive");
+        Validate.isTrue(burst > 0, "burst must be positive");
+        Validate.isTrue(minRequestsPerSecond > 0 && minRequestsPerSecond <= maxRequestsPerSecond,
+                "minRequestsPerSecond must be positive and not greater than maxRequestsPerSecond");
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        this.minRequestsPerSecond = minRequestsPerSecond;
+        this.burst = burst;
+        this.currentRequestsPerSecond = maxRequestsPerSecond;
+        this.storedPermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until the request can be sent.
+     */
+    public void acquire() throws InterruptedIOException {
+        long waitNanos = reserve(System.nanoTime());
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for DataCite rate limiter");
+            }
+        }
+    }
+
+    /**
+     * Takes a permit for one request.
+     * 
+     * @return nanoseconds the caller has to wait before sending the request 
+     */
+    synchronized long reserve(long nowNanos) {
+        refill(nowNanos);
+        storedPermits -= 1;
+        long waitForPermit = storedPermits >= 0 ? 0 : (long) (-storedPermits / currentRequestsPerSecond * 1e9);
+        return Math.max(0, lastRefillNanos - nowNanos) + waitForPermit;
+    }
+
+    private void refill(long nowNanos) {
+        if (nowNanos > lastRefillNanos) {
+            double newPermits = (nowNanos - lastRefillNanos) / 1e9 * currentRequestsPerSecond;
+            storedPermits = Math.min(burst, storedPermits + newPermits);
+            lastRefillNanos = nowNanos;
+        }
+    }
+
+    /**
+     * Called when DataCite rejected a request with 429. Slows down and pauses all requests for retryAfter period.
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        long nowNanos = System.nanoTime();
+        refill(nowNanos);
+        Duration pause = retryAfter != null ? retryAfter : DEFAULT_RETRY_AFTER;
+        lastRefillNanos = Math.max(lastRefillNanos, nowNanos + pause.toNanos());
+        // one request can go when the pause ends, the rest follow at the lowered rate
+        storedPermits = Math.min(storedPermits, 1);
+        currentRequestsPerSecond = Math.max(minRequestsPerSecond, currentRequestsPerSecond * THROTTLED_RATE_MULTIPLIER);
+    }
+
+    /**
+     * Called for each accepted request, with rate-limit details if DataCite returned them.
+     * 
+     * @param remaining number of requests left in current window, or -1 if unknown
+     * @param limit number of requests allowed in the window, or -1 if unknown
+     */
+    public synchronized void onAccepted(long remaining, long limit) {
+        refill(System.nanoTime());
+        if (remaining >= 0 && limit > 0 && remaining < limit * LOW_QUOTA_FRACTION) {
+            currentRequestsPerSecond = Math.max(minRequestsPerSecond, currentRequestsPerSecond * LOW_QUOTA_RATE_MULTIPLIER);
+        } else {
+            currentRequestsPerSecond = Math.min(maxRequestsPerSecond, 
+                    currentRequestsPerSecond + maxRequestsPerSecond * RECOVERY_FRACTION);
+        }
+    }
+
+    /**
+     * @return current, adapted, rate of requests per second
+     */
+    public synchronized double getCurrentRequestsPerSecond() {
+        return currentRequestsPerSecond;
+    }
+
+    public double getMaxRequestsPerSecond() {
+        return maxRequestsPerSecond;
+    }
+
+    /**
+     * @return interceptor applying this limiter, for adding to RestTemplate used by the client
+     */
+    public ClientHttpRequestInterceptor asInterceptor() {
+        return new RateLimitingInterceptor(this);
+    }
+
+    /**
+     * Parses Retry-After header, which can be either number of seconds or HTTP date.
+     * 
+     * @return time to wait, or null if header is missing or invalid
+     */
+    static Duration parseRetryAfter(HttpHeaders headers) {
+        String retryAfter = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (StringUtils.isBlank(retryAfter)) {
+            return null;
+        }
+        retryAfter = retryAfter.trim();
+        if (StringUtils.isNumeric(retryAfter)) {
+            return Duration.ofSeconds(Long.parseLong(retryAfter));
+        }
+        try {
+            Duration untilDate = Duration.between(ZonedDateTime.now(), 
+                    ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return untilDate.isNegative() ? Duration.ZERO : untilDate;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+}
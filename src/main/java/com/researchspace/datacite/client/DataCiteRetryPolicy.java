@@ -0,0 +1,179 @@
+package com.researchspace.datacite.client;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.commons.lang.Validate;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Decides whether, and after what delay, a failed call to DataCite should be retried.
+ * 
+ * Retries are made with exponential backoff and random jitter, as long as both maximum number of 
+ * attempts and maximum elapsed time aren't exceeded. Retried are connection problems and 
+ * 429/500/502/503/504 responses.
+ * 
+ * Failures of non-idempotent operations (i.e. POST creating a DOI) are retried only if it's certain 
+ * that DataCite didn't process the request: connection refused, 429 or 503 responses.
+ */
+public class DataCiteRetryPolicy {
+
+    /** Policy with no retries */
+    public static final DataCiteRetryPolicy NONE = builder().maxAttempts(1).build();
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final double multiplier;
+    private final Duration maxBackoff;
+    private final double jitter;
+    private final Duration maxElapsed;
+
+    private DataCiteRetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.multiplier = builder.multiplier;
+        this.maxBackoff = builder.maxBackoff;
+        this.jitter = builder.jitter;
+        this.maxElapsed = builder.maxElapsed;
+    }
+
+    /**
+     * @param attempt number of attempt that just failed, starting from 1
+     * @param failure exception thrown by the failed attempt
+     * @param elapsed time since first attempt started
+     * @param idempotent whether the failed operation is safe to repeat
+     * @return delay before next attempt, or null if the call shouldn't be retried
+     */
+    public Duration nextDelay(int attempt, Exception failure, Duration elapsed, boolean idempotent) {
+        if (attempt >= maxAttempts || !isRetryable(failure, idempotent)) {
+            return null;
+        }
+        double backoffMillis = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() * Math.pow(multiplier, attempt - 1));
+        double jitterFactor = 1 - jitter + ThreadLocalRandom.current().nextDouble() * 2 * jitter;
+        Duration delay = Duration.ofMillis((long) (backoffMillis * jitterFactor));
+
+        Duration retryAfter = getRetryAfter(failure);
+        if (retryAfter != null && retryAfter.compareTo(delay) > 0) {
+            delay = retryAfter;
+        }
+        if (elapsed.plus(delay).compareTo(maxElapsed) > 0) {
+            return null;
+        }
+        return delay;
+    }
+
+    /**
+     * @return true if the failure is transient and the call can be repeated
+     */
+    public boolean isRetryable(Exception failure, boolean idempotent) {
+        return isTransient(failure, idempotent);
+    }
+
+    /** Retry classification shared with components that schedule their own retries */
+    static boolean isTransient(Exception failure, boolean idempotent) {
+        HttpStatusCodeException statusException = findCause(failure, HttpStatusCodeException.class);
+        if (statusException != null) {
+            int status = statusException.getRawStatusCode();
+            if (status == 429 || status == 503) {
+                return true;
+            }
+            return idempotent && (status == 500 || status == 502 || status == 504);
+        }
+        if (findCause(failure, ConnectException.class) != null) {
+            return true;
+        }
+        return idempotent && findCause(failure, ResourceAccessException.class) != null;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    private Duration getRetryAfter(Exception failure) {
+        HttpStatusCodeException statusException = findCause(failure, HttpStatusCodeException.class);
+        return statusException != null ? DataCiteRateLimiter.parseRetryAfter(statusException.getResponseHeaders()) : null;
+    }
+
+    static <T extends Throwable> T findCause(Throwable throwable, Class<T> type) {
+        for (Throwable t = throwable; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (type.isInstance(t)) {
+                return type.cast(t);
+            }
+        }
+        return null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private double multiplier = 2;
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        private double jitter = 0.2;
+        private Duration maxElapsed = Duration.ofSeconds(60);
+
+        /**
+         * @param maxAttempts total number of attempts, including the first one
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            Validate.isTrue(maxAttempts > 0, "maxAttempts must be positive");
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff delay before first retry
+         */
+        public Builder initialBackoff(Duration initialBackoff) {
+            Validate.notNull(initialBackoff);
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * @param multiplier factor by which the delay grows after each retry
+         */
+        public Builder multiplier(double multiplier) {
+            Validate.isTrue(multiplier >= 1, "multiplier can't be lower than 1");
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * @param maxBackoff upper limit of delay between attempts
+         */
+        public Builder maxBackoff(Duration maxBackoff) {
+            Validate.notNull(maxBackoff);
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * @param jitter fraction by which each delay is randomly lengthened or shortened, between 0 and 1
+         */
+        public Builder jitter(double jitter) {
+            Validate.isTrue(jitter >= 0 && jitter <= 1, "jitter must be between 0 and 1");
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param maxElapsed no retry is scheduled if it would start later than that since the first attempt
+         */
+        public Builder maxElapsed(Duration maxElapsed) {
+            Validate.notNull(maxElapsed);
+            this.maxElapsed = maxElapsed;
+            return this;
+        }
+
+        public DataCiteRetryPolicy build() {
+            return new DataCiteRetryPolicy(this);
+        }
+    }
+
+}
@@ -0,0 +1,583 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Affiliation;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.AlternateIdentifier;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Creator;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Description;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.DoiDate;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocation;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocationBox;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocationPoint;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocationPolygonPoint;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Subject;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Title;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Types;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Converts {@link DataCiteDoiAttributes} to and from DataCite Metadata Schema 4.x XML, and to and from its
+ * base64 form used in 'xml' attribute of DataCite API.
+ *
+ * XML is written and read with StAX, element by element, so records with long lists of creators, subjects
+ * or geoLocations aren't built up as DOM. Only properties modelled by {@link DataCiteDoiAttributes} are
+ * converted, other XML elements are skipped on reading. Elements are matched by local name, so any kernel-4
+ * namespace version is accepted.
+ *
+ * The codec is thread-safe, and is meant to be shared: StAX factories are created once, and the buffer used
+ * for base64 conversion is reused by subsequent calls on the same thread.
+ */
+public class DataCiteXmlCodec {
+
+    public static final String NAMESPACE = "http://datacite.org/schema/kernel-4";
+    public static final String SCHEMA_LOCATION = NAMESPACE + " http://schema.datacite.org/meta/kernel-4/metadata.xsd";
+
+    private static final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+
+    /* buffers grown above this size by an unusually large record are not kept for reuse */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    /** Byte buffer that can be base64-encoded in place, without copying its content */
+    private static class ReusableBuffer extends ByteArrayOutputStream {
+
+        ReusableBuffer() {
+            super(8 * 1024);
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        boolean isOversized() {
+            return buf.length > MAX_RETAINED_BUFFER_SIZE;
+        }
+    }
+
+    private final XMLOutputFactory outputFactory;
+    private final XMLInputFactory inputFactory;
+    private final ThreadLocal<ReusableBuffer> buffers = ThreadLocal.withInitial(ReusableBuffer::new);
+
+    public DataCiteXmlCodec() {
+        outputFactory = XMLOutputFactory.newFactory();
+        inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * @return metadata XML document of the DOI
+     */
+    public String toXml(DataCiteDoiAttributes attributes) {
+        ReusableBuffer buffer = acquireBuffer();
+        try {
+            write(attributes, buffer);
+            return buffer.toString(StandardCharsets.UTF_8);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * @return metadata XML document of the DOI, base64-encoded as expected in 'xml' attribute
+     */
+    public String toBase64(DataCiteDoiAttributes attributes) {
+        ReusableBuffer buffer = acquireBuffer();
+        try {
+            write(attributes, buffer);
+            ByteBuffer encoded = Base64.getEncoder().encode(buffer.asByteBuffer());
+            return new String(encoded.array(), 0, encoded.limit(), StandardCharsets.ISO_8859_1);
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Sets 'xml' attribute of each DOI to its base64-encoded metadata XML.
+     */
+    public void populateXml(Iterable<DataCiteDoiAttributes> attributesList) {
+        for (DataCiteDoiAttributes attributes : attributesList) {
+            attributes.setXml(toBase64(attributes));
+        }
+    }
+
+    /**
+     * Writes UTF-8 encoded metadata XML document of the DOI. The stream is not closed.
+     */
+    public void write(DataCiteDoiAttributes attributes, OutputStream out) {
+        try {
+            XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            try {
+                writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+                writeResource(writer, attributes);
+                writer.writeEndDocument();
+                writer.flush();
+            } finally {
+                writer.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException("Unable to write DataCite XML", e));
+        }
+    }
+
+    /**
+     * @param xml metadata XML document
+     * @return DOI attributes read from the document
+     */
+    public DataCiteDoiAttributes fromXml(String xml) {
+        return read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @param base64Xml metadata XML document in base64, as returned in 'xml' attribute
+     * @return DOI attributes read from the document
+     */
+    public DataCiteDoiAttributes fromBase64(String base64Xml) {
+        return read(new ByteArrayInputStream(Base64.getMimeDecoder().decode(base64Xml)));
+    }
+
+    /**
+     * Reads metadata XML document. The stream is not closed.
+     *
+     * @return DOI attributes read from the document
+     */
+    public DataCiteDoiAttributes read(InputStream in) {
+        try {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+            try {
+                if (reader.nextTag() != XMLStreamConstants.START_ELEMENT || !"resource".equals(reader.getLocalName())) {
+                    throw new IllegalArgumentException("Not a DataCite metadata document, expected 'resource' root element");
+                }
+                return readResource(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Unable to read DataCite XML: " + e.getMessage(), e);
+        }
+    }
+
+    private ReusableBuffer acquireBuffer() {
+        ReusableBuffer buffer = buffers.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    private void releaseBuffer(ReusableBuffer buffer) {
+        if (buffer.isOversized()) {
+            buffers.remove();
+        }
+    }
+
+    /* writing */
+
+    private static void writeResource(XMLStreamWriter writer, DataCiteDoiAttributes attributes) throws XMLStreamException {
+        writer.setDefaultNamespace(NAMESPACE);
+        writer.writeStartElement(NAMESPACE, "resource");
+        writer.writeDefaultNamespace(NAMESPACE);
+        writer.writeNamespace("xsi", XSI_NAMESPACE);
+        writer.writeAttribute(XSI_NAMESPACE, "schemaLocation", SCHEMA_LOCATION);
+
+        if (attributes.getDoi() != null) {
+            writer.writeStartElement(NAMESPACE, "identifier");
+            writer.writeAttribute("identifierType", "DOI");
+            writer.writeCharacters(attributes.getDoi());
+            writer.writeEndElement();
+        }
+        if (isNotEmpty(attributes.getCreators())) {
+            writer.writeStartElement(NAMESPACE, "creators");
+            for (Creator creator : attributes.getCreators()) {
+                writeCreator(writer, creator);
+            }
+            writer.writeEndElement();
+        }
+        if (isNotEmpty(attributes.getTitles())) {
+            writer.writeStartElement(NAMESPACE, "titles");
+            for (Title title : attributes.getTitles()) {
+                writeTextElement(writer, "title", title.getTitle());
+            }
+            writer.writeEndElement();
+        }
+        writeTextElement(writer, "publisher", attributes.getPublisher());
+        if (attributes.getPublicationYear() > 0) {
+            writeTextElement(writer, "publicationYear", String.valueOf(attributes.getPublicationYear()));
+        }
+        if (attributes.getTypes() != null) {
+            writer.writeStartElement(NAMESPACE, "resourceType");
+            writeAttribute(writer, "resourceTypeGeneral", attributes.getTypes().getResourceTypeGeneral());
+            writeCharacters(writer, attributes.getTypes().getResourceType());
+            writer.writeEndElement();
+        }
+        if (isNotEmpty(attributes.getSubjects())) {
+            writer.writeStartElement(NAMESPACE, "subjects");
+            for (Subject subject : attributes.getSubjects()) {
+                writer.writeStartElement(NAMESPACE, "subject");
+                writeAttribute(writer, "subjectScheme", subject.getSubjectScheme());
+                writeAttribute(writer, "schemeURI", subject.getSchemeUri());
+                writeAttribute(writer, "valueURI", subject.getValueUri());
+                writeAttribute(writer, "classificationCode", subject.getClassificationCode());
+                writeCharacters(writer, subject.getSubject());
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+        if (isNotEmpty(attributes.getDates())) {
+            writer.writeStartElement(NAMESPACE, "dates");
+            for (DoiDate date : attributes.getDates()) {
+                writer.writeStartElement(NAMESPACE, "date");
+                writeAttribute(writer, "dateType", date.getDateType());
+                writeCharacters(writer, date.getDate());
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+        if (isNotEmpty(attributes.getAlternateIdentifiers())) {
+            writer.writeStartElement(NAMESPACE, "alternateIdentifiers");
+            for (AlternateIdentifier identifier : attributes.getAlternateIdentifiers()) {
+                writer.writeStartElement(NAMESPACE, "alternateIdentifier");
+                writeAttribute(writer, "alternateIdentifierType", identifier.getAlternateIdentifierType());
+                writeCharacters(writer, identifier.getAlternateIdentifier());
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+        if (attributes.getVersion() != null) {
+            writeTextElement(writer, "version", attributes.getVersion().toString());
+        }
+        if (isNotEmpty(attributes.getDescriptions())) {
+            writer.writeStartElement(NAMESPACE, "descriptions");
+            for (Description description : attributes.getDescriptions()) {
+                writer.writeStartElement(NAMESPACE, "description");
+                writeAttribute(writer, "descriptionType", description.getDescriptionType());
+                writeCharacters(writer, description.getDescription());
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+        if (isNotEmpty(attributes.getGeoLocations())) {
+            writer.writeStartElement(NAMESPACE, "geoLocations");
+            for (GeoLocation geoLocation : attributes.getGeoLocations()) {
+                writeGeoLocation(writer, geoLocation);
+            }
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writeCreator(XMLStreamWriter writer, Creator creator) throws XMLStreamException {
+        writer.writeStartElement(NAMESPACE, "creator");
+        writer.writeStartElement(NAMESPACE, "creatorName");
+        writeAttribute(writer, "nameType", creator.getNameType());
+        writeCharacters(writer, creator.getName());
+        writer.writeEndElement();
+        if (creator.getAffiliation() != null) {
+            for (Affiliation affiliation : creator.getAffiliation()) {
+                writer.writeStartElement(NAMESPACE, "affiliation");
+                writeAttribute(writer, "affiliationIdentifier", affiliation.getAffiliationIdentifier());
+                writeAttribute(writer, "affiliationIdentifierScheme", affiliation.getAffiliationIdentifierScheme());
+                writeAttribute(writer, "schemeURI", affiliation.getSchemeUri());
+                writeCharacters(writer, affiliation.getName());
+                writer.writeEndElement();
+            }
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writeGeoLocation(XMLStreamWriter writer, GeoLocation geoLocation) throws XMLStreamException {
+        writer.writeStartElement(NAMESPACE, "geoLocation");
+        writeTextElement(writer, "geoLocationPlace", geoLocation.getGeoLocationPlace());
+        if (geoLocation.getGeoLocationPoint() != null) {
+            writePoint(writer, "geoLocationPoint", geoLocation.getGeoLocationPoint());
+        }
+        GeoLocationBox box = geoLocation.getGeoLocationBox();
+        if (box != null) {
+            writer.writeStartElement(NAMESPACE, "geoLocationBox");
+            writeTextElement(writer, "westBoundLongitude", box.getWestBoundLongitude());
+            writeTextElement(writer, "eastBoundLongitude", box.getEastBoundLongitude());
+            writeTextElement(writer, "southBoundLatitude", box.getSouthBoundLatitude());
+            writeTextElement(writer, "northBoundLatitude", box.getNorthBoundLatitude());
+            writer.writeEndElement();
+        }
+        if (isNotEmpty(geoLocation.getGeoLocationPolygon())) {
+            writer.writeStartElement(NAMESPACE, "geoLocationPolygon");
+            for (GeoLocationPolygonPoint polygonPoint : geoLocation.getGeoLocationPolygon()) {
+                if (polygonPoint.getPolygonPoint() != null) {
+                    writePoint(writer, "polygonPoint", polygonPoint.getPolygonPoint());
+                }
+            }
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+    }
+
+    private static void writePoint(XMLStreamWriter writer, String elementName, GeoLocationPoint point) throws XMLStreamException {
+        writer.writeStartElement(NAMESPACE, elementName);
+        writeTextElement(writer, "pointLongitude", point.getPointLongitude());
+        writeTextElement(writer, "pointLatitude", point.getPointLatitude());
+        writer.writeEndElement();
+    }
+
+    /* writes the element only if it has some text */
+    private static void writeTextElement(XMLStreamWriter writer, String elementName, String text) throws XMLStreamException {
+        if (StringUtils.isNotEmpty(text)) {
+            writer.writeStartElement(NAMESPACE, elementName);
+            writer.writeCharacters(text);
+            writer.writeEndElement();
+        }
+    }
+
+    private static void writeAttribute(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+        if (value != null) {
+            writer.writeAttribute(name, value);
+        }
+    }
+
+    private static void writeCharacters(XMLStreamWriter writer, String text) throws XMLStreamException {
+        if (text != null) {
+            writer.writeCharacters(text);
+        }
+    }
+
+    private static boolean isNotEmpty(List<?> list) {
+        return list != null && !list.isEmpty();
+    }
+
+    /* reading, each method starts at the start tag of its element, and leaves the reader at its end tag */
+
+    private interface ElementReader<T> {
+        T read(XMLStreamReader reader) throws XMLStreamException;
+    }
+
+    private static DataCiteDoiAttributes readResource(XMLStreamReader reader) throws XMLStreamException {
+        DataCiteDoiAttributes attributes = new DataCiteDoiAttributes();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "identifier":
+                    if ("DOI".equalsIgnoreCase(reader.getAttributeValue(null, "identifierType"))) {
+                        attributes.setDoi(readText(reader));
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                case "creators":
+                    attributes.setCreators(readList(reader, "creator", DataCiteXmlCodec::readCreator));
+                    break;
+                case "titles":
+                    attributes.setTitles(readList(reader, "title", r -> new Title(readText(r))));
+                    break;
+                case "publisher":
+                    attributes.setPublisher(readText(reader));
+                    break;
+                case "publicationYear":
+                    attributes.setPublicationYear(readYear(reader));
+                    break;
+                case "resourceType":
+                    String resourceTypeGeneral = reader.getAttributeValue(null, "resourceTypeGeneral");
+                    attributes.setTypes(new Types(StringUtils.defaultIfEmpty(readText(reader), null), resourceTypeGeneral));
+                    break;
+                case "subjects":
+                    attributes.setSubjects(readList(reader, "subject", DataCiteXmlCodec::readSubject));
+                    break;
+                case "dates":
+                    attributes.setDates(readList(reader, "date", r -> {
+                        String dateType = r.getAttributeValue(null, "dateType");
+                        return new DoiDate(readText(r), dateType);
+                    }));
+                    break;
+                case "alternateIdentifiers":
+                    attributes.setAlternateIdentifiers(readList(reader, "alternateIdentifier", r -> {
+                        String identifierType = r.getAttributeValue(null, "alternateIdentifierType");
+                        return new AlternateIdentifier(readText(r), identifierType);
+                    }));
+                    break;
+                case "version":
+                    attributes.setVersion(StringUtils.defaultIfEmpty(readText(reader), null));
+                    break;
+                case "descriptions":
+                    attributes.setDescriptions(readList(reader, "description", r -> {
+                        String descriptionType = r.getAttributeValue(null, "descriptionType");
+                        return new Description(readText(r), descriptionType);
+                    }));
+                    break;
+                case "geoLocations":
+                    attributes.setGeoLocations(readList(reader, "geoLocation", DataCiteXmlCodec::readGeoLocation));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return attributes;
+    }
+
+    private static Creator readCreator(XMLStreamReader reader) throws XMLStreamException {
+        Creator creator = new Creator();
+        List<Affiliation> affiliations = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "creatorName":
+                    creator.setNameType(reader.getAttributeValue(null, "nameType"));
+                    creator.setName(readText(reader));
+                    break;
+                case "affiliation":
+                    Affiliation affiliation = new Affiliation();
+                    affiliation.setAffiliationIdentifier(reader.getAttributeValue(null, "affiliationIdentifier"));
+                    affiliation.setAffiliationIdentifierScheme(reader.getAttributeValue(null, "affiliationIdentifierScheme"));
+                    affiliation.setSchemeUri(reader.getAttributeValue(null, "schemeURI"));
+                    affiliation.setName(readText(reader));
+                    affiliations.add(affiliation);
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        if (!affiliations.isEmpty()) {
+            creator.setAffiliation(affiliations.toArray(new Affiliation[0]));
+        }
+        return creator;
+    }
+
+    private static Subject readSubject(XMLStreamReader reader) throws XMLStreamException {
+        Subject subject = new Subject();
+        subject.setSubjectScheme(reader.getAttributeValue(null, "subjectScheme"));
+        subject.setSchemeUri(reader.getAttributeValue(null, "schemeURI"));
+        subject.setValueUri(reader.getAttributeValue(null, "valueURI"));
+        subject.setClassificationCode(reader.getAttributeValue(null, "classificationCode"));
+        subject.setSubject(readText(reader));
+        return subject;
+    }
+
+    private static GeoLocation readGeoLocation(XMLStreamReader reader) throws XMLStreamException {
+        GeoLocation geoLocation = new GeoLocation();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "geoLocationPlace":
+                    geoLocation.setGeoLocationPlace(readText(reader));
+                    break;
+                case "geoLocationPoint":
+                    geoLocation.setGeoLocationPoint(readPoint(reader));
+                    break;
+                case "geoLocationBox":
+                    geoLocation.setGeoLocationBox(readBox(reader));
+                    break;
+                case "geoLocationPolygon":
+                    geoLocation.setGeoLocationPolygon(readList(reader, "polygonPoint",
+                            r -> new GeoLocationPolygonPoint(readPoint(r))));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return geoLocation;
+    }
+
+    private static GeoLocationPoint readPoint(XMLStreamReader reader) throws XMLStreamException {
+        GeoLocationPoint point = new GeoLocationPoint();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "pointLatitude":
+                    point.setPointLatitude(readText(reader));
+                    break;
+                case "pointLongitude":
+                    point.setPointLongitude(readText(reader));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return point;
+    }
+
+    private static GeoLocationBox readBox(XMLStreamReader reader) throws XMLStreamException {
+        GeoLocationBox box = new GeoLocationBox();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "westBoundLongitude":
+                    box.setWestBoundLongitude(readText(reader));
+                    break;
+                case "eastBoundLongitude":
+                    box.setEastBoundLongitude(readText(reader));
+                    break;
+                case "southBoundLatitude":
+                    box.setSouthBoundLatitude(readText(reader));
+                    break;
+                case "northBoundLatitude":
+                    box.setNorthBoundLatitude(readText(reader));
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return box;
+    }
+
+    /** Reads child elements of given name, skipping any others */
+    private static <T> List<T> readList(XMLStreamReader reader, String childName, ElementReader<T> childReader)
+            throws XMLStreamException {
+        List<T> items = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (childName.equals(reader.getLocalName())) {
+                items.add(childReader.read(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return items;
+    }
+
+    private static int readYear(XMLStreamReader reader) throws XMLStreamException {
+        String year = readText(reader).trim();
+        try {
+            return year.isEmpty() ? 0 : Integer.parseInt(year);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid publicationYear in DataCite XML: " + year, e);
+        }
+    }
+
+    /** Text content of the element, including text of nested elements (e.g. <br/> in descriptions) */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+            }
+        }
+        return text.toString();
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+}
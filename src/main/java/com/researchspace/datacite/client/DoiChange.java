@@ -0,0 +1,21 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.time.Instant;
+import lombok.Value;
+
+/**
+ * DOI changed since the previous {@link DataCiteChangeFeed} sync.
+ */
+@Value
+public class DoiChange {
+
+    String doiId;
+
+    /** 'updated' timestamp of the DOI */
+    Instant updated;
+
+    /** current content of the DOI, including its state and usage counts */
+    DataCiteDoi doi;
+
+}
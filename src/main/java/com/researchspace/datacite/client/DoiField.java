@@ -0,0 +1,77 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoiSummary;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Attributes of DataCite DOI, as named in DataCite JSON API.
+ */
+public enum DoiField {
+
+    DOI("doi"),
+    PREFIX("prefix"),
+    SUFFIX("suffix"),
+    IDENTIFIERS("identifiers"),
+    ALTERNATE_IDENTIFIERS("alternateIdentifiers"),
+    CREATORS("creators"),
+    TITLES("titles"),
+    PUBLISHER("publisher"),
+    PUBLICATION_YEAR("publicationYear"),
+    SUBJECTS("subjects"),
+    DESCRIPTIONS("descriptions"),
+    GEO_LOCATIONS("geoLocations"),
+    DATES("dates"),
+    CONTRIBUTORS("contributors"),
+    TYPES("types"),
+    VERSION("version"),
+    XML("xml"),
+    URL("url"),
+    CONTENT_URL("contentUrl"),
+    METADATA_VERSION("metadataVersion"),
+    SCHEMA_VERSION("schemaVersion"),
+    SOURCE("source"),
+    IS_ACTIVE("isActive"),
+    STATE("state"),
+    REASON("reason"),
+    LANDING_PAGE("landingPage"),
+    VIEW_COUNT("viewCount"),
+    DOWNLOAD_COUNT("downloadCount"),
+    REFERENCE_COUNT("referenceCount"),
+    CITATION_COUNT("citationCount"),
+    PART_COUNT("partCount"),
+    PART_OF_COUNT("partOfCount"),
+    VERSION_COUNT("versionCount"),
+    VERSION_OF_COUNT("versionOfCount"),
+    CREATED("created"),
+    REGISTERED("registered"),
+    PUBLISHED("published"),
+    UPDATED("updated");
+
+    private static final Set<DoiField> SUMMARY_FIELDS = Collections.unmodifiableSet(EnumSet.of(
+            DOI, PREFIX, SUFFIX, STATE, URL, PUBLISHER, PUBLICATION_YEAR, METADATA_VERSION, SOURCE, 
+            VIEW_COUNT, DOWNLOAD_COUNT, REFERENCE_COUNT, CITATION_COUNT, PART_COUNT, PART_OF_COUNT, 
+            VERSION_COUNT, VERSION_OF_COUNT, CREATED, REGISTERED, PUBLISHED, UPDATED));
+
+    private final String jsonName;
+
+    DoiField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    /**
+     * @return name of the attribute in DataCite JSON
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @return fields that can be retrieved as {@link DataCiteDoiSummary}
+     */
+    public static Set<DoiField> summaryFields() {
+        return SUMMARY_FIELDS;
+    }
+
+}
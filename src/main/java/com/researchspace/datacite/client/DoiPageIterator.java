@@ -0,0 +1,98 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.client.DataCiteJson.DoiPage;
+import com.researchspace.datacite.model.DataCiteConnectionException;
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Iterates over DOIs from consecutive pages of DOI list. Next page is fetched in background while 
+ * the current one is consumed, at most one page is held in memory besides the current one.
+ */
+class DoiPageIterator implements Iterator<DataCiteDoi>, AutoCloseable {
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    /* threads only live while there are pages to prefetch */
+    static final ExecutorService DEFAULT_PREFETCH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "datacite-page-prefetch-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<String, DoiPage> pageFetcher;
+    private final Executor executor;
+
+    private Iterator<DataCiteDoi> currentPage = Collections.emptyIterator();
+    private CompletableFuture<DoiPage> nextPage;
+    private volatile boolean closed;
+
+    /**
+     * @param firstPageLink link to first page
+     * @param pageFetcher retrieves page for a link
+     */
+    DoiPageIterator(String firstPageLink, Function<String, DoiPage> pageFetcher, Executor executor) {
+        this.pageFetcher = pageFetcher;
+        this.executor = executor;
+        this.nextPage = fetch(firstPageLink);
+    }
+
+    private CompletableFuture<DoiPage> fetch(String pageLink) {
+        return CompletableFuture.supplyAsync(() -> pageFetcher.apply(pageLink), executor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            if (nextPage == null || closed) {
+                return false;
+            }
+            DoiPage page = awaitNextPage();
+            nextPage = page.nextLink != null && !page.dois.isEmpty() ? fetch(page.nextLink) : null;
+            currentPage = page.dois.iterator();
+        }
+        return true;
+    }
+
+    private DoiPage awaitNextPage() {
+        try {
+            return nextPage.join();
+        } catch (CompletionException e) {
+            nextPage = null;
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataCiteConnectionException("Unknown problem with retrieving DOI list page.", e.getCause());
+        }
+    }
+
+    @Override
+    public DataCiteDoi next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    /**
+     * Stops prefetching, iterator has no more elements afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        CompletableFuture<DoiPage> pending = nextPage;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.util.List;
+
+/**
+ * Single check of DOI metadata run by {@link DataCitePublishValidator}. Rules must be thread-safe,
+ * as DOIs are validated in parallel.
+ */
+@FunctionalInterface
+public interface DoiValidationRule {
+
+    /**
+     * @param doi DOI to check
+     * @param violations list to add found problems to
+     */
+    void validate(DataCiteDoi doi, List<DoiViolation> violations);
+
+}
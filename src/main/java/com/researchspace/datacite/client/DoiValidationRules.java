@@ -0,0 +1,355 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Affiliation;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Creator;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Description;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.DoiDate;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocation;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocationBox;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocationPoint;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocationPolygonPoint;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.Title;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Default {@link DoiValidationRule}s of {@link DataCitePublishValidator}, following DataCite Metadata Schema 4.x.
+ */
+final class DoiValidationRules {
+
+    static final Set<String> RESOURCE_TYPES_GENERAL = Set.of("Audiovisual", "Book", "BookChapter", "Collection",
+            "ComputationalNotebook", "ConferencePaper", "ConferenceProceeding", "DataPaper", "Dataset", "Dissertation",
+            "Event", "Image", "Instrument", "InteractiveResource", "Journal", "JournalArticle", "Model",
+            "OutputManagementPlan", "PeerReview", "PhysicalObject", "Preprint", "Report", "Service", "Software",
+            "Sound", "Standard", "StudyRegistration", "Text", "Workflow", "Other");
+
+    static final Set<String> NAME_TYPES = Set.of("Organizational", "Personal");
+
+    static final Set<String> DATE_TYPES = Set.of("Accepted", "Available", "Copyrighted", "Collected", "Coverage",
+            "Created", "Issued", "Submitted", "Updated", "Valid", "Withdrawn", "Other");
+
+    static final Set<String> DESCRIPTION_TYPES = Set.of("Abstract", "Methods", "SeriesInformation", "TableOfContents",
+            "TechnicalInfo", "Other");
+
+    private static final Pattern DOI_PATTERN = Pattern.compile("10\\.\\d{4,9}/\\S+");
+
+    private static final BigDecimal MAX_LATITUDE = BigDecimal.valueOf(90);
+    private static final BigDecimal MAX_LONGITUDE = BigDecimal.valueOf(180);
+
+    private DoiValidationRules() {
+    }
+
+    /** Properties DataCite requires before DOI can leave draft state */
+    static void requiredProperties(DataCiteDoi doi, List<DoiViolation> violations) {
+        DataCiteDoiAttributes attributes = doi.getAttributes();
+        if (isEmpty(attributes.getTitles())) {
+            violations.add(required("titles", "At least one title is required"));
+        } else {
+            List<Title> titles = attributes.getTitles();
+            for (int i = 0; i < titles.size(); i++) {
+                if (titles.get(i) == null || StringUtils.isBlank(titles.get(i).getTitle())) {
+                    violations.add(required("titles[" + i + "].title", "Title can't be empty"));
+                }
+            }
+        }
+        if (isEmpty(attributes.getCreators())) {
+            violations.add(required("creators", "At least one creator is required"));
+        }
+        if (StringUtils.isBlank(attributes.getPublisher())) {
+            violations.add(required("publisher", "Publisher is required"));
+        }
+        if (attributes.getPublicationYear() == 0) {
+            violations.add(required("publicationYear", "Publication year is required"));
+        } else if (attributes.getPublicationYear() < 1000 || attributes.getPublicationYear() > 9999) {
+            violations.add(new DoiViolation("publicationYear", "publicationYear", "Publication year must have four digits"));
+        }
+        if (attributes.getTypes() == null) {
+            violations.add(required("types", "Resource type is required"));
+        }
+        if (attributes.getUrl() == null) {
+            violations.add(required("url", "URL of the landing page is required"));
+        }
+    }
+
+    /** Syntax of DOI name and landing page URL */
+    static void identifiers(DataCiteDoi doi, List<DoiViolation> violations) {
+        String doiName = doi.getAttributes().getDoi();
+        if (doiName != null) {
+            if (!DOI_PATTERN.matcher(doiName).matches()) {
+                violations.add(new DoiViolation("doi", "doi", "DOI must have '10.<prefix>/<suffix>' form"));
+            } else if (doi.getId() != null && !doi.getId().equalsIgnoreCase(doiName)) {
+                violations.add(new DoiViolation("doi", "doi", "DOI doesn't match id " + doi.getId()));
+            }
+        }
+        String url = doi.getAttributes().getUrl();
+        if (url != null) {
+            String problem = urlProblem(url);
+            if (problem != null) {
+                violations.add(new DoiViolation("url", "url", problem));
+            }
+        }
+    }
+
+    private static String urlProblem(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            return "URL is malformed: " + e.getReason();
+        }
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            return "URL must be absolute http or https URL";
+        }
+        if (StringUtils.isEmpty(uri.getHost())) {
+            return "URL must have a host";
+        }
+        return null;
+    }
+
+    static void resourceType(DataCiteDoi doi, List<DoiViolation> violations) {
+        DataCiteDoiAttributes.Types types = doi.getAttributes().getTypes();
+        if (types == null) {
+            return;
+        }
+        if (StringUtils.isBlank(types.getResourceTypeGeneral())) {
+            violations.add(required("types.resourceTypeGeneral", "resourceTypeGeneral is required"));
+        } else if (!RESOURCE_TYPES_GENERAL.contains(types.getResourceTypeGeneral())) {
+            violations.add(new DoiViolation("controlledValue", "types.resourceTypeGeneral",
+                    "Unknown resourceTypeGeneral '" + types.getResourceTypeGeneral() + "'"));
+        }
+    }
+
+    static void creators(DataCiteDoi doi, List<DoiViolation> violations) {
+        List<Creator> creators = doi.getAttributes().getCreators();
+        if (creators == null) {
+            return;
+        }
+        for (int i = 0; i < creators.size(); i++) {
+            Creator creator = creators.get(i);
+            String path = "creators[" + i + "]";
+            if (creator == null || StringUtils.isBlank(creator.getName())) {
+                violations.add(required(path + ".name", "Creator name is required"));
+                continue;
+            }
+            if (creator.getNameType() != null && !NAME_TYPES.contains(creator.getNameType())) {
+                violations.add(new DoiViolation("controlledValue", path + ".nameType",
+                        "Unknown nameType '" + creator.getNameType() + "'"));
+            }
+            Affiliation[] affiliations = creator.getAffiliation();
+            for (int j = 0; affiliations != null && j < affiliations.length; j++) {
+                Affiliation affiliation = affiliations[j];
+                if (affiliation != null && affiliation.getAffiliationIdentifier() != null
+                        && StringUtils.isBlank(affiliation.getAffiliationIdentifierScheme())) {
+                    violations.add(required(path + ".affiliation[" + j + "].affiliationIdentifierScheme",
+                            "Affiliation identifier requires identifier scheme"));
+                }
+            }
+        }
+    }
+
+    static void dates(DataCiteDoi doi, List<DoiViolation> violations) {
+        List<DoiDate> dates = doi.getAttributes().getDates();
+        if (dates == null) {
+            return;
+        }
+        for (int i = 0; i < dates.size(); i++) {
+            DoiDate date = dates.get(i);
+            String path = "dates[" + i + "]";
+            if (date == null || StringUtils.isBlank(date.getDate())) {
+                violations.add(required(path + ".date", "Date is required"));
+                continue;
+            }
+            if (!isValidDateOrRange(date.getDate())) {
+                violations.add(new DoiViolation("date", path + ".date",
+                        "Date '" + date.getDate() + "' must be YYYY, YYYY-MM, YYYY-MM-DD, date-time, or a range of these"));
+            }
+            if (StringUtils.isBlank(date.getDateType())) {
+                violations.add(required(path + ".dateType", "dateType is required"));
+            } else if (!DATE_TYPES.contains(date.getDateType())) {
+                violations.add(new DoiViolation("controlledValue", path + ".dateType",
+                        "Unknown dateType '" + date.getDateType() + "'"));
+            }
+        }
+    }
+
+    /* range is two dates separated with '/', one of them can be left open */
+    private static boolean isValidDateOrRange(String value) {
+        int separator = value.indexOf('/');
+        if (separator < 0) {
+            return isValidDate(value);
+        }
+        String start = value.substring(0, separator);
+        String end = value.substring(separator + 1);
+        return (!start.isEmpty() || !end.isEmpty())
+                && (start.isEmpty() || isValidDate(start)) && (end.isEmpty() || isValidDate(end));
+    }
+
+    private static boolean isValidDate(String value) {
+        try {
+            switch (value.length()) {
+                case 4:
+                    Year.parse(value);
+                    return true;
+                case 7:
+                    YearMonth.parse(value);
+                    return true;
+                case 10:
+                    LocalDate.parse(value);
+                    return true;
+                default:
+                    if (value.endsWith("Z") || value.lastIndexOf('+') > 0 || value.lastIndexOf('-') > 9) {
+                        OffsetDateTime.parse(value);
+                    } else {
+                        LocalDateTime.parse(value);
+                    }
+                    return true;
+            }
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    static void descriptions(DataCiteDoi doi, List<DoiViolation> violations) {
+        List<Description> descriptions = doi.getAttributes().getDescriptions();
+        if (descriptions == null) {
+            return;
+        }
+        for (int i = 0; i < descriptions.size(); i++) {
+            Description description = descriptions.get(i);
+            String path = "descriptions[" + i + "]";
+            if (description == null || StringUtils.isBlank(description.getDescription())) {
+                violations.add(required(path + ".description", "Description can't be empty"));
+                continue;
+            }
+            if (StringUtils.isBlank(description.getDescriptionType())) {
+                violations.add(required(path + ".descriptionType", "descriptionType is required"));
+            } else if (!DESCRIPTION_TYPES.contains(description.getDescriptionType())) {
+                violations.add(new DoiViolation("controlledValue", path + ".descriptionType",
+                        "Unknown descriptionType '" + description.getDescriptionType() + "'"));
+            }
+        }
+    }
+
+    static void geoLocations(DataCiteDoi doi, List<DoiViolation> violations) {
+        List<GeoLocation> geoLocations = doi.getAttributes().getGeoLocations();
+        if (geoLocations == null) {
+            return;
+        }
+        for (int i = 0; i < geoLocations.size(); i++) {
+            GeoLocation geoLocation = geoLocations.get(i);
+            String path = "geoLocations[" + i + "]";
+            if (geoLocation == null) {
+                continue;
+            }
+            if (geoLocation.getGeoLocationPoint() != null) {
+                checkPoint(geoLocation.getGeoLocationPoint(), path + ".geoLocationPoint", violations);
+            }
+            if (geoLocation.getGeoLocationBox() != null) {
+                checkBox(geoLocation.getGeoLocationBox(), path + ".geoLocationBox", violations);
+            }
+            List<GeoLocationPolygonPoint> polygon = geoLocation.getGeoLocationPolygon();
+            if (polygon != null && !polygon.isEmpty()) {
+                checkPolygon(polygon, path + ".geoLocationPolygon", violations);
+            }
+        }
+    }
+
+    private static void checkPoint(GeoLocationPoint point, String path, List<DoiViolation> violations) {
+        checkCoordinate(point.getPointLatitude(), MAX_LATITUDE, path + ".pointLatitude", violations);
+        checkCoordinate(point.getPointLongitude(), MAX_LONGITUDE, path + ".pointLongitude", violations);
+    }
+
+    private static void checkBox(GeoLocationBox box, String path, List<DoiViolation> violations) {
+        checkCoordinate(box.getWestBoundLongitude(), MAX_LONGITUDE, path + ".westBoundLongitude", violations);
+        checkCoordinate(box.getEastBoundLongitude(), MAX_LONGITUDE, path + ".eastBoundLongitude", violations);
+        BigDecimal south = checkCoordinate(box.getSouthBoundLatitude(), MAX_LATITUDE, path + ".southBoundLatitude", violations);
+        BigDecimal north = checkCoordinate(box.getNorthBoundLatitude(), MAX_LATITUDE, path + ".northBoundLatitude", violations);
+        if (south != null && north != null && south.compareTo(north) > 0) {
+            violations.add(new DoiViolation("geoLocation", path, "southBoundLatitude can't be greater than northBoundLatitude"));
+        }
+    }
+
+    private static void checkPolygon(List<GeoLocationPolygonPoint> polygon, String path, List<DoiViolation> violations) {
+        if (polygon.size() < 4) {
+            violations.add(new DoiViolation("geoLocation", path, "Polygon must have at least four points"));
+        }
+        for (int i = 0; i < polygon.size(); i++) {
+            GeoLocationPoint point = polygon.get(i) == null ? null : polygon.get(i).getPolygonPoint();
+            if (point == null) {
+                violations.add(required(path + "[" + i + "].polygonPoint", "Polygon point is required"));
+            } else {
+                checkPoint(point, path + "[" + i + "].polygonPoint", violations);
+            }
+        }
+        GeoLocationPolygonPoint first = polygon.get(0);
+        GeoLocationPolygonPoint last = polygon.get(polygon.size() - 1);
+        if (polygon.size() >= 4 && first != null && last != null && !sameCoordinates(first.getPolygonPoint(), last.getPolygonPoint())) {
+            violations.add(new DoiViolation("geoLocation", path, "Polygon must be closed, with the last point equal to the first"));
+        }
+    }
+
+    private static boolean sameCoordinates(GeoLocationPoint a, GeoLocationPoint b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return sameNumber(a.getPointLatitude(), b.getPointLatitude()) && sameNumber(a.getPointLongitude(), b.getPointLongitude());
+    }
+
+    private static boolean sameNumber(String a, String b) {
+        BigDecimal first = parseDecimal(a);
+        BigDecimal second = parseDecimal(b);
+        return first != null && second != null ? first.compareTo(second) == 0 : StringUtils.equals(a, b);
+    }
+
+    /** @return parsed coordinate, or null if it's missing or invalid (which is reported) */
+    private static BigDecimal checkCoordinate(String value, BigDecimal maxAbsolute, String path, List<DoiViolation> violations) {
+        if (StringUtils.isBlank(value)) {
+            violations.add(required(path, "Coordinate is required"));
+            return null;
+        }
+        BigDecimal coordinate = parseDecimal(value);
+        if (coordinate == null) {
+            violations.add(new DoiViolation("geoLocation", path, "Coordinate '" + value + "' is not a decimal number"));
+            return null;
+        }
+        if (coordinate.abs().compareTo(maxAbsolute) > 0) {
+            violations.add(new DoiViolation("geoLocation", path, "Coordinate " + value + " must be between -"
+                    + maxAbsolute + " and " + maxAbsolute));
+            return null;
+        }
+        return coordinate;
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static DoiViolation required(String field, String message) {
+        return new DoiViolation("required", field, message);
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.researchspace.datacite.client;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.ImmutableDataCiteDoi;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers validators (ETag, Last-Modified) of recently retrieved DOIs together with snapshot of the DOI itself,
+ * so they can be revalidated with conditional request. Bounded, least recently used entries are dropped first.
+ */
+class DoiValidatorStore {
+
+    static class ValidatedDoi {
+        final String eTag;
+        /* epoch millis, -1 if unknown */
+        final long lastModified;
+        final ImmutableDataCiteDoi doi;
+
+        ValidatedDoi(String eTag, long lastModified, ImmutableDataCiteDoi doi) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.doi = doi;
+        }
+    }
+
+    private final Map<String, ValidatedDoi> validatedDois;
+
+    DoiValidatorStore(int maxSize) {
+        this.validatedDois = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ValidatedDoi> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized ValidatedDoi get(String doiId) {
+        return validatedDois.get(doiId);
+    }
+
+    /**
+     * Stores snapshot of the DOI if the response had any validator, so the caller can go on modifying the DOI; 
+     * if DataCite didn't send Last-Modified header, DOI's 'updated' timestamp is used instead.
+     */
+    void put(String doiId, String eTag, long lastModified, DataCiteDoi doi) {
+        if (doiId == null || doi == null) {
+            return;
+        }
+        if (lastModified < 0 && doi.getAttributes() != null && doi.getAttributes().getUpdated() != null) {
+            lastModified = doi.getAttributes().getUpdated().getTime();
+        }
+        if (eTag == null && lastModified < 0) {
+            return;
+        }
+        ValidatedDoi validatedDoi = new ValidatedDoi(eTag, lastModified, ImmutableDataCiteDoi.of(doi));
+        synchronized (this) {
+            validatedDois.put(doiId, validatedDoi);
+        }
+    }
+
+    synchronized void remove(String doiId) {
+        validatedDois.remove(doiId);
+    }
+
+}
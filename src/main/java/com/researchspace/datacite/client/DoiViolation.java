@@ -0,0 +1,19 @@
+package com.researchspace.datacite.client;
+
+import lombok.Value;
+
+/**
+ * Problem with DOI metadata found by {@link DataCitePublishValidator}.
+ */
+@Value
+public class DoiViolation {
+
+    /** name of the violated rule, e.g. 'required' or 'geoLocation' */
+    String rule;
+
+    /** path of the offending attribute, e.g. 'geoLocations[0].geoLocationPoint.pointLatitude' */
+    String field;
+
+    String message;
+
+}
@@ -0,0 +1,42 @@
+package com.researchspace.datacite.client;
+
+import java.time.Duration;
+import lombok.Value;
+
+/**
+ * Outcome of a single connection check run by {@link DataCiteHealthMonitor}.
+ */
+@Value
+public class HealthCheckResult {
+
+    public enum Check {
+        /** public DataCite API is reachable, validates the URL */
+        HEARTBEAT,
+        /** repository prefix is assigned to the client, validates the prefix */
+        REPOSITORY_PREFIX,
+        /** authenticated Members API accepts the credentials */
+        CREDENTIALS
+    }
+
+    Check check;
+
+    boolean healthy;
+
+    /** time taken by the check, or the time waited for it if it timed out */
+    Duration latency;
+
+    /** reason of the failure, null if check succeeded */
+    String message;
+
+    /** exception thrown by failed check, null if check succeeded or didn't throw */
+    Exception cause;
+
+    static HealthCheckResult healthy(Check check, Duration latency) {
+        return new HealthCheckResult(check, true, latency, null, null);
+    }
+
+    static HealthCheckResult unhealthy(Check check, Duration latency, String message, Exception cause) {
+        return new HealthCheckResult(check, false, latency, message, cause);
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.researchspace.datacite.client;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.Value;
+
+/**
+ * Verdict of {@link DataCiteHealthMonitor}, with results of individual connection checks.
+ */
+@Value
+public class HealthReport {
+
+    public enum Status {
+        /** all checks succeeded */
+        UP,
+        /** at least one check failed */
+        DOWN,
+        /** no checks completed yet */
+        UNKNOWN
+    }
+
+    Status status;
+
+    /** when the checks were started, null if status is UNKNOWN */
+    Instant checkedAt;
+
+    List<HealthCheckResult> checks;
+
+    /** states of client's circuit breakers at the time of the checks, empty if none configured */
+    Map<DataCiteOperation, DataCiteCircuitBreaker.State> circuitBreakerStates;
+
+    public boolean isHealthy() {
+        return status == Status.UP;
+    }
+
+    static HealthReport unknown() {
+        return new HealthReport(Status.UNKNOWN, null, Collections.emptyList(), Collections.emptyMap());
+    }
+
+}
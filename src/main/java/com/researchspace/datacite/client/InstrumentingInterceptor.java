@@ -0,0 +1,54 @@
+package com.researchspace.datacite.client;
+
+import java.io.IOException;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Reports status of each response to the observation of the operation running on the current thread.
+ */
+class InstrumentingInterceptor implements ClientHttpRequestInterceptor {
+
+    static final InstrumentingInterceptor INSTANCE = new InstrumentingInterceptor();
+
+    private static final ThreadLocal<DataCiteInstrumentation.Observation> CURRENT = new ThreadLocal<>();
+
+    private InstrumentingInterceptor() {
+    }
+
+    /**
+     * Makes the observation current for the calling thread.
+     * 
+     * @return previously current observation, to be restored with {@link #restore(DataCiteInstrumentation.Observation)}
+     */
+    static DataCiteInstrumentation.Observation attach(DataCiteInstrumentation.Observation observation) {
+        DataCiteInstrumentation.Observation previous = CURRENT.get();
+        CURRENT.set(observation);
+        return previous;
+    }
+
+    static void restore(DataCiteInstrumentation.Observation previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        DataCiteInstrumentation.Observation observation = CURRENT.get();
+        if (observation != null) {
+            int status = response.getRawStatusCode();
+            observation.onResponse(status);
+            if (status == RateLimitingInterceptor.TOO_MANY_REQUESTS) {
+                observation.onThrottled(DataCiteRateLimiter.parseRetryAfter(response.getHeaders()));
+            }
+        }
+        return response;
+    }
+
+}
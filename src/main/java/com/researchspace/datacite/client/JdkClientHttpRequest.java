@@ -0,0 +1,140 @@
+package com.researchspace.datacite.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Buffering ClientHttpRequest executed through JDK HttpClient. Created by {@link JdkHttpClientRequestFactory}.
+ * 
+ * With request compression enabled, the body is gzip-compressed as it's written into the buffer. With response
+ * compression enabled, gzip and deflate encodings are advertised and decoded by {@link JdkClientHttpResponse}.
+ */
+class JdkClientHttpRequest extends AbstractClientHttpRequest {
+
+    /* headers that JDK HttpClient sets by itself and refuses to accept from the caller */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final HttpMethod method;
+    private final Duration readTimeout;
+    private final ConnectionPermits connectionPermits;
+    private final boolean requestCompression;
+    private final boolean responseCompression;
+
+    private final ByteArrayOutputStream bufferedOutput = new ByteArrayOutputStream(1024);
+
+    /* compressing stream writing into the buffer, null if the body isn't compressed */
+    private GZIPOutputStream compressedOutput;
+
+    JdkClientHttpRequest(HttpClient httpClient, URI uri, HttpMethod method, Duration readTimeout, ConnectionPermits connectionPermits,
+            boolean requestCompression, boolean responseCompression) {
+        this.httpClient = httpClient;
+        this.uri = uri;
+        this.method = method;
+        this.readTimeout = readTimeout;
+        this.connectionPermits = connectionPermits;
+        this.requestCompression = requestCompression;
+        this.responseCompression = responseCompression;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getMethodValue() {
+        return method.name();
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) throws IOException {
+        if (!requestCompression || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return bufferedOutput;
+        }
+        if (compressedOutput == null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            compressedOutput = new GZIPOutputStream(bufferedOutput, 1024);
+        }
+        return compressedOutput;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        if (compressedOutput != null) {
+            compressedOutput.close(); // writes gzip trailer and releases native deflater
+        }
+        /* if caller asked for specific encodings, the response body is passed on as it is */
+        boolean decompress = responseCompression && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING);
+        HttpRequest request = buildRequest(headers, bufferedOutput.toByteArray());
+        acquireConnectionPermit();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            return new JdkClientHttpResponse(response, this::releaseConnectionPermit, decompress);
+        } catch (InterruptedException e) {
+            releaseConnectionPermit();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for DataCite response");
+        } catch (IOException | RuntimeException e) {
+            releaseConnectionPermit();
+            throw e;
+        }
+    }
+
+    private HttpRequest buildRequest(HttpHeaders headers, byte[] body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if (readTimeout != null) {
+            builder.timeout(readTimeout);
+        }
+        headers.forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        if (responseCompression && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            builder.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        }
+        HttpRequest.BodyPublisher bodyPublisher = body.length > 0
+                ? HttpRequest.BodyPublishers.ofByteArray(body) : HttpRequest.BodyPublishers.noBody();
+        return builder.method(method.name(), bodyPublisher).build();
+    }
+
+    private void acquireConnectionPermit() throws InterruptedIOException {
+        if (connectionPermits == null) {
+            return;
+        }
+        try {
+            connectionPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for free connection to DataCite");
+        }
+    }
+
+    private void releaseConnectionPermit() {
+        if (connectionPermits != null) {
+            connectionPermits.release();
+        }
+    }
+
+}
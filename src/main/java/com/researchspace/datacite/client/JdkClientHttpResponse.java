@@ -0,0 +1,115 @@
+package com.researchspace.datacite.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * ClientHttpResponse wrapping JDK HttpResponse. Closing the response releases the connection back to the pool.
+ * 
+ * If decompression is enabled, gzip and deflate encoded bodies are decompressed as they're read, and 
+ * Content-Encoding and Content-Length headers of such responses are not returned, as they don't match the body.
+ */
+class JdkClientHttpResponse implements ClientHttpResponse {
+
+    private final HttpResponse<InputStream> response;
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    /* gzip or deflate if the body is decompressed, null otherwise */
+    private final String decodedEncoding;
+
+    private HttpHeaders headers;
+
+    private InputStream body;
+
+    JdkClientHttpResponse(HttpResponse<InputStream> response, Runnable onClose, boolean decompress) {
+        this.response = response;
+        this.onClose = onClose;
+        this.decodedEncoding = decompress ? supportedEncoding(response) : null;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return HttpStatus.valueOf(response.statusCode());
+    }
+
+    public int getRawStatusCode() {
+        return response.statusCode();
+    }
+
+    @Override
+    public String getStatusText() {
+        HttpStatus status = HttpStatus.resolve(response.statusCode());
+        return status != null ? status.getReasonPhrase() : "";
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        if (headers == null) {
+            HttpHeaders responseHeaders = new HttpHeaders();
+            response.headers().map().forEach((name, values) -> {
+                if (!name.startsWith(":") && !(decodedEncoding != null && isEncodingHeader(name))) {
+                    responseHeaders.addAll(name, values);
+                }
+            });
+            headers = responseHeaders;
+        }
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body == null) {
+            body = decodedEncoding != null ? decode(response.body(), decodedEncoding) : response.body();
+        }
+        return body;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                /* closing decompressing stream also releases its native inflater */
+                (body != null ? body : response.body()).close();
+            } catch (IOException e) {
+                // nothing to do, connection will be dropped by the pool
+            } finally {
+                onClose.run();
+            }
+        }
+    }
+
+    private static String supportedEncoding(HttpResponse<?> response) {
+        String encoding = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .orElse(null);
+        if ("gzip".equals(encoding) || "x-gzip".equals(encoding)) {
+            return "gzip";
+        }
+        return "deflate".equals(encoding) ? encoding : null;
+    }
+
+    private static boolean isEncodingHeader(String name) {
+        return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+    }
+
+    /* empty bodies (e.g. of 204 or 304 responses) are returned as they are, as they aren't valid compressed streams */
+    private static InputStream decode(InputStream body, String encoding) throws IOException {
+        PushbackInputStream pushbackBody = new PushbackInputStream(body, 1);
+        int firstByte = pushbackBody.read();
+        if (firstByte == -1) {
+            return pushbackBody;
+        }
+        pushbackBody.unread(firstByte);
+        return "gzip".equals(encoding) ? new GZIPInputStream(pushbackBody, 8192) : new InflaterInputStream(pushbackBody);
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.researchspace.datacite.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import org.apache.commons.lang.Validate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+/**
+ * ClientHttpRequestFactory backed by a single, shared JDK {@link HttpClient}.
+ *
+ * The underlying client keeps connections alive and reuses them between requests (and multiplexes
+ * them over HTTP/2 where the server supports it), so repeated calls to DataCite don't pay for a new
+ * TCP/TLS handshake each time.
+ *
+ * Idle connections are evicted by the JDK connection pool after the period configured with
+ * 'jdk.httpclient.keepalive.timeout' system property (1200 seconds by default).
+ */
+public class JdkHttpClientRequestFactory implements ClientHttpRequestFactory {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+
+    private final HttpClient httpClient;
+
+    private final Duration readTimeout;
+
+    /* limits number of concurrent exchanges, i.e. connections open to DataCite at once; null if unlimited */
+    private final ConnectionPermits connectionPermits;
+
+    private final boolean requestCompression;
+
+    private final boolean responseCompression;
+
+    private JdkHttpClientRequestFactory(Builder builder) {
+        HttpClient.Builder clientBuilder = HttpClient.newBuilder()
+                .version(builder.http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(builder.connectTimeout);
+        if (builder.executor != null) {
+            clientBuilder.executor(builder.executor);
+        }
+        this.httpClient = clientBuilder.build();
+        this.readTimeout = builder.readTimeout;
+        this.connectionPermits = builder.maxConnections > 0 ? new ConnectionPermits(builder.maxConnections) : null;
+        this.requestCompression = builder.requestCompression;
+        this.responseCompression = builder.responseCompression;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return new JdkClientHttpRequest(httpClient, uri, httpMethod, readTimeout, connectionPermits,
+                requestCompression, responseCompression);
+    }
+
+    /**
+     * @return the JDK HttpClient used by this factory, can be shared with other components talking to DataCite
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /* shared with async client, so both count against the same connection limit; null if unlimited */
+    ConnectionPermits getConnectionPermits() {
+        return connectionPermits;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        private Duration readTimeout = DEFAULT_READ_TIMEOUT;
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private boolean http2 = true;
+        private Executor executor;
+        private boolean requestCompression;
+        private boolean responseCompression = true;
+
+        /**
+         * @param connectTimeout maximum time to wait for connection to DataCite server to be established
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            Validate.notNull(connectTimeout);
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param readTimeout maximum time to wait for DataCite response, or null for no timeout
+         */
+        public Builder readTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * @param maxConnections maximum number of concurrent requests sent to DataCite, further requests
+         *      wait until one of the in-flight requests completes. Use 0 for no limit.
+         */
+        public Builder maxConnections(int maxConnections) {
+            Validate.isTrue(maxConnections >= 0, "maxConnections can't be negative");
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param http2 whether HTTP/2 should be negotiated with the server (true by default)
+         */
+        public Builder http2(boolean http2) {
+            this.http2 = http2;
+            return this;
+        }
+
+        /**
+         * @param executor executor used by HttpClient for asynchronous tasks; by default HttpClient creates its own
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @param requestCompression whether request bodies should be sent gzip-compressed (Content-Encoding: gzip). 
+         *      Disabled by default, enable only if DataCite endpoint (or a proxy in front of it) accepts compressed requests.
+         */
+        public Builder requestCompression(boolean requestCompression) {
+            this.requestCompression = requestCompression;
+            return this;
+        }
+
+        /**
+         * @param responseCompression whether gzip and deflate response encodings should be accepted, compressed
+         *      responses are decompressed as they're read (true by default)
+         */
+        public Builder responseCompression(boolean responseCompression) {
+            this.responseCompression = responseCompression;
+            return this;
+        }
+
+        public JdkHttpClientRequestFactory build() {
+            return new JdkHttpClientRequestFactory(this);
+        }
+    }
+
+}
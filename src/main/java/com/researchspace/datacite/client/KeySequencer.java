@@ -0,0 +1,38 @@
+package com.researchspace.datacite.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls with the same key one at a time, in the order they arrived. Each caller waits only for the 
+ * previous call of its key, calls of other keys are never blocked, and no lock is held while a call runs.
+ */
+class KeySequencer<K> {
+
+    /* completes when the last call queued for the key is done, removed by that call if nothing queued after it */
+    private final ConcurrentMap<K, CompletableFuture<Void>> lastCalls = new ConcurrentHashMap<>();
+
+    <V> V execute(K key, Supplier<V> call) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> previous = lastCalls.put(key, done);
+        try {
+            if (previous != null) {
+                previous.join(); // always completes normally, see below
+            }
+            return call.get();
+        } finally {
+            done.complete(null);
+            lastCalls.remove(key, done);
+        }
+    }
+
+    /**
+     * @return number of keys with a call in progress
+     */
+    int size() {
+        return lastCalls.size();
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.researchspace.datacite.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Records DataCite calls in Micrometer {@link MeterRegistry}. Requires 'io.micrometer:micrometer-core' on the classpath.
+ * 
+ * Meters, all tagged with 'operation' (e.g. 'retrieve', 'test_connection'):
+ * <ul>
+ * <li>datacite.client.requests - timer (with percentile histogram) of whole operations, including retries, 
+ *      tagged with 'outcome' ('success' or 'error') and 'exception' (simple class name or 'none')</li>
+ * <li>datacite.client.active - gauge of operations in progress</li>
+ * <li>datacite.client.responses - counter of HTTP responses, tagged with 'status'</li>
+ * <li>datacite.client.retries - counter of repeated attempts</li>
+ * <li>datacite.client.throttled - counter of 429 Too Many Requests responses</li>
+ * </ul>
+ */
+public class MicrometerDataCiteInstrumentation implements DataCiteInstrumentation {
+
+    static final String REQUESTS = "datacite.client.requests";
+    static final String ACTIVE = "datacite.client.active";
+    static final String RESPONSES = "datacite.client.responses";
+    static final String RETRIES = "datacite.client.retries";
+    static final String THROTTLED = "datacite.client.throttled";
+
+    private final MeterRegistry registry;
+
+    private final Map<DataCiteOperation, OperationMeters> operationMeters = new EnumMap<>(DataCiteOperation.class);
+
+    public MicrometerDataCiteInstrumentation(MeterRegistry registry) {
+        Validate.notNull(registry);
+        this.registry = registry;
+        for (DataCiteOperation operation : DataCiteOperation.values()) {
+            operationMeters.put(operation, new OperationMeters(operation));
+        }
+    }
+
+    @Override
+    public Observation start(DataCiteOperation operation) {
+        return new TimedObservation(operationMeters.get(operation));
+    }
+
+    /* meters that don't depend on outcome are created up front, so recording doesn't need registry lookups */
+    private class OperationMeters {
+
+        private final Tags tags;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Counter retries;
+        private final Counter throttled;
+
+        OperationMeters(DataCiteOperation operation) {
+            this.tags = Tags.of("operation", operation.name().toLowerCase(Locale.ROOT));
+            Gauge.builder(ACTIVE, active, AtomicInteger::get)
+                    .description("DataCite operations in progress")
+                    .tags(tags)
+                    .register(registry);
+            this.retries = Counter.builder(RETRIES)
+                    .description("Repeated attempts of DataCite calls")
+                    .tags(tags)
+                    .register(registry);
+            this.throttled = Counter.builder(THROTTLED)
+                    .description("DataCite calls rejected with 429 Too Many Requests")
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        Timer timer(Throwable error) {
+            return Timer.builder(REQUESTS)
+                    .description("DataCite operations, including retries")
+                    .tags(tags)
+                    .tag("outcome", error == null ? "success" : "error")
+                    .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        Counter responses(int statusCode) {
+            return registry.counter(RESPONSES, tags.and(Tag.of("status", String.valueOf(statusCode))));
+        }
+    }
+
+    private class TimedObservation implements Observation {
+
+        private final OperationMeters meters;
+        private final Timer.Sample sample;
+
+        TimedObservation(OperationMeters meters) {
+            this.meters = meters;
+            this.sample = Timer.start(registry);
+            meters.active.incrementAndGet();
+        }
+
+        @Override
+        public void onResponse(int statusCode) {
+            meters.responses(statusCode).increment();
+        }
+
+        @Override
+        public void onThrottled(Duration retryAfter) {
+            meters.throttled.increment();
+        }
+
+        @Override
+        public void onRetry(int attempt, Throwable failure, Duration delay) {
+            meters.retries.increment();
+        }
+
+        @Override
+        public void stop(Throwable error) {
+            meters.active.decrementAndGet();
+            sample.stop(meters.timer(error));
+        }
+    }
+
+}
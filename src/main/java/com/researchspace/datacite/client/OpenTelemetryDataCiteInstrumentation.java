@@ -0,0 +1,111 @@
+package com.researchspace.datacite.client;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import java.time.Duration;
+import java.util.Locale;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Records DataCite calls with OpenTelemetry API: a client span per operation (with events for retries and 
+ * throttling) and metrics equivalent to {@link MicrometerDataCiteInstrumentation}. Requires 
+ * 'io.opentelemetry:opentelemetry-api' on the classpath.
+ * 
+ * Spans are started as children of the span current at the time the operation starts.
+ */
+public class OpenTelemetryDataCiteInstrumentation implements DataCiteInstrumentation {
+
+    static final String INSTRUMENTATION_NAME = "com.researchspace.datacite";
+
+    static final AttributeKey<String> OPERATION = AttributeKey.stringKey("datacite.operation");
+    static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+    static final AttributeKey<Long> STATUS_CODE = AttributeKey.longKey("http.response.status_code");
+    static final AttributeKey<Long> ATTEMPT = AttributeKey.longKey("datacite.retry.attempt");
+    static final AttributeKey<Long> DELAY_MS = AttributeKey.longKey("datacite.retry.delay_ms");
+
+    private final Tracer tracer;
+
+    private final DoubleHistogram duration;
+    private final LongUpDownCounter active;
+    private final LongCounter responses;
+    private final LongCounter retries;
+    private final LongCounter throttled;
+
+    public OpenTelemetryDataCiteInstrumentation(OpenTelemetry openTelemetry) {
+        Validate.notNull(openTelemetry);
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        Meter meter = openTelemetry.getMeter(INSTRUMENTATION_NAME);
+        this.duration = meter.histogramBuilder("datacite.client.duration")
+                .setDescription("DataCite operations, including retries").setUnit("s").build();
+        this.active = meter.upDownCounterBuilder("datacite.client.active")
+                .setDescription("DataCite operations in progress").build();
+        this.responses = meter.counterBuilder("datacite.client.responses")
+                .setDescription("HTTP responses received from DataCite").build();
+        this.retries = meter.counterBuilder("datacite.client.retries")
+                .setDescription("Repeated attempts of DataCite calls").build();
+        this.throttled = meter.counterBuilder("datacite.client.throttled")
+                .setDescription("DataCite calls rejected with 429 Too Many Requests").build();
+    }
+
+    @Override
+    public Observation start(DataCiteOperation operation) {
+        return new SpanObservation(operation.name().toLowerCase(Locale.ROOT));
+    }
+
+    private class SpanObservation implements Observation {
+
+        private final Attributes attributes;
+        private final Span span;
+        private final long startNanos = System.nanoTime();
+
+        SpanObservation(String operation) {
+            this.attributes = Attributes.of(OPERATION, operation);
+            this.span = tracer.spanBuilder("DataCite " + operation)
+                    .setSpanKind(SpanKind.CLIENT)
+                    .setAllAttributes(attributes)
+                    .startSpan();
+            active.add(1, attributes);
+        }
+
+        @Override
+        public void onResponse(int statusCode) {
+            span.setAttribute(STATUS_CODE, (long) statusCode);
+            responses.add(1, attributes.toBuilder().put(STATUS_CODE, (long) statusCode).build());
+        }
+
+        @Override
+        public void onThrottled(Duration retryAfter) {
+            span.addEvent("throttled", retryAfter == null ? Attributes.empty() 
+                    : Attributes.of(DELAY_MS, retryAfter.toMillis()));
+            throttled.add(1, attributes);
+        }
+
+        @Override
+        public void onRetry(int attempt, Throwable failure, Duration delay) {
+            span.addEvent("retry", Attributes.of(ATTEMPT, (long) attempt, DELAY_MS, delay.toMillis()));
+            retries.add(1, attributes);
+        }
+
+        @Override
+        public void stop(Throwable error) {
+            active.add(-1, attributes);
+            if (error != null) {
+                span.recordException(error);
+                span.setStatus(StatusCode.ERROR);
+            }
+            span.end();
+            duration.record((System.nanoTime() - startNanos) / 1e9, 
+                    attributes.toBuilder().put(OUTCOME, error == null ? "success" : "error").build());
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Append-only journal of {@link DataCiteOutbox} operations, one JSON record per line.
+ *
+ * Incomplete last line (left by a crash in the middle of write) is dropped on reading. Journal is rewritten
+ * with just the pending operations when it grows, see {@link #rewrite(List)}.
+ */
+class OutboxJournal implements Closeable {
+
+    enum RecordType {
+        /** DOI to be created, with its latest content */
+        REGISTER,
+        /** DOI to be updated, with its latest content */
+        UPDATE,
+        /** Operations of the key up to the sequence number were sent to DataCite */
+        DONE,
+        /** Operations of the key up to the sequence number were rejected by DataCite */
+        FAILED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Record {
+        private long seq;
+        private RecordType type;
+        private String key;
+        /* DataCite event ('publish', 'register', 'hide') to send with the DOI, or null */
+        private String event;
+        private DataCiteDoi doi;
+    }
+
+    private static final ObjectWriter RECORD_WRITER = DataCiteJson.OBJECT_MAPPER.writerFor(Record.class);
+    private static final ObjectReader RECORD_READER = DataCiteJson.OBJECT_MAPPER.readerFor(Record.class);
+
+    private final Path file;
+    private final boolean syncWrites;
+
+    private FileChannel channel;
+    private int recordCount;
+
+    OutboxJournal(Path file, boolean syncWrites) throws IOException {
+        this.file = file;
+        this.syncWrites = syncWrites;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = openForAppend(file);
+    }
+
+    /**
+     * Reads all complete records, in the order they were written. Incomplete last line, that was never
+     * acknowledged as written, is cut off the journal.
+     */
+    List<Record> readAll() throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        List<Record> records = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] != '\n') {
+                continue;
+            }
+            String line = new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            if (!line.isBlank()) {
+                try {
+                    records.add(RECORD_READER.readValue(line));
+                } catch (JsonProcessingException e) {
+                    throw new IOException("Corrupted outbox journal " + file + " at record " + (records.size() + 1), e);
+                }
+            }
+            lineStart = i + 1;
+        }
+        if (lineStart < content.length) {
+            channel.truncate(lineStart);
+            channel.force(true);
+        }
+        recordCount = records.size();
+        return records;
+    }
+
+    /**
+     * Appends the records with a single write (and sync, if enabled).
+     */
+    void append(List<Record> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long sizeBefore = -1;
+        try {
+            sizeBefore = channel.size();
+            writeFully(channel, serialize(records));
+            if (syncWrites) {
+                channel.force(false);
+            }
+            recordCount += records.size();
+        } catch (IOException e) {
+            /* partially written records would be followed by the next append, corrupting the journal */
+            if (sizeBefore >= 0) {
+                try {
+                    channel.truncate(sizeBefore);
+                } catch (IOException truncateError) {
+                    e.addSuppressed(truncateError);
+                }
+            }
+            throw new UncheckedIOException("Unable to write to outbox journal " + file, e);
+        }
+    }
+
+    /**
+     * Atomically replaces the journal with given records.
+     */
+    void rewrite(List<Record> records) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel tempChannel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(tempChannel, serialize(records));
+            tempChannel.force(true);
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            /* the journal stays open either way, with the new file, or the old one if it couldn't be replaced */
+            FileChannel replaced = channel;
+            channel = openForAppend(file);
+            replaced.close();
+        }
+        recordCount = records.size();
+    }
+
+    /**
+     * @return number of records in the journal, including ones made obsolete by later records
+     */
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static FileChannel openForAppend(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static ByteBuffer serialize(List<Record> records) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Record record : records) {
+            lines.append(RECORD_WRITER.writeValueAsString(record)).append('\n');
+        }
+        return ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
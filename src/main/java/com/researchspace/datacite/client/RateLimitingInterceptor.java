@@ -0,0 +1,54 @@
+package com.researchspace.datacite.client;
+
+import java.io.IOException;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Waits for {@link DataCiteRateLimiter} permit before each request, and feeds rate-limit
+ * details from DataCite responses back to the limiter.
+ */
+class RateLimitingInterceptor implements ClientHttpRequestInterceptor {
+
+    static final int TOO_MANY_REQUESTS = 429;
+
+    private final DataCiteRateLimiter rateLimiter;
+
+    RateLimitingInterceptor(DataCiteRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        rateLimiter.acquire();
+        ClientHttpResponse response = execution.execute(request, body);
+        onResponse(rateLimiter, response.getRawStatusCode(), response.getHeaders());
+        return response;
+    }
+
+    /** Feeds rate-limit details of the response to the limiter, also used by async client */
+    static void onResponse(DataCiteRateLimiter rateLimiter, int status, HttpHeaders headers) {
+        if (status == TOO_MANY_REQUESTS) {
+            rateLimiter.onThrottled(DataCiteRateLimiter.parseRetryAfter(headers));
+        } else {
+            rateLimiter.onAccepted(
+                    getLongHeader(headers, "X-RateLimit-Remaining", "X-Rate-Limit-Remaining"),
+                    getLongHeader(headers, "X-RateLimit-Limit", "X-Rate-Limit-Limit"));
+        }
+    }
+
+    private static long getLongHeader(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (StringUtils.isNumeric(value) && StringUtils.isNotEmpty(value)) {
+                return Long.parseLong(value);
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.researchspace.datacite.model;
+
+import lombok.Value;
+
+/**
+ * Single entry of JSON:API 'errors' array returned by DataCite with error responses.
+ */
+@Value
+public class DataCiteApiError {
+
+    /** HTTP status of the error, as returned by DataCite, may be null */
+    String status;
+
+    String title;
+
+    /** 
+     * attribute the error relates to, e.g. 'doi' or 'url' as returned by DataCite, or JSON pointer 
+     * (e.g. '/data/attributes/url') in standard JSON:API errors. Null if error doesn't relate to an attribute
+     */
+    String source;
+
+}
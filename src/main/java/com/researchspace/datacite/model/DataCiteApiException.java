@@ -0,0 +1,37 @@
+package com.researchspace.datacite.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when DataCite responds with an error status. Subclasses tell the kind of the error, details
+ * reported by DataCite are available from {@link #getErrors()}. The original RestTemplate exception,
+ * with response headers and body, is kept as the cause.
+ */
+public class DataCiteApiException extends DataCiteConnectionException {
+
+    private final int status;
+
+    private final List<DataCiteApiError> errors;
+
+    public DataCiteApiException(String message, int status, List<DataCiteApiError> errors, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+        this.errors = errors == null ? Collections.emptyList() : Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return HTTP status of DataCite response
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return errors listed in the response body, empty if there were none or the body couldn't be parsed
+     */
+    public List<DataCiteApiError> getErrors() {
+        return errors;
+    }
+
+}
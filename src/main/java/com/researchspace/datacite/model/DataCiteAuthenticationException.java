@@ -0,0 +1,14 @@
+package com.researchspace.datacite.model;
+
+import java.util.List;
+
+/**
+ * Thrown when DataCite rejects the credentials, or doesn't allow the client to access the resource (HTTP 401 or 403).
+ */
+public class DataCiteAuthenticationException extends DataCiteApiException {
+
+    public DataCiteAuthenticationException(String message, int status, List<DataCiteApiError> errors, Throwable cause) {
+        super(message, status, errors, cause);
+    }
+
+}
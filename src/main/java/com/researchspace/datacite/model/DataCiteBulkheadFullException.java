@@ -0,0 +1,13 @@
+package com.researchspace.datacite.model;
+
+/**
+ * Thrown without calling DataCite, when maximum number of concurrent calls is reached and no call 
+ * completed within the allowed wait time.
+ */
+public class DataCiteBulkheadFullException extends DataCiteConnectionException {
+
+    public DataCiteBulkheadFullException(String message) {
+        super(message, null);
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.researchspace.datacite.model;
+
+import java.time.Duration;
+
+/**
+ * Thrown without calling DataCite, when circuit breaker of the operation is open after recent failures.
+ */
+public class DataCiteCircuitOpenException extends DataCiteConnectionException {
+
+    private final Duration retryAfter;
+
+    public DataCiteCircuitOpenException(String message, Duration retryAfter) {
+        super(message, null);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return time after which the circuit breaker lets trial calls through
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
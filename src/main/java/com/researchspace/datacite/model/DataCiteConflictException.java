@@ -0,0 +1,14 @@
+package com.researchspace.datacite.model;
+
+import java.util.List;
+
+/**
+ * Thrown when the request conflicts with the current state of the resource (HTTP 409 or 412).
+ */
+public class DataCiteConflictException extends DataCiteApiException {
+
+    public DataCiteConflictException(String message, int status, List<DataCiteApiError> errors, Throwable cause) {
+        super(message, status, errors, cause);
+    }
+
+}
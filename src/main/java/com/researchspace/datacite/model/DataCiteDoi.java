@@ -21,4 +21,24 @@ public class DataCiteDoi {
                getAttributes().getTypes() != null &&
                getAttributes().getUrl() != null;
     }
+
+    /**
+     * Copy with its own attributes object, so top-level attributes (e.g. event or prefix) of the copy can be set 
+     * without affecting this DOI. Nested values (creators, titles etc.) and relationships are shared.
+     */
+    public DataCiteDoi shallowCopy() {
+        DataCiteDoi copy = new DataCiteDoi();
+        copy.setId(id);
+        copy.setType(type);
+        copy.setAttributes(attributes != null ? attributes.toBuilder().build() : null);
+        copy.setRelationships(relationships);
+        return copy;
+    }
+
+    /**
+     * @return immutable snapshot of this DOI, see {@link ImmutableDataCiteDoi}
+     */
+    public ImmutableDataCiteDoi toImmutable() {
+        return ImmutableDataCiteDoi.of(this);
+    }
 }
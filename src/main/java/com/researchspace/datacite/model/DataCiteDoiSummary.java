@@ -0,0 +1,106 @@
+package com.researchspace.datacite.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.Instant;
+import java.util.Date;
+import lombok.Data;
+
+/**
+ * Lightweight view of DataCite DOI, with only simple-valued attributes. Attributes that weren't requested are null.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DataCiteDoiSummary {
+
+    private String id;
+    private String doi;
+    private String prefix;
+    private String suffix;
+    private String state;
+    private String url;
+    private String publisher;
+    private Integer publicationYear;
+    private Integer metadataVersion;
+    private String source;
+    private Integer viewCount;
+    private Integer downloadCount;
+    private Integer referenceCount;
+    private Integer citationCount;
+    private Integer partCount;
+    private Integer partOfCount;
+    private Integer versionCount;
+    private Integer versionOfCount;
+    private Date created;
+    private Date registered;
+    private String published;
+    private Date updated;
+
+    /**
+     * Creates summary with all attributes of given DOI.
+     */
+    public static DataCiteDoiSummary of(DataCiteDoi doi) {
+        DataCiteDoiSummary summary = new DataCiteDoiSummary();
+        summary.setId(doi.getId());
+        DataCiteDoiAttributes attributes = doi.getAttributes();
+        if (attributes == null) {
+            return summary;
+        }
+        summary.setDoi(attributes.getDoi());
+        summary.setPrefix(attributes.getPrefix());
+        summary.setSuffix(attributes.getSuffix());
+        summary.setState(attributes.getState());
+        summary.setUrl(attributes.getUrl());
+        summary.setPublisher(attributes.getPublisher());
+        summary.setPublicationYear(attributes.getPublicationYear());
+        summary.setMetadataVersion(attributes.getMetadataVersion());
+        summary.setSource(attributes.getSource());
+        summary.setViewCount(attributes.getViewCount());
+        summary.setDownloadCount(attributes.getDownloadCount());
+        summary.setReferenceCount(attributes.getReferenceCount());
+        summary.setCitationCount(attributes.getCitationCount());
+        summary.setPartCount(attributes.getPartCount());
+        summary.setPartOfCount(attributes.getPartOfCount());
+        summary.setVersionCount(attributes.getVersionCount());
+        summary.setVersionOfCount(attributes.getVersionOfCount());
+        summary.setCreated(attributes.getCreated());
+        summary.setRegistered(attributes.getRegistered());
+        summary.setPublished(attributes.getPublished());
+        summary.setUpdated(attributes.getUpdated());
+        return summary;
+    }
+
+    /**
+     * Creates summary with all attributes of given DOI snapshot.
+     */
+    public static DataCiteDoiSummary of(ImmutableDataCiteDoi doi) {
+        DataCiteDoiSummary summary = new DataCiteDoiSummary();
+        summary.setId(doi.getId());
+        summary.setDoi(doi.getDoi());
+        summary.setPrefix(doi.getPrefix());
+        summary.setSuffix(doi.getSuffix());
+        summary.setState(doi.getState());
+        summary.setUrl(doi.getUrl());
+        summary.setPublisher(doi.getPublisher());
+        summary.setPublicationYear(doi.getPublicationYear());
+        summary.setMetadataVersion(doi.getMetadataVersion());
+        summary.setSource(doi.getSource());
+        summary.setViewCount(doi.getViewCount());
+        summary.setDownloadCount(doi.getDownloadCount());
+        summary.setReferenceCount(doi.getReferenceCount());
+        summary.setCitationCount(doi.getCitationCount());
+        summary.setPartCount(doi.getPartCount());
+        summary.setPartOfCount(doi.getPartOfCount());
+        summary.setVersionCount(doi.getVersionCount());
+        summary.setVersionOfCount(doi.getVersionOfCount());
+        summary.setCreated(toDate(doi.getCreated()));
+        summary.setRegistered(toDate(doi.getRegistered()));
+        summary.setPublished(doi.getPublished());
+        summary.setUpdated(toDate(doi.getUpdated()));
+        return summary;
+    }
+
+    private static Date toDate(Instant instant) {
+        return instant != null ? Date.from(instant) : null;
+    }
+
+}
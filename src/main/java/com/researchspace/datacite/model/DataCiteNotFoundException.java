@@ -0,0 +1,14 @@
+package com.researchspace.datacite.model;
+
+import java.util.List;
+
+/**
+ * Thrown when DataCite responds with HTTP 404. DataCite Members API also returns 404 for requests with wrong credentials.
+ */
+public class DataCiteNotFoundException extends DataCiteApiException {
+
+    public DataCiteNotFoundException(String message, int status, List<DataCiteApiError> errors, Throwable cause) {
+        super(message, status, errors, cause);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.researchspace.datacite.model;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when DataCite rejects the request because the rate limit was exceeded (HTTP 429).
+ */
+public class DataCiteRateLimitException extends DataCiteApiException {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final Duration retryAfter;
+
+    public DataCiteRateLimitException(String message, Duration retryAfter, Throwable cause) {
+        this(message, retryAfter, Collections.emptyList(), cause);
+    }
+
+    public DataCiteRateLimitException(String message, Duration retryAfter, List<DataCiteApiError> errors, Throwable cause) {
+        super(message, TOO_MANY_REQUESTS, errors, cause);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return time after which DataCite suggested to retry the request, or null if not provided
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
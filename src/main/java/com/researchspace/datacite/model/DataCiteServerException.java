@@ -0,0 +1,14 @@
+package com.researchspace.datacite.model;
+
+import java.util.List;
+
+/**
+ * Thrown when DataCite fails to process the request (HTTP 5xx). Such failures are usually transient.
+ */
+public class DataCiteServerException extends DataCiteApiException {
+
+    public DataCiteServerException(String message, int status, List<DataCiteApiError> errors, Throwable cause) {
+        super(message, status, errors, cause);
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.researchspace.datacite.model;
+
+import java.util.List;
+
+/**
+ * Thrown when DataCite rejects the request content (HTTP 400 or 422), e.g. missing or invalid DOI attributes.
+ * Attributes at fault are reported as error sources.
+ */
+public class DataCiteValidationException extends DataCiteApiException {
+
+    public DataCiteValidationException(String message, int status, List<DataCiteApiError> errors, Throwable cause) {
+        super(message, status, errors, cause);
+    }
+
+}
@@ -0,0 +1,707 @@
+package com.researchspace.datacite.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Immutable snapshot of DataCite DOI, safe to share between threads (e.g. in a cache) without copying or locking.
+ *
+ * Simple-valued attributes are kept in compact form: dates as epoch millis, counters in a single array
+ * shared by all DOIs that weren't viewed, downloaded or cited yet. Nested metadata (creators, titles etc.)
+ * is copied when the snapshot is created, and its getters return copies (lists are unmodifiable), so
+ * the snapshot can't be changed through them. Prefer simple-valued getters in hot paths.
+ *
+ * Changes are made with 'with' methods or {@link #toBuilder()}, which return a new snapshot. Nested metadata
+ * is shared with the original snapshot, unless the change is to nested metadata. {@link #toDataCiteDoi()}
+ * returns a mutable copy, e.g. for sending an update to DataCite.
+ */
+@EqualsAndHashCode
+@ToString(exclude = "xml")
+public final class ImmutableDataCiteDoi {
+
+    private static final ObjectMapper COPIER = new ObjectMapper();
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final int VIEW = 0;
+    private static final int DOWNLOAD = 1;
+    private static final int REFERENCE = 2;
+    private static final int CITATION = 3;
+    private static final int PART = 4;
+    private static final int PART_OF = 5;
+    private static final int VERSION = 6;
+    private static final int VERSION_OF = 7;
+    private static final int[] NO_COUNTS = new int[8];
+
+    private final String id;
+    private final String doi;
+    private final String event;
+    private final String prefix;
+    private final String suffix;
+    private final String state;
+    private final String url;
+    private final String publisher;
+    private final int publicationYear;
+    private final int metadataVersion;
+    private final String source;
+    private final boolean active;
+    private final String landingPage;
+    private final String xml;
+    private final String published;
+    private final int[] counts;
+    private final long created;
+    private final long registered;
+    private final long updated;
+    /* only nested values are set, with unmodifiable lists */
+    private final DataCiteDoiAttributes metadata;
+    private final DataCiteDoiRelationships relationships;
+
+    private ImmutableDataCiteDoi(Builder builder) {
+        this.id = builder.id;
+        this.doi = builder.doi;
+        this.event = builder.event;
+        this.prefix = builder.prefix;
+        this.suffix = builder.suffix;
+        this.state = builder.state;
+        this.url = builder.url;
+        this.publisher = builder.publisher;
+        this.publicationYear = builder.publicationYear;
+        this.metadataVersion = builder.metadataVersion;
+        this.source = builder.source;
+        this.active = builder.active;
+        this.landingPage = builder.landingPage;
+        this.xml = builder.xml;
+        this.published = builder.published;
+        /* builder copies the array before changing it, so it can be shared */
+        this.counts = isZero(builder.counts) ? NO_COUNTS : builder.counts;
+        this.created = builder.created;
+        this.registered = builder.registered;
+        this.updated = builder.updated;
+        this.metadata = builder.ownMetadata ? immutableMetadata(builder.metadata) : builder.metadata;
+        this.relationships = builder.ownRelationships
+                ? copyOf(builder.relationships, DataCiteDoiRelationships.class) : builder.relationships;
+    }
+
+    /**
+     * Creates snapshot of the DOI, copying its nested metadata.
+     */
+    public static ImmutableDataCiteDoi of(DataCiteDoi doi) {
+        Builder builder = builder().id(doi.getId());
+        DataCiteDoiAttributes attributes = doi.getAttributes();
+        if (attributes != null) {
+            builder.doi(attributes.getDoi())
+                    .event(attributes.getEvent())
+                    .prefix(attributes.getPrefix())
+                    .suffix(attributes.getSuffix())
+                    .state(attributes.getState())
+                    .url(attributes.getUrl())
+                    .publisher(attributes.getPublisher())
+                    .publicationYear(attributes.getPublicationYear())
+                    .metadataVersion(attributes.getMetadataVersion())
+                    .source(attributes.getSource())
+                    .active(attributes.isActive())
+                    .landingPage(attributes.getLandingPage())
+                    .xml(attributes.getXml())
+                    .published(attributes.getPublished())
+                    .created(toInstant(attributes.getCreated()))
+                    .registered(toInstant(attributes.getRegistered()))
+                    .updated(toInstant(attributes.getUpdated()));
+            builder.counts = new int[] { attributes.getViewCount(), attributes.getDownloadCount(),
+                    attributes.getReferenceCount(), attributes.getCitationCount(), attributes.getPartCount(),
+                    attributes.getPartOfCount(), attributes.getVersionCount(), attributes.getVersionOfCount() };
+            builder.metadata = DataCiteDoiAttributes.builder()
+                    .identifiers(attributes.getIdentifiers())
+                    .alternateIdentifiers(attributes.getAlternateIdentifiers())
+                    .creators(attributes.getCreators())
+                    .titles(attributes.getTitles())
+                    .subjects(attributes.getSubjects())
+                    .descriptions(attributes.getDescriptions())
+                    .geoLocations(attributes.getGeoLocations())
+                    .dates(attributes.getDates())
+                    .contributors(attributes.getContributors())
+                    .types(attributes.getTypes())
+                    .version(attributes.getVersion())
+                    .contentUrl(attributes.getContentUrl())
+                    .schemaVersion(attributes.getSchemaVersion())
+                    .reason(attributes.getReason())
+                    .build();
+            builder.ownMetadata = true;
+        }
+        builder.relationships = doi.getRelationships();
+        builder.ownRelationships = true;
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return builder initialized with values of this DOI, sharing its nested metadata until it's changed
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * @return mutable copy of this DOI
+     */
+    public DataCiteDoi toDataCiteDoi() {
+        DataCiteDoi copy = new DataCiteDoi();
+        copy.setId(id);
+        DataCiteDoiAttributes attributes = COPIER.convertValue(metadata, DataCiteDoiAttributes.class);
+        attributes.setDoi(doi);
+        attributes.setEvent(event);
+        attributes.setPrefix(prefix);
+        attributes.setSuffix(suffix);
+        attributes.setState(state);
+        attributes.setUrl(url);
+        attributes.setPublisher(publisher);
+        attributes.setPublicationYear(publicationYear);
+        attributes.setMetadataVersion(metadataVersion);
+        attributes.setSource(source);
+        attributes.setActive(active);
+        attributes.setLandingPage(landingPage);
+        attributes.setXml(xml);
+        attributes.setPublished(published);
+        attributes.setViewCount(counts[VIEW]);
+        attributes.setDownloadCount(counts[DOWNLOAD]);
+        attributes.setReferenceCount(counts[REFERENCE]);
+        attributes.setCitationCount(counts[CITATION]);
+        attributes.setPartCount(counts[PART]);
+        attributes.setPartOfCount(counts[PART_OF]);
+        attributes.setVersionCount(counts[VERSION]);
+        attributes.setVersionOfCount(counts[VERSION_OF]);
+        attributes.setCreated(toDate(created));
+        attributes.setRegistered(toDate(registered));
+        attributes.setUpdated(toDate(updated));
+        copy.setAttributes(attributes);
+        if (relationships != null) {
+            copy.setRelationships(COPIER.convertValue(relationships, DataCiteDoiRelationships.class));
+        }
+        return copy;
+    }
+
+    public ImmutableDataCiteDoi withEvent(String event) {
+        return toBuilder().event(event).build();
+    }
+
+    public ImmutableDataCiteDoi withPrefix(String prefix) {
+        return toBuilder().prefix(prefix).build();
+    }
+
+    public ImmutableDataCiteDoi withState(String state) {
+        return toBuilder().state(state).build();
+    }
+
+    public ImmutableDataCiteDoi withUrl(String url) {
+        return toBuilder().url(url).build();
+    }
+
+    public ImmutableDataCiteDoi withTitles(List<DataCiteDoiAttributes.Title> titles) {
+        return toBuilder().titles(titles).build();
+    }
+
+    public ImmutableDataCiteDoi withCreators(List<DataCiteDoiAttributes.Creator> creators) {
+        return toBuilder().creators(creators).build();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDoi() {
+        return doi;
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public int getPublicationYear() {
+        return publicationYear;
+    }
+
+    public int getMetadataVersion() {
+        return metadataVersion;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public String getLandingPage() {
+        return landingPage;
+    }
+
+    public String getXml() {
+        return xml;
+    }
+
+    public String getPublished() {
+        return published;
+    }
+
+    public int getViewCount() {
+        return counts[VIEW];
+    }
+
+    public int getDownloadCount() {
+        return counts[DOWNLOAD];
+    }
+
+    public int getReferenceCount() {
+        return counts[REFERENCE];
+    }
+
+    public int getCitationCount() {
+        return counts[CITATION];
+    }
+
+    public int getPartCount() {
+        return counts[PART];
+    }
+
+    public int getPartOfCount() {
+        return counts[PART_OF];
+    }
+
+    public int getVersionCount() {
+        return counts[VERSION];
+    }
+
+    public int getVersionOfCount() {
+        return counts[VERSION_OF];
+    }
+
+    public Instant getCreated() {
+        return toInstant(created);
+    }
+
+    public Instant getRegistered() {
+        return toInstant(registered);
+    }
+
+    public Instant getUpdated() {
+        return toInstant(updated);
+    }
+
+    public List<Object> getIdentifiers() {
+        return copyOfList(metadata.getIdentifiers(), Object.class);
+    }
+
+    public List<DataCiteDoiAttributes.AlternateIdentifier> getAlternateIdentifiers() {
+        return copyOfList(metadata.getAlternateIdentifiers(), DataCiteDoiAttributes.AlternateIdentifier.class);
+    }
+
+    public List<DataCiteDoiAttributes.Creator> getCreators() {
+        return copyOfList(metadata.getCreators(), DataCiteDoiAttributes.Creator.class);
+    }
+
+    public List<DataCiteDoiAttributes.Title> getTitles() {
+        return copyOfList(metadata.getTitles(), DataCiteDoiAttributes.Title.class);
+    }
+
+    public List<DataCiteDoiAttributes.Subject> getSubjects() {
+        return copyOfList(metadata.getSubjects(), DataCiteDoiAttributes.Subject.class);
+    }
+
+    public List<DataCiteDoiAttributes.Description> getDescriptions() {
+        return copyOfList(metadata.getDescriptions(), DataCiteDoiAttributes.Description.class);
+    }
+
+    public List<DataCiteDoiAttributes.GeoLocation> getGeoLocations() {
+        return copyOfList(metadata.getGeoLocations(), DataCiteDoiAttributes.GeoLocation.class);
+    }
+
+    public List<DataCiteDoiAttributes.DoiDate> getDates() {
+        return copyOfList(metadata.getDates(), DataCiteDoiAttributes.DoiDate.class);
+    }
+
+    public List<Object> getContributors() {
+        return copyOfList(metadata.getContributors(), Object.class);
+    }
+
+    public DataCiteDoiAttributes.Types getTypes() {
+        return copyOf(metadata.getTypes(), DataCiteDoiAttributes.Types.class);
+    }
+
+    public Object getVersion() {
+        return copyOf(metadata.getVersion(), Object.class);
+    }
+
+    public Object getContentUrl() {
+        return copyOf(metadata.getContentUrl(), Object.class);
+    }
+
+    public Object getSchemaVersion() {
+        return copyOf(metadata.getSchemaVersion(), Object.class);
+    }
+
+    public Object getReason() {
+        return copyOf(metadata.getReason(), Object.class);
+    }
+
+    public DataCiteDoiRelationships getRelationships() {
+        return copyOf(relationships, DataCiteDoiRelationships.class);
+    }
+
+    /** Deep copy of nested values, with lists made unmodifiable */
+    private static DataCiteDoiAttributes immutableMetadata(DataCiteDoiAttributes metadata) {
+        DataCiteDoiAttributes copy = COPIER.convertValue(metadata, DataCiteDoiAttributes.class);
+        copy.setIdentifiers(unmodifiable(copy.getIdentifiers()));
+        copy.setAlternateIdentifiers(unmodifiable(copy.getAlternateIdentifiers()));
+        copy.setCreators(unmodifiable(copy.getCreators()));
+        copy.setTitles(unmodifiable(copy.getTitles()));
+        copy.setSubjects(unmodifiable(copy.getSubjects()));
+        copy.setDescriptions(unmodifiable(copy.getDescriptions()));
+        copy.setGeoLocations(unmodifiable(copy.getGeoLocations()));
+        copy.setDates(unmodifiable(copy.getDates()));
+        copy.setContributors(unmodifiable(copy.getContributors()));
+        return copy;
+    }
+
+    private static <T> List<T> copyOfList(List<T> list, Class<T> elementType) {
+        return list != null ? Collections.unmodifiableList(COPIER.convertValue(list,
+                TypeFactory.defaultInstance().constructCollectionType(List.class, elementType))) : null;
+    }
+
+    private static <T> T copyOf(T value, Class<T> type) {
+        return value != null ? COPIER.convertValue(value, type) : null;
+    }
+
+    private static <T> List<T> unmodifiable(List<T> list) {
+        return list != null ? Collections.unmodifiableList(list) : null;
+    }
+
+    private static boolean isZero(int[] counts) {
+        for (int count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    private static Instant toInstant(long epochMillis) {
+        return epochMillis != NO_DATE ? Instant.ofEpochMilli(epochMillis) : null;
+    }
+
+    private static Date toDate(long epochMillis) {
+        return epochMillis != NO_DATE ? new Date(epochMillis) : null;
+    }
+
+    private static long toEpochMillis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : NO_DATE;
+    }
+
+    public static class Builder {
+
+        private String id;
+        private String doi;
+        private String event;
+        private String prefix;
+        private String suffix;
+        private String state;
+        private String url;
+        private String publisher;
+        private int publicationYear;
+        private int metadataVersion;
+        private String source;
+        private boolean active;
+        private String landingPage;
+        private String xml;
+        private String published;
+        private int[] counts = NO_COUNTS;
+        private long created = NO_DATE;
+        private long registered = NO_DATE;
+        private long updated = NO_DATE;
+        private DataCiteDoiAttributes metadata = new DataCiteDoiAttributes();
+        /* true if metadata isn't shared with an existing snapshot, and has to be copied when building */
+        private boolean ownMetadata = true;
+        private DataCiteDoiRelationships relationships;
+        private boolean ownRelationships;
+
+        private Builder() {
+        }
+
+        private Builder(ImmutableDataCiteDoi snapshot) {
+            this.id = snapshot.id;
+            this.doi = snapshot.doi;
+            this.event = snapshot.event;
+            this.prefix = snapshot.prefix;
+            this.suffix = snapshot.suffix;
+            this.state = snapshot.state;
+            this.url = snapshot.url;
+            this.publisher = snapshot.publisher;
+            this.publicationYear = snapshot.publicationYear;
+            this.metadataVersion = snapshot.metadataVersion;
+            this.source = snapshot.source;
+            this.active = snapshot.active;
+            this.landingPage = snapshot.landingPage;
+            this.xml = snapshot.xml;
+            this.published = snapshot.published;
+            this.counts = snapshot.counts;
+            this.created = snapshot.created;
+            this.registered = snapshot.registered;
+            this.updated = snapshot.updated;
+            this.metadata = snapshot.metadata;
+            this.ownMetadata = false;
+            this.relationships = snapshot.relationships;
+        }
+
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder doi(String doi) {
+            this.doi = doi;
+            return this;
+        }
+
+        public Builder event(String event) {
+            this.event = event;
+            return this;
+        }
+
+        public Builder prefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        public Builder suffix(String suffix) {
+            this.suffix = suffix;
+            return this;
+        }
+
+        public Builder state(String state) {
+            this.state = state;
+            return this;
+        }
+
+        public Builder url(String url) {
+            this.url = url;
+            return this;
+        }
+
+        public Builder publisher(String publisher) {
+            this.publisher = publisher;
+            return this;
+        }
+
+        public Builder publicationYear(int publicationYear) {
+            this.publicationYear = publicationYear;
+            return this;
+        }
+
+        public Builder metadataVersion(int metadataVersion) {
+            this.metadataVersion = metadataVersion;
+            return this;
+        }
+
+        public Builder source(String source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder active(boolean active) {
+            this.active = active;
+            return this;
+        }
+
+        public Builder landingPage(String landingPage) {
+            this.landingPage = landingPage;
+            return this;
+        }
+
+        public Builder xml(String xml) {
+            this.xml = xml;
+            return this;
+        }
+
+        public Builder published(String published) {
+            this.published = published;
+            return this;
+        }
+
+        public Builder viewCount(int viewCount) {
+            return count(VIEW, viewCount);
+        }
+
+        public Builder downloadCount(int downloadCount) {
+            return count(DOWNLOAD, downloadCount);
+        }
+
+        public Builder referenceCount(int referenceCount) {
+            return count(REFERENCE, referenceCount);
+        }
+
+        public Builder citationCount(int citationCount) {
+            return count(CITATION, citationCount);
+        }
+
+        public Builder partCount(int partCount) {
+            return count(PART, partCount);
+        }
+
+        public Builder partOfCount(int partOfCount) {
+            return count(PART_OF, partOfCount);
+        }
+
+        public Builder versionCount(int versionCount) {
+            return count(VERSION, versionCount);
+        }
+
+        public Builder versionOfCount(int versionOfCount) {
+            return count(VERSION_OF, versionOfCount);
+        }
+
+        public Builder created(Instant created) {
+            this.created = toEpochMillis(created);
+            return this;
+        }
+
+        public Builder registered(Instant registered) {
+            this.registered = toEpochMillis(registered);
+            return this;
+        }
+
+        public Builder updated(Instant updated) {
+            this.updated = toEpochMillis(updated);
+            return this;
+        }
+
+        public Builder identifiers(List<Object> identifiers) {
+            ownMetadata().setIdentifiers(identifiers);
+            return this;
+        }
+
+        public Builder alternateIdentifiers(List<DataCiteDoiAttributes.AlternateIdentifier> alternateIdentifiers) {
+            ownMetadata().setAlternateIdentifiers(alternateIdentifiers);
+            return this;
+        }
+
+        public Builder creators(List<DataCiteDoiAttributes.Creator> creators) {
+            ownMetadata().setCreators(creators);
+            return this;
+        }
+
+        public Builder titles(List<DataCiteDoiAttributes.Title> titles) {
+            ownMetadata().setTitles(titles);
+            return this;
+        }
+
+        public Builder subjects(List<DataCiteDoiAttributes.Subject> subjects) {
+            ownMetadata().setSubjects(subjects);
+            return this;
+        }
+
+        public Builder descriptions(List<DataCiteDoiAttributes.Description> descriptions) {
+            ownMetadata().setDescriptions(descriptions);
+            return this;
+        }
+
+        public Builder geoLocations(List<DataCiteDoiAttributes.GeoLocation> geoLocations) {
+            ownMetadata().setGeoLocations(geoLocations);
+            return this;
+        }
+
+        public Builder dates(List<DataCiteDoiAttributes.DoiDate> dates) {
+            ownMetadata().setDates(dates);
+            return this;
+        }
+
+        public Builder contributors(List<Object> contributors) {
+            ownMetadata().setContributors(contributors);
+            return this;
+        }
+
+        public Builder types(DataCiteDoiAttributes.Types types) {
+            ownMetadata().setTypes(types);
+            return this;
+        }
+
+        public Builder version(Object version) {
+            ownMetadata().setVersion(version);
+            return this;
+        }
+
+        public Builder contentUrl(Object contentUrl) {
+            ownMetadata().setContentUrl(contentUrl);
+            return this;
+        }
+
+        public Builder schemaVersion(Object schemaVersion) {
+            ownMetadata().setSchemaVersion(schemaVersion);
+            return this;
+        }
+
+        public Builder reason(Object reason) {
+            ownMetadata().setReason(reason);
+            return this;
+        }
+
+        public Builder relationships(DataCiteDoiRelationships relationships) {
+            this.relationships = relationships;
+            this.ownRelationships = true;
+            return this;
+        }
+
+        public ImmutableDataCiteDoi build() {
+            return new ImmutableDataCiteDoi(this);
+        }
+
+        private Builder count(int index, int value) {
+            if (counts[index] != value) {
+                counts = counts.clone();
+                counts[index] = value;
+            }
+            return this;
+        }
+
+        /* copy-on-write: metadata shared with the source snapshot is copied before the first change */
+        private DataCiteDoiAttributes ownMetadata() {
+            if (!ownMetadata) {
+                metadata = metadata.toBuilder().build();
+                ownMetadata = true;
+            }
+            return metadata;
+        }
+    }
+
+}
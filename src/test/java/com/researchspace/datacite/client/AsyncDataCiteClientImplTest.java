@@ -0,0 +1,160 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteCircuitOpenException;
+import com.researchspace.datacite.model.DataCiteConnectionException;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteNotFoundException;
+import com.researchspace.datacite.model.DataCiteServerException;
+import com.researchspace.datacite.model.DoiTestMother;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AsyncDataCiteClientImplTest {
+
+    private FakeDataCiteServer server;
+
+    private AsyncDataCiteClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeDataCiteServer.start();
+        client = clientBuilder(server).buildAsync();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void draftDoiLifecycle() {
+        DataCiteDoi created = client.registerDoi(DoiTestMother.newDoi()).join();
+        String doiId = created.getId();
+        assertEquals("draft", created.getAttributes().getState());
+        assertEquals(created, client.retrieveDoi(doiId).join());
+
+        DataCiteDoi published = client.publishDoi(created).join();
+        assertEquals("findable", published.getAttributes().getState());
+        assertEquals("registered", client.retractDoi(published).join().getAttributes().getState());
+
+        DataCiteDoi draft = client.registerDoi(DoiTestMother.newDoi()).join();
+        assertTrue(client.deleteDoi(draft.getId()).join());
+        assertEquals(1, server.getDoiCount());
+    }
+
+    @Test
+    public void errorResponsesMappedToTypedExceptions() {
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> client.retrieveDoi("10.82316/abcd-0001").join());
+        assertTrue(exception.getCause() instanceof DataCiteNotFoundException, exception.getCause().toString());
+    }
+
+    @Test
+    public void failedCallsRetriedWithPolicy() {
+        String doiId = client.registerDoi(DoiTestMother.newDoi()).join().getId();
+        server.failNextRequests(1, 500);
+        CompletionException exception = assertThrows(CompletionException.class, () -> client.retrieveDoi(doiId).join());
+        assertTrue(exception.getCause() instanceof DataCiteServerException, exception.getCause().toString());
+
+        AsyncDataCiteClient retryingClient = clientBuilder(server)
+                .retryPolicy(DataCiteRetryPolicy.builder().initialBackoff(Duration.ofMillis(10)).jitter(0).build())
+                .buildAsync();
+        server.failNextRequests(2, 500);
+        long requestsBefore = server.getRequestCount();
+        assertEquals(doiId, retryingClient.retrieveDoi(doiId).join().getId());
+        assertEquals(3, server.getRequestCount() - requestsBefore);
+    }
+
+    @Test
+    public void failsFastWhileBreakerIsOpen() {
+        DataCiteCircuitBreaker retrieveBreaker = DataCiteCircuitBreaker.builder().windowSize(2).minimumCalls(2).build();
+        AsyncDataCiteClient breakingClient = clientBuilder(server)
+                .circuitBreaker(DataCiteOperation.RETRIEVE, retrieveBreaker)
+                .buildAsync();
+        server.failNextRequests(2, 503);
+        assertThrows(CompletionException.class, () -> breakingClient.retrieveDoi("10.82316/abcd-0001").join());
+        assertThrows(CompletionException.class, () -> breakingClient.retrieveDoi("10.82316/abcd-0001").join());
+
+        long requestsBefore = server.getRequestCount();
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> breakingClient.retrieveDoi("10.82316/abcd-0001").join());
+        assertTrue(exception.getCause() instanceof DataCiteCircuitOpenException, exception.getCause().toString());
+        assertEquals(requestsBefore, server.getRequestCount());
+    }
+
+    @Test
+    public void timeoutsRetriedAndCountedByBreaker() throws IOException {
+        try (FakeDataCiteServer slowServer = FakeDataCiteServer.builder().latency(Duration.ofMillis(500)).start()) {
+            AsyncDataCiteClient retryingClient = clientBuilder(slowServer)
+                    .readTimeout(Duration.ofMillis(100))
+                    .retryPolicy(DataCiteRetryPolicy.builder().initialBackoff(Duration.ofMillis(10)).jitter(0).build())
+                    .buildAsync();
+            CompletionException exception = assertThrows(CompletionException.class,
+                    () -> retryingClient.retrieveDoi("10.82316/abcd-0001").join());
+            assertTrue(exception.getCause() instanceof DataCiteConnectionException, exception.getCause().toString());
+            assertEquals(3, slowServer.getRequestCount());
+
+            AsyncDataCiteClient breakingClient = clientBuilder(slowServer)
+                    .readTimeout(Duration.ofMillis(100))
+                    .circuitBreaker(DataCiteOperation.RETRIEVE,
+                            DataCiteCircuitBreaker.builder().windowSize(2).minimumCalls(2).build())
+                    .buildAsync();
+            assertThrows(CompletionException.class, () -> breakingClient.retrieveDoi("10.82316/abcd-0001").join());
+            assertThrows(CompletionException.class, () -> breakingClient.retrieveDoi("10.82316/abcd-0001").join());
+            long requestsBefore = slowServer.getRequestCount();
+            exception = assertThrows(CompletionException.class, () -> breakingClient.retrieveDoi("10.82316/abcd-0001").join());
+            assertTrue(exception.getCause() instanceof DataCiteCircuitOpenException, exception.getCause().toString());
+            assertEquals(requestsBefore, slowServer.getRequestCount());
+        }
+    }
+
+    @Test
+    public void concurrentRequestsLimitedByConnectionPermits() throws IOException {
+        try (FakeDataCiteServer slowServer = FakeDataCiteServer.builder().latency(Duration.ofMillis(100)).start()) {
+            AsyncDataCiteClient limitedClient = clientBuilder(slowServer).maxConnections(2).buildAsync();
+            long startNanos = System.nanoTime();
+            List<CompletableFuture<Boolean>> deletions = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                deletions.add(limitedClient.deleteDoi("10.82316/abcd-000" + i).handle((deleted, error) -> error != null));
+            }
+            deletions.forEach(CompletableFuture::join);
+            // 6 requests, at most 2 at a time, each taking at least 100ms
+            assertTrue(Duration.ofNanos(System.nanoTime() - startNanos).toMillis() >= 300);
+            assertEquals(6, slowServer.getRequestCount());
+        }
+    }
+
+    @Test
+    public void requestsWaitForRateLimiterPermits() {
+        AsyncDataCiteClient limitedClient = clientBuilder(server)
+                .rateLimiter(new DataCiteRateLimiter(10, 1, 1))
+                .buildAsync();
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<Boolean>> deletions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            deletions.add(limitedClient.deleteDoi("10.82316/abcd-000" + i).handle((deleted, error) -> error != null));
+        }
+        deletions.forEach(CompletableFuture::join);
+        // burst of 1, then 10 requests per second
+        assertTrue(Duration.ofNanos(System.nanoTime() - startNanos).toMillis() >= 250);
+    }
+
+    private static DataCiteClientImpl.Builder clientBuilder(FakeDataCiteServer server) {
+        return DataCiteClientImpl.builder()
+                .dataciteApiURI(server.getUri())
+                .username(server.getUsername()).password(server.getPassword())
+                .repositoryPrefix(server.getRepositoryPrefix());
+    }
+
+}
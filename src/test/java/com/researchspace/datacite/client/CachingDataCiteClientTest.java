@@ -0,0 +1,168 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiSummary;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class CachingDataCiteClientTest {
+
+    /** Returns new DOI instance on each retrieval, counting calls */
+    private static class CountingDataCiteClient implements DataCiteClient {
+
+        private final AtomicInteger retrieveCount = new AtomicInteger();
+
+        @Override
+        public DataCiteDoi retrieveDoi(String doiId) {
+            retrieveCount.incrementAndGet();
+            DataCiteDoi doi = new DataCiteDoi();
+            doi.setId(doiId);
+            return doi;
+        }
+
+        @Override
+        public DataCiteDoi registerDoi(DataCiteDoi doiToCreate) {
+            return doiToCreate;
+        }
+
+        @Override
+        public DataCiteDoi updateDoi(DataCiteDoi doiUpdate) {
+            return doiUpdate;
+        }
+
+        @Override
+        public boolean deleteDoi(String doiId) {
+            return true;
+        }
+
+        @Override
+        public DataCiteDoi publishDoi(DataCiteDoi doiToPublish) {
+            return doiToPublish;
+        }
+
+        @Override
+        public DataCiteDoi retractDoi(DataCiteDoi doiToRetract) {
+            return doiToRetract;
+        }
+
+        @Override
+        public DataCiteDoiSummary retrieveDoiSummary(String doiId, DoiField... fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<DataCiteDoi> listDois(int pageSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<DataCiteDoi> listDoisUpdatedSince(Instant updatedSince, int pageSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean testConnectionToDataCite() {
+            return true;
+        }
+    }
+
+    @Test
+    public void repeatedRetrievalServedFromCacheUntilUpdated() {
+        CountingDataCiteClient delegate = new CountingDataCiteClient();
+        CachingDataCiteClient client = new CachingDataCiteClient(delegate);
+
+        DataCiteDoi first = client.retrieveDoi("10.1234/abc");
+        first.getAttributes().setUrl("https://example.com");
+        DataCiteDoi second = client.retrieveDoi("10.1234/abc");
+        assertNotSame(first, second);
+        assertNull(second.getAttributes().getUrl());
+        assertEquals(1, delegate.retrieveCount.get());
+        assertEquals(1, client.getCacheStats().getHitCount());
+        assertEquals(1, client.getCacheStats().getMissCount());
+
+        client.publishDoi(first);
+        client.retrieveDoi("10.1234/abc");
+        assertEquals(2, delegate.retrieveCount.get());
+
+        client.deleteDoi("10.1234/abc");
+        client.retrieveDoi("10.1234/abc");
+        assertEquals(3, delegate.retrieveCount.get());
+        assertEquals(0.25, client.getCacheStats().getHitRate(), 0.001);
+    }
+
+    @Test
+    public void doiIdsMatchedIgnoringCase() {
+        CountingDataCiteClient delegate = new CountingDataCiteClient();
+        CachingDataCiteClient client = new CachingDataCiteClient(delegate);
+
+        client.retrieveDoi("10.1234/abc");
+        client.retrieveDoi("10.1234/ABC");
+        assertEquals(1, delegate.retrieveCount.get());
+
+        DataCiteDoi update = new DataCiteDoi();
+        update.setId("10.1234/Abc");
+        client.updateDoi(update);
+        client.retrieveDoi("10.1234/abc");
+        assertEquals(2, delegate.retrieveCount.get());
+
+        client.invalidate("10.1234/ABC");
+        client.retrieveDoi("10.1234/abc");
+        assertEquals(3, delegate.retrieveCount.get());
+    }
+
+    @Test
+    public void onlyInvalidatedEntriesSkippedByLoadsInFlight() {
+        DataCiteDoiCache cache = new DataCiteDoiCache();
+        long firstLoad = cache.startLoad();
+        long secondLoad = cache.startLoad();
+        cache.invalidate("#1 10.1234/abc");
+        cache.invalidateKeyPrefix("#2 ");
+
+        // stale for the invalidated key and tenant, still cached for others
+        cache.put("#1 10.1234/abc", new DataCiteDoi(), firstLoad);
+        cache.put("#2 10.1234/def", new DataCiteDoi(), secondLoad);
+        cache.put("#1 10.1234/def", new DataCiteDoi(), firstLoad);
+        cache.put("#3 10.1234/abc", new DataCiteDoi(), secondLoad);
+        assertEquals(2, cache.size());
+        assertNull(cache.get("#1 10.1234/abc"));
+        assertNull(cache.get("#2 10.1234/def"));
+
+        // loads started after the invalidation aren't affected by it
+        cache.endLoad(firstLoad);
+        cache.endLoad(secondLoad);
+        long laterLoad = cache.startLoad();
+        cache.put("#1 10.1234/abc", new DataCiteDoi(), laterLoad);
+        cache.endLoad(laterLoad);
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesEvicted() {
+        DataCiteDoiCache cache = new DataCiteDoiCache(2, Duration.ofMinutes(1));
+        cache.put("a", new DataCiteDoi());
+        cache.put("b", new DataCiteDoi());
+        cache.get("a");
+        cache.put("c", new DataCiteDoi());
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void expiredEntriesNotReturned() throws InterruptedException {
+        DataCiteDoiCache cache = new DataCiteDoiCache(10, Duration.ofMillis(20));
+        cache.put("a", new DataCiteDoi());
+        Thread.sleep(40);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+}
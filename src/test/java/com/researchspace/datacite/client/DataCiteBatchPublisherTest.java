@@ -0,0 +1,144 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteConnectionException;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiSummary;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class DataCiteBatchPublisherTest {
+
+    /** Registers DOIs in memory, fails on DOIs with suffix starting with 'failRegister'/'failPublish'. */
+    private static class StubDataCiteClient implements DataCiteClient {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public DataCiteDoi retrieveDoi(String doiId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DataCiteDoi registerDoi(DataCiteDoi doiToCreate) {
+            return call(() -> {
+                if (doiToCreate.getAttributes().getSuffix().startsWith("failRegister")) {
+                    throw new DataCiteConnectionException("register failed", null);
+                }
+                DataCiteDoi created = new DataCiteDoi();
+                created.setId("10.1234/" + doiToCreate.getAttributes().getSuffix());
+                created.getAttributes().setSuffix(doiToCreate.getAttributes().getSuffix());
+                created.getAttributes().setState("draft");
+                return created;
+            });
+        }
+
+        @Override
+        public DataCiteDoi updateDoi(DataCiteDoi doiUpdate) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean deleteDoi(String doiId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DataCiteDoi publishDoi(DataCiteDoi doiToPublish) {
+            return call(() -> {
+                if (doiToPublish.getAttributes().getSuffix().startsWith("failPublish")) {
+                    throw new DataCiteConnectionException("publish failed", null);
+                }
+                doiToPublish.getAttributes().setState("findable");
+                return doiToPublish;
+            });
+        }
+
+        @Override
+        public DataCiteDoi retractDoi(DataCiteDoi doiToRetract) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DataCiteDoiSummary retrieveDoiSummary(String doiId, DoiField... fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<DataCiteDoi> listDois(int pageSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Stream<DataCiteDoi> listDoisUpdatedSince(Instant updatedSince, int pageSize) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean testConnectionToDataCite() {
+            return true;
+        }
+
+        private DataCiteDoi call(Supplier<DataCiteDoi> action) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return action.get();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void registerAndPublishReportsResultPerItem() {
+        StubDataCiteClient client = new StubDataCiteClient();
+        DataCiteBatchPublisher publisher = new DataCiteBatchPublisher(client, 4);
+
+        List<DataCiteDoi> dois = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            dois.add(doiWithSuffix("ok-" + i));
+        }
+        dois.set(3, doiWithSuffix("failRegister-3"));
+        dois.set(7, doiWithSuffix("failPublish-7"));
+
+        BatchResult result = publisher.registerAndPublishAll(dois);
+        assertEquals(20, result.getItems().size());
+        assertFalse(result.isAllSucceeded());
+        assertEquals(18, result.getSucceeded().size());
+        assertEquals(2, result.getFailed().size());
+        assertTrue(client.maxInFlight.get() <= 4);
+
+        BatchItemResult registerFailure = result.getItems().get(3);
+        assertEquals(BatchItemResult.Stage.REGISTER, registerFailure.getFailedStage());
+        assertNull(registerFailure.getResult());
+
+        BatchItemResult publishFailure = result.getItems().get(7);
+        assertEquals(BatchItemResult.Stage.PUBLISH, publishFailure.getFailedStage());
+        assertEquals("draft", publishFailure.getResult().getAttributes().getState());
+
+        BatchItemResult success = result.getItems().get(0);
+        assertEquals(0, success.getIndex());
+        assertEquals("10.1234/ok-0", success.getResult().getId());
+        assertEquals("findable", success.getResult().getAttributes().getState());
+    }
+
+    private DataCiteDoi doiWithSuffix(String suffix) {
+        DataCiteDoi doi = new DataCiteDoi();
+        doi.getAttributes().setSuffix(suffix);
+        return doi;
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DoiTestMother;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DataCiteBulkTransferTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeDataCiteServer server;
+
+    private DataCiteClient client;
+
+    private final List<String> doiIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeDataCiteServer.start();
+        client = new DataCiteClientImpl(server.getUri(), server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+        for (int i = 0; i < 25; i++) {
+            DataCiteDoi created = client.registerDoi(DoiTestMother.newDoi());
+            if (i % 5 == 0) {
+                created = client.publishDoi(created);
+            }
+            doiIds.add(created.getId());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void exportedDoisAreRestored() throws IOException {
+        Path file = tempDir.resolve("dois.ndjson.gz");
+        DataCiteBulkTransfer transfer = DataCiteBulkTransfer.builder(client).pageSize(7).build();
+        assertEquals(25, transfer.exportDois(file).getRecordCount());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertEquals(25, new String(in.readAllBytes()).lines().count());
+        }
+
+        server.reset();
+        BulkTransferResult result = transfer.importDois(file, tempDir.resolve("import.checkpoint"));
+        assertEquals(new BulkTransferResult(25, 0, 25, 0), result);
+        assertEquals(25, server.getDoiCount());
+        assertEquals("findable", server.getDoiState(doiIds.get(0)));
+        assertEquals("draft", server.getDoiState(doiIds.get(1)));
+        assertEquals("25", Files.readString(tempDir.resolve("import.checkpoint")));
+
+        // existing DOIs are updated, and nothing is left to do on re-run
+        assertEquals(new BulkTransferResult(0, 25, 0, 0), transfer.importDois(file, tempDir.resolve("import.checkpoint")));
+        assertEquals(new BulkTransferResult(25, 0, 0, 0), transfer.importDois(file, tempDir.resolve("other.checkpoint")));
+    }
+
+    @Test
+    public void compressedExportCompleteBeforeStreamClosed() throws IOException {
+        Path file = tempDir.resolve("dois.ndjson.gz");
+        DataCiteBulkTransfer transfer = DataCiteBulkTransfer.builder(client).build();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                OutputStream out = transfer.compressed(Channels.newOutputStream(channel))) {
+            out.write("{}\n{}\n".getBytes(StandardCharsets.UTF_8));
+            DataCiteBulkTransfer.finishAndSync(out, channel);
+
+            // file is a complete gzip while the stream is still open, reading a truncated one fails with EOFException
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                assertEquals("{}\n{}\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void importResumesFromCheckpoint() throws IOException {
+        Path file = tempDir.resolve("dois.ndjson");
+        DataCiteBulkTransfer transfer = DataCiteBulkTransfer.builder(client)
+                .compression(DataCiteBulkTransfer.Compression.NONE)
+                .parallelism(3).checkpointInterval(2)
+                .build();
+        transfer.exportDois(file);
+        assertTrue(Files.readString(file).startsWith("{"));
+
+        server.reset();
+        Path checkpointFile = tempDir.resolve("import.checkpoint");
+        Files.writeString(checkpointFile, "10");
+        BulkTransferResult result = transfer.importDois(file, checkpointFile);
+        assertEquals(new BulkTransferResult(15, 10, 15, 0), result);
+        assertEquals(15, server.getDoiCount());
+    }
+
+    @Test
+    public void rejectedRecordsAreReported() throws IOException {
+        Path file = tempDir.resolve("dois.ndjson.gz");
+        List<Long> failed = new ArrayList<>();
+        DataCiteBulkTransfer transfer = DataCiteBulkTransfer.builder(client)
+                .parallelism(1)
+                .listener(new DataCiteBulkTransfer.Listener() {
+                    @Override
+                    public void onFailed(long recordNumber, DataCiteDoi doi, Exception error) {
+                        failed.add(recordNumber);
+                    }
+                })
+                .build();
+        transfer.exportDois(file);
+
+        server.failNextRequests(1, 400);
+        BulkTransferResult result = transfer.importDois(file, tempDir.resolve("import.checkpoint"));
+        assertEquals(1, result.getFailedCount());
+        assertEquals(List.of(0L), failed);
+        assertEquals("25", Files.readString(tempDir.resolve("import.checkpoint")));
+    }
+
+}
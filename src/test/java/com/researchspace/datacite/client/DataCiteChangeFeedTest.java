@@ -0,0 +1,99 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DoiTestMother;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DataCiteChangeFeedTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FakeDataCiteServer server;
+
+    private DataCiteClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeDataCiteServer.start();
+        client = new DataCiteClientImpl(server.getUri(), server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void deliversOnlyChangesSinceLastSync() throws IOException {
+        List<DataCiteDoi> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(client.registerDoi(DoiTestMother.newDoi()));
+        }
+        Path checkpointFile = tempDir.resolve("feed.checkpoint");
+        List<DoiChange> changes = new ArrayList<>();
+        assertEquals(5, newFeed(checkpointFile).sync(changes::add));
+        assertEquals(created.stream().map(DataCiteDoi::getId).collect(Collectors.toSet()),
+                changes.stream().map(DoiChange::getDoiId).collect(Collectors.toSet()));
+        assertEquals(0, newFeed(checkpointFile).sync(changes::add));
+
+        DataCiteDoi published = client.publishDoi(created.get(2));
+        changes.clear();
+        long requestsBefore = server.getRequestCount();
+        assertEquals(1, newFeed(checkpointFile).sync(changes::add));
+        assertEquals(1, server.getRequestCount() - requestsBefore);
+        assertEquals(published.getId(), changes.get(0).getDoiId());
+        assertEquals("findable", changes.get(0).getDoi().getAttributes().getState());
+        assertEquals(changes.get(0).getUpdated(), newFeed(checkpointFile).getHighWaterMark());
+    }
+
+    @Test
+    public void resumesAfterConsumerFailure() throws IOException {
+        for (int i = 0; i < 12; i++) {
+            client.registerDoi(DoiTestMother.newDoi());
+        }
+        Path checkpointFile = tempDir.resolve("feed.checkpoint");
+        List<String> delivered = new ArrayList<>();
+        DataCiteChangeFeed feed = newFeed(checkpointFile);
+        assertThrows(IllegalStateException.class, () -> feed.sync(change -> {
+            if (delivered.size() == 7) {
+                throw new IllegalStateException("mirror unavailable");
+            }
+            delivered.add(change.getDoiId());
+        }));
+
+        assertEquals(5, feed.sync(change -> delivered.add(change.getDoiId())));
+        assertEquals(12, delivered.size());
+        assertEquals(12, new HashSet<>(delivered).size());
+    }
+
+    @Test
+    public void startsFromInitialTimestamp() throws IOException {
+        client.registerDoi(DoiTestMother.newDoi());
+        DataCiteChangeFeed feed = DataCiteChangeFeed.builder(client, tempDir.resolve("feed.checkpoint"))
+                .initialUpdatedSince(Instant.now().plusSeconds(60))
+                .build();
+        assertEquals(0, feed.sync(change -> {
+        }));
+        assertTrue(feed.getHighWaterMark().isAfter(Instant.now()));
+    }
+
+    private DataCiteChangeFeed newFeed(Path checkpointFile) {
+        return DataCiteChangeFeed.builder(client, checkpointFile).pageSize(2).checkpointInterval(3).build();
+    }
+
+}
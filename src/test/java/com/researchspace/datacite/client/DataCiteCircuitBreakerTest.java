@@ -0,0 +1,116 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteBulkheadFullException;
+import com.researchspace.datacite.model.DataCiteCircuitOpenException;
+import com.researchspace.datacite.model.DataCiteServerException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class DataCiteCircuitBreakerTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final DataCiteCircuitBreaker breaker = DataCiteCircuitBreaker.builder()
+            .windowSize(4)
+            .minimumCalls(4)
+            .failureRateThreshold(0.5)
+            .openDuration(Duration.ofSeconds(10))
+            .halfOpenCalls(2)
+            .build();
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        long now = 0;
+        record(false, now);
+        record(true, now);
+        record(false, now);
+        assertEquals(DataCiteCircuitBreaker.State.CLOSED, breaker.getState(now));
+        // 2 of 4 calls failed
+        record(true, now);
+        assertEquals(DataCiteCircuitBreaker.State.OPEN, breaker.getState(now));
+        assertFalse(breaker.tryAcquire(now + 9 * SECOND));
+        assertEquals(Duration.ofSeconds(1), breaker.getRemainingOpenDuration(now + 9 * SECOND));
+    }
+
+    @Test
+    public void halfOpenTrialsCloseOrReopenTheBreaker() {
+        long now = 0;
+        for (int i = 0; i < 4; i++) {
+            record(true, now);
+        }
+        now += 10 * SECOND;
+        assertEquals(DataCiteCircuitBreaker.State.HALF_OPEN, breaker.getState(now));
+        assertTrue(breaker.tryAcquire(now));
+        assertTrue(breaker.tryAcquire(now));
+        assertFalse(breaker.tryAcquire(now));
+        breaker.record(false, now);
+        breaker.record(true, now);
+        assertEquals(DataCiteCircuitBreaker.State.OPEN, breaker.getState(now));
+
+        now += 10 * SECOND;
+        assertTrue(breaker.tryAcquire(now));
+        assertTrue(breaker.tryAcquire(now));
+        breaker.record(false, now);
+        breaker.record(false, now);
+        assertEquals(DataCiteCircuitBreaker.State.CLOSED, breaker.getState(now));
+    }
+
+    @Test
+    public void clientFailsFastWhileBreakerIsOpen() throws IOException {
+        try (FakeDataCiteServer server = FakeDataCiteServer.start()) {
+            DataCiteCircuitBreaker retrieveBreaker = DataCiteCircuitBreaker.builder().windowSize(2).minimumCalls(2).build();
+            DataCiteClientImpl client = DataCiteClientImpl.builder()
+                    .dataciteApiURI(server.getUri())
+                    .username(server.getUsername()).password(server.getPassword())
+                    .repositoryPrefix(server.getRepositoryPrefix())
+                    .circuitBreaker(DataCiteOperation.RETRIEVE, retrieveBreaker)
+                    .build();
+            server.failNextRequests(2, 503);
+            assertThrows(DataCiteServerException.class, () -> client.retrieveDoi("10.82316/abcd-0001"));
+            assertThrows(DataCiteServerException.class, () -> client.retrieveDoi("10.82316/abcd-0001"));
+
+            long requestsBefore = server.getRequestCount();
+            DataCiteCircuitOpenException exception = assertThrows(DataCiteCircuitOpenException.class,
+                    () -> client.retrieveDoi("10.82316/abcd-0001"));
+            assertTrue(exception.getRetryAfter().compareTo(Duration.ZERO) > 0);
+            assertEquals(requestsBefore, server.getRequestCount());
+            assertEquals(DataCiteCircuitBreaker.State.OPEN, client.getCircuitBreakerStates().get(DataCiteOperation.RETRIEVE));
+        }
+    }
+
+    @Test
+    public void bulkheadRejectsCallsAboveLimit() throws Exception {
+        try (FakeDataCiteServer server = FakeDataCiteServer.start()) {
+            DataCiteClient client = DataCiteClientImpl.builder()
+                    .dataciteApiURI(server.getUri())
+                    .username(server.getUsername()).password(server.getPassword())
+                    .repositoryPrefix(server.getRepositoryPrefix())
+                    .bulkhead(1, Duration.ZERO)
+                    .build();
+            server.holdRequests();
+            CompletableFuture<Boolean> slowCall = CompletableFuture.supplyAsync(() -> client.deleteDoi("10.82316/abcd-0001"));
+            // the held call has reached DataCite, so it holds the only bulkhead slot
+            assertTrue(server.awaitHeldRequests(1, Duration.ofSeconds(5)));
+            assertThrows(DataCiteBulkheadFullException.class, () -> client.deleteDoi("10.82316/abcd-0002"));
+            assertEquals(1, server.getRequestCount());
+
+            server.releaseRequests();
+            // held call gets its 404 response
+            assertTrue(slowCall.handle((result, error) -> error != null).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private void record(boolean failure, long now) {
+        assertTrue(breaker.tryAcquire(now));
+        breaker.record(failure, now);
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteNotFoundException;
+import com.researchspace.datacite.model.DoiTestMother;
+import java.io.IOException;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DataCiteClientRegistryTest {
+
+    private FakeDataCiteServer server;
+
+    private DataCiteClientRegistry registry;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeDataCiteServer.start();
+        registry = DataCiteClientRegistry.builder(server.getUri())
+                .maxConnections(5)
+                .cache(new DataCiteDoiCache())
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void credentialsRotatedWithoutRebuildingClient() {
+        DataCiteClient client = registry.register("uni-a", server.getUsername(), "oldPassword", server.getRepositoryPrefix());
+        assertThrows(DataCiteNotFoundException.class, () -> client.registerDoi(DoiTestMother.newDoi()));
+
+        registry.updateCredentials("uni-a", server.getUsername(), server.getPassword());
+        assertEquals("draft", client.registerDoi(DoiTestMother.newDoi()).getAttributes().getState());
+        assertSame(client, registry.getClient("uni-a"));
+
+        assertSame(client, registry.register("uni-a", server.getUsername(), server.getPassword(), server.getRepositoryPrefix()));
+        assertNotSame(client, registry.register("uni-a", server.getUsername(), server.getPassword(), "10.9999"));
+    }
+
+    @Test
+    public void cachedDoisKeptPerTenant() {
+        DataCiteClient clientA = registry.register("uni-a", server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+        DataCiteClient clientB = registry.register("uni-b", server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+        String doiId = clientA.registerDoi(DoiTestMother.newDoi()).getId();
+
+        clientA.retrieveDoi(doiId);
+        clientA.retrieveDoi(doiId);
+        clientB.retrieveDoi(doiId);
+        assertEquals(2, registry.getCache().size());
+        assertEquals(2, registry.getCache().getStats().getMissCount());
+        assertEquals(1, registry.getCache().getStats().getHitCount());
+
+        registry.invalidateCachedDoi("uni-b", doiId.toUpperCase());
+        assertEquals(1, registry.getCache().size());
+    }
+
+    @Test
+    public void cachedDoisDroppedWhenTenantReplacedOrRemoved() {
+        DataCiteClient clientA = registry.register("uni-a", server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+        DataCiteClient clientB = registry.register("uni-b", server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+        String doiId = clientA.registerDoi(DoiTestMother.newDoi()).getId();
+        clientA.retrieveDoi(doiId);
+        clientB.retrieveDoi(doiId);
+        assertEquals(2, registry.getCache().size());
+
+        assertNotSame(clientA, registry.register("uni-a", server.getUsername(), server.getPassword(), "10.9999"));
+        assertEquals(1, registry.getCache().size());
+
+        assertTrue(registry.unregister("uni-b"));
+        assertEquals(0, registry.getCache().size());
+    }
+
+    @Test
+    public void unknownTenantRejected() {
+        registry.register("uni-a", server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+        assertEquals(Set.of("uni-a"), registry.getTenantIds());
+        assertThrows(IllegalArgumentException.class, () -> registry.getClient("uni-b"));
+
+        assertTrue(registry.unregister("uni-a"));
+        assertFalse(registry.unregister("uni-a"));
+        assertThrows(IllegalArgumentException.class, () -> registry.updateCredentials("uni-a", "user", "pass"));
+    }
+
+}
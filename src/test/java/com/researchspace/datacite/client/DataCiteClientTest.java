@@ -12,6 +12,7 @@ import com.researchspace.datacite.model.CreatorTestMother;
 import com.researchspace.datacite.model.DataCiteConnectionException;
 import com.researchspace.datacite.model.DataCiteDoi;
 import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -22,7 +23,6 @@ import java.util.List;
 import java.util.Properties;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.web.client.HttpClientErrorException;
 
 public class DataCiteClientTest {
 
@@ -167,7 +167,7 @@ public class DataCiteClientTest {
         try {
             dataCiteClient.retrieveDoi(createdDoiId);
             fail("should not find deleted doi");
-        } catch (HttpClientErrorException.NotFound nfe) {
+        } catch (DataCiteNotFoundException nfe) {
             // expected
         }
     }
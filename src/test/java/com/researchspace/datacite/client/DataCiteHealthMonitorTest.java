@@ -0,0 +1,150 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DataCiteHealthMonitorTest {
+
+    /* long enough for the verdict not to expire during the test */
+    private static final Duration NO_EXPIRY = Duration.ofHours(1);
+
+    private FakeDataCiteServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeDataCiteServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void reportsAllChecks() {
+        try (DataCiteHealthMonitor monitor = DataCiteHealthMonitor.builder(newClient(server, server.getRepositoryPrefix())).build()) {
+            HealthReport report = monitor.refresh();
+            assertEquals(HealthReport.Status.UP, report.getStatus());
+            assertNotNull(report.getCheckedAt());
+            assertEquals(3, report.getChecks().size());
+            for (HealthCheckResult check : report.getChecks()) {
+                assertTrue(check.isHealthy());
+                assertNull(check.getCause());
+                assertFalse(check.getLatency().isNegative());
+            }
+        }
+    }
+
+    @Test
+    public void reportsFailingCheckWithCause() {
+        try (DataCiteHealthMonitor monitor = DataCiteHealthMonitor.builder(newClient(server, "asdf")).build()) {
+            HealthReport report = monitor.refresh();
+            assertEquals(HealthReport.Status.DOWN, report.getStatus());
+            List<HealthCheckResult> checks = report.getChecks();
+            assertTrue(checks.get(HealthCheckResult.Check.HEARTBEAT.ordinal()).isHealthy());
+            HealthCheckResult prefixCheck = checks.get(HealthCheckResult.Check.REPOSITORY_PREFIX.ordinal());
+            assertEquals(HealthCheckResult.Check.REPOSITORY_PREFIX, prefixCheck.getCheck());
+            assertFalse(prefixCheck.isHealthy());
+            assertEquals("Cannot find repository prefix for provided client-id and prefix-id. Is repositoryPrefix correct?",
+                    prefixCheck.getMessage());
+            assertNotNull(prefixCheck.getCause());
+        }
+    }
+
+    @Test
+    public void servesCachedReportWithinTtl() {
+        try (DataCiteHealthMonitor monitor = DataCiteHealthMonitor.builder(newClient(server, server.getRepositoryPrefix()))
+                .ttl(NO_EXPIRY).build()) {
+            HealthReport report = monitor.refresh();
+            long requestsBefore = server.getRequestCount();
+            for (int i = 0; i < 10; i++) {
+                assertSame(report, monitor.getReport());
+            }
+            assertEquals(requestsBefore, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void refreshesExpiredReportOnRead() {
+        try (DataCiteHealthMonitor monitor = DataCiteHealthMonitor.builder(newClient(server, server.getRepositoryPrefix()))
+                .ttl(Duration.ofNanos(1)).build()) {
+            assertEquals(0, server.getRequestCount());
+            HealthReport report = monitor.refresh();
+            long requestsAfterRefresh = server.getRequestCount();
+
+            assertSame(report, monitor.getReport());
+            HealthReport refreshed = monitor.refreshAsync().join();
+            assertNotSame(report, refreshed);
+            assertTrue(refreshed.isHealthy());
+            assertTrue(server.getRequestCount() > requestsAfterRefresh);
+        }
+    }
+
+    @Test
+    public void runsChecksInParallelWithoutBlockingReaders() throws IOException, InterruptedException {
+        int checkCount = HealthCheckResult.Check.values().length;
+        CountDownLatch submitted = new CountDownLatch(checkCount);
+        AtomicBoolean startedTogether = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        /* each check waits until all checks are submitted, which can't happen if they run one after another */
+        Executor checkExecutor = task -> {
+            submitted.countDown();
+            pool.execute(() -> {
+                try {
+                    if (!submitted.await(5, TimeUnit.SECONDS)) {
+                        startedTogether.set(false);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                task.run();
+            });
+        };
+        try (FakeDataCiteServer slowServer = FakeDataCiteServer.builder().latency(Duration.ofMillis(300)).start();
+                DataCiteHealthMonitor monitor = DataCiteHealthMonitor.builder(newClient(slowServer, slowServer.getRepositoryPrefix()))
+                        .checkExecutor(checkExecutor).build()) {
+            assertEquals(HealthReport.Status.UNKNOWN, monitor.getReport().getStatus());
+
+            HealthReport report = monitor.refresh();
+            assertTrue(report.isHealthy());
+            assertTrue(startedTogether.get());
+            assertTrue(monitor.isHealthy());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reportsTimedOutChecks() throws IOException {
+        try (FakeDataCiteServer slowServer = FakeDataCiteServer.builder().latency(Duration.ofMillis(500)).start();
+                DataCiteHealthMonitor monitor = DataCiteHealthMonitor.builder(newClient(slowServer, slowServer.getRepositoryPrefix()))
+                        .checkTimeout(Duration.ofMillis(50)).build()) {
+            HealthReport report = monitor.refresh();
+            assertEquals(HealthReport.Status.DOWN, report.getStatus());
+            assertTrue(report.getChecks().stream().noneMatch(HealthCheckResult::isHealthy));
+        }
+    }
+
+    private static DataCiteClientImpl newClient(FakeDataCiteServer server, String repositoryPrefix) {
+        return new DataCiteClientImpl(server.getUri(), server.getUsername(), server.getPassword(), repositoryPrefix);
+    }
+
+}
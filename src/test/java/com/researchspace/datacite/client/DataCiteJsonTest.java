@@ -0,0 +1,90 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.researchspace.datacite.model.DataCiteApiError;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiRequestWrapper;
+import com.researchspace.datacite.model.DataCiteDoiSummary;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class DataCiteJsonTest {
+
+    private static final String DOI_EXAMPLE = "src/test/resources/TestResources/doi_draft_example.json";
+
+    @Test
+    public void readAllFieldsByDefault() throws IOException {
+        try (InputStream body = new FileInputStream(DOI_EXAMPLE)) {
+            DataCiteDoi doi = DataCiteJson.readDoiResponse(body, DataCiteJson.DEFAULT_READERS).getData();
+            assertEquals("10.82316/m906-wb49", doi.getId());
+            assertNotNull(doi.getAttributes().getXml());
+            assertNotNull(doi.getAttributes().getGeoLocations());
+            assertNotNull(doi.getAttributes().getUpdated());
+        }
+    }
+
+    @Test
+    public void skippedFieldsNotBound() throws IOException {
+        DataCiteJson.DoiReaders readers = DataCiteJson.readers(EnumSet.of(DoiField.XML, DoiField.GEO_LOCATIONS));
+        assertSame(readers, DataCiteJson.readers(Set.of(DoiField.GEO_LOCATIONS, DoiField.XML)));
+
+        try (InputStream body = new FileInputStream(DOI_EXAMPLE)) {
+            DataCiteDoi doi = DataCiteJson.readDoiResponse(body, readers).getData();
+            assertEquals("10.82316/m906-wb49", doi.getId());
+            assertEquals("draft", doi.getAttributes().getState());
+            assertEquals("https://www.researchspace.com/integrations", doi.getAttributes().getUrl());
+            assertNull(doi.getAttributes().getXml());
+            assertNull(doi.getAttributes().getGeoLocations());
+        }
+    }
+
+    @Test
+    public void emptyResponseReadAsNull() throws IOException {
+        DataCiteDoiRequestWrapper response = DataCiteJson.readDoiResponse(new ByteArrayInputStream(new byte[0]), DataCiteJson.DEFAULT_READERS);
+        assertNull(response);
+    }
+
+    @Test
+    public void readSparseFieldsetIntoSummary() throws IOException {
+        String json = "{\"data\":{\"id\":\"10.82316/m906-wb49\",\"type\":\"dois\","
+                + "\"attributes\":{\"state\":\"findable\",\"url\":\"https://researchspace.com\",\"updated\":\"2023-07-31T12:26:42.000Z\"},"
+                + "\"relationships\":{\"client\":{\"data\":{\"id\":\"ajfo.jijemd\",\"type\":\"clients\"}}}}}";
+        DataCiteDoiSummary summary = DataCiteJson.readDoiSummary(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("10.82316/m906-wb49", summary.getId());
+        assertEquals("findable", summary.getState());
+        assertEquals("https://researchspace.com", summary.getUrl());
+        assertNotNull(summary.getUpdated());
+        assertNull(summary.getCitationCount());
+
+        DataCiteApiUris uris = new DataCiteApiUris(URI.create("https://api.test.datacite.org/"));
+        assertEquals("https://api.test.datacite.org/dois/10.82316/m906-wb49?fields%5Bdois%5D=url,state",
+                uris.doiFields("10.82316/m906-wb49", EnumSet.of(DoiField.URL, DoiField.STATE)).toString());
+    }
+
+    @Test
+    public void readsJsonApiErrors() {
+        String body = "{\"meta\":{\"ignored\":[1,2]},\"errors\":["
+                + "{\"status\":\"422\",\"source\":\"url\",\"title\":\"can't be blank\"},"
+                + "{\"status\":422,\"source\":{\"pointer\":\"/data/attributes/doi\"},\"detail\":\"This DOI has already been taken\",\"meta\":{}}]}";
+        List<DataCiteApiError> errors = DataCiteJson.readErrors(body.getBytes(StandardCharsets.UTF_8));
+        assertEquals(List.of(new DataCiteApiError("422", "can't be blank", "url"),
+                new DataCiteApiError("422", "This DOI has already been taken", "/data/attributes/doi")), errors);
+
+        assertEquals(List.of(), DataCiteJson.readErrors("<html>Bad Gateway</html>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of(), DataCiteJson.readErrors(new byte[0]));
+        assertEquals(List.of(), DataCiteJson.readErrors("{\"data\":null}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
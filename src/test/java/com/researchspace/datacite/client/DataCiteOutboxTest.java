@@ -0,0 +1,198 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteValidationException;
+import com.researchspace.datacite.model.DoiTestMother;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DataCiteOutboxTest {
+
+    /* long enough for background draining not to interfere, tests drain explicitly */
+    private static final Duration MANUAL_DRAIN = Duration.ofHours(1);
+
+    @TempDir
+    Path tempDir;
+
+    private FakeDataCiteServer server;
+
+    private DataCiteClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeDataCiteServer.start();
+        client = new DataCiteClientImpl(server.getUri(), server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void coalescesChangesOfTheSameDoi() throws IOException {
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(client, tempDir.resolve("outbox.journal"))
+                .drainInterval(MANUAL_DRAIN).build()) {
+            DataCiteDoi doi = DoiTestMother.newDoi("10.82316/abcd-0001");
+            outbox.register(doi);
+            doi.getAttributes().setTitles(List.of(new DataCiteDoiAttributes.Title("second title")));
+            doi.setId(doi.getAttributes().getDoi());
+            outbox.update(doi);
+            doi.getAttributes().setTitles(List.of(new DataCiteDoiAttributes.Title("final title")));
+            outbox.publish(doi);
+            assertEquals(1, outbox.getPendingCount());
+
+            long requestsBefore = server.getRequestCount();
+            assertEquals(0, outbox.drain());
+            assertEquals(1, server.getRequestCount() - requestsBefore);
+
+            DataCiteDoi created = client.retrieveDoi(doi.getId());
+            assertEquals("findable", created.getAttributes().getState());
+            assertEquals("final title", created.getAttributes().getTitles().get(0).getTitle());
+        }
+    }
+
+    @Test
+    public void retriesWhileDataCiteIsUnavailable() throws IOException {
+        List<String> completed = new ArrayList<>();
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(client, tempDir.resolve("outbox.journal"))
+                .drainInterval(MANUAL_DRAIN)
+                .backoff(Duration.ZERO, Duration.ZERO)
+                .listener(new DataCiteOutbox.Listener() {
+                    @Override
+                    public void onCompleted(String doiId, DataCiteDoi result) {
+                        completed.add(doiId);
+                    }
+                })
+                .build()) {
+            outbox.register(DoiTestMother.newDoi("10.82316/abcd-0002"));
+            server.failNextRequests(1, 503);
+            assertEquals(1, outbox.drain());
+            assertEquals(0, outbox.drain());
+            assertEquals(List.of("10.82316/abcd-0002"), completed);
+            assertEquals("draft", server.getDoiState("10.82316/abcd-0002"));
+        }
+    }
+
+    @Test
+    public void pendingChangesSurviveRestart() throws IOException {
+        Path journalFile = tempDir.resolve("outbox.journal");
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(client, journalFile).drainInterval(MANUAL_DRAIN).build()) {
+            outbox.register(DoiTestMother.newDoi("10.82316/abcd-0003"));
+            outbox.register(DoiTestMother.newDoi("10.82316/abcd-0004"));
+            DataCiteDoi toPublish = DoiTestMother.newDoi("10.82316/abcd-0004");
+            toPublish.setId("10.82316/abcd-0004");
+            outbox.publish(toPublish);
+        }
+        // half-written record left by a crash is ignored
+        Files.writeString(journalFile, Files.readString(journalFile) + "{\"seq\":4,\"type\":\"UPD");
+
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(client, journalFile).drainInterval(MANUAL_DRAIN).build()) {
+            assertEquals(2, outbox.getPendingCount());
+            assertEquals(0, outbox.drain());
+        }
+        assertEquals("draft", server.getDoiState("10.82316/abcd-0003"));
+        assertEquals("findable", server.getDoiState("10.82316/abcd-0004"));
+
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(client, journalFile).drainInterval(MANUAL_DRAIN).build()) {
+            assertEquals(0, outbox.getPendingCount());
+        }
+    }
+
+    @Test
+    public void deliveredEventNotRepeatedWithNewerUpdate() throws IOException {
+        String doiId = client.publishDoi(client.registerDoi(DoiTestMother.newDoi("10.82316/abcd-0007"))).getId();
+        client.retractDoi(client.retrieveDoi(doiId));
+        // journal of an outbox stopped after retract was sent, and an update queued while it was in flight
+        Path journalFile = tempDir.resolve("outbox.journal");
+        DataCiteDoi retracted = DoiTestMother.newDoi(doiId);
+        retracted.setId(doiId);
+        DataCiteDoi updated = DoiTestMother.newDoi(doiId);
+        updated.setId(doiId);
+        updated.getAttributes().setUrl("https://researchspace.com/updated");
+        OutboxJournal journal = new OutboxJournal(journalFile, false);
+        journal.append(List.of(
+                new OutboxJournal.Record(1, OutboxJournal.RecordType.UPDATE, doiId, "hide", retracted),
+                new OutboxJournal.Record(2, OutboxJournal.RecordType.UPDATE, doiId, null, updated),
+                new OutboxJournal.Record(1, OutboxJournal.RecordType.DONE, doiId, null, null)));
+        journal.close();
+
+        List<String> sentEvents = new ArrayList<>();
+        DataCiteClient recordingClient = new DataCiteClientImpl(server.getUri(), server.getUsername(),
+                server.getPassword(), server.getRepositoryPrefix()) {
+            @Override
+            public DataCiteDoi updateDoi(DataCiteDoi doiUpdate) {
+                sentEvents.add(doiUpdate.getAttributes().getEvent());
+                return super.updateDoi(doiUpdate);
+            }
+        };
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(recordingClient, journalFile).drainInterval(MANUAL_DRAIN).build()) {
+            assertEquals(1, outbox.getPendingCount());
+            assertEquals(0, outbox.drain());
+        }
+        assertEquals(Collections.singletonList(null), sentEvents);
+        assertEquals("registered", server.getDoiState(doiId));
+    }
+
+    @Test
+    public void repeatedRegistrationFallsBackToUpdate() throws IOException {
+        client.registerDoi(DoiTestMother.newDoi("10.82316/abcd-0005"));
+        List<String> failed = new ArrayList<>();
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(client, tempDir.resolve("outbox.journal"))
+                .drainInterval(MANUAL_DRAIN)
+                .listener(new DataCiteOutbox.Listener() {
+                    @Override
+                    public void onFailed(String doiId, DataCiteDoi doi, Exception error) {
+                        failed.add(doiId);
+                    }
+                })
+                .build()) {
+            DataCiteDoi doi = DoiTestMother.newDoi("10.82316/abcd-0005");
+            doi.getAttributes().setEvent("publish");
+            outbox.register(doi);
+            assertEquals(0, outbox.drain());
+        }
+        assertEquals(List.of(), failed);
+        assertEquals("findable", server.getDoiState("10.82316/abcd-0005"));
+    }
+
+    @Test
+    public void invalidRegistrationIsNotSentAsUpdate() throws IOException {
+        List<Exception> failed = new ArrayList<>();
+        try (DataCiteOutbox outbox = DataCiteOutbox.builder(client, tempDir.resolve("outbox.journal"))
+                .drainInterval(MANUAL_DRAIN)
+                .listener(new DataCiteOutbox.Listener() {
+                    @Override
+                    public void onFailed(String doiId, DataCiteDoi doi, Exception error) {
+                        failed.add(error);
+                    }
+                })
+                .build()) {
+            DataCiteDoi doi = DoiTestMother.newDoi("10.82316/abcd-0006");
+            doi.getAttributes().setPublisher(null);
+            doi.getAttributes().setEvent("publish");
+            outbox.register(doi);
+
+            long requestsBefore = server.getRequestCount();
+            assertEquals(0, outbox.drain());
+            assertEquals(1, server.getRequestCount() - requestsBefore);
+        }
+        assertEquals(1, failed.size());
+        assertTrue(failed.get(0) instanceof DataCiteValidationException, failed.get(0).toString());
+        assertEquals("publisher", ((DataCiteValidationException) failed.get(0)).getErrors().get(0).getSource());
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DoiTestMother;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+public class DataCitePublishValidatorTest {
+
+    private final DataCitePublishValidator validator = new DataCitePublishValidator();
+
+    @Test
+    public void completeDoiHasNoViolations() {
+        DataCiteDoi doi = validDoi();
+        assertTrue(doi.isValidForPublish());
+        assertEquals(List.of(), validator.validate(doi));
+    }
+
+    @Test
+    public void reportsAllMissingRequiredProperties() {
+        List<DoiViolation> violations = validator.validate(new DataCiteDoi());
+        assertEquals(List.of("titles", "creators", "publisher", "publicationYear", "types", "url"), fields(violations));
+        assertTrue(violations.stream().allMatch(violation -> "required".equals(violation.getRule())));
+    }
+
+    @Test
+    public void reportsInvalidValues() {
+        DataCiteDoi doi = validDoi();
+        DataCiteDoiAttributes attributes = doi.getAttributes();
+        attributes.setDoi("10.123/abc");
+        attributes.setUrl("researchspace.com/landing");
+        attributes.setTypes(new DataCiteDoiAttributes.Types("Sample", "Physical Object"));
+        attributes.setDates(List.of(new DataCiteDoiAttributes.DoiDate("2023-02-30", "Available"),
+                new DataCiteDoiAttributes.DoiDate("2020-01/2021", "Expired"),
+                new DataCiteDoiAttributes.DoiDate("2023-07-31T12:00:00Z", "Created")));
+        attributes.setGeoLocations(List.of(new DataCiteDoiAttributes.GeoLocation(
+                new DataCiteDoiAttributes.GeoLocationPoint("91.5", "12,5"),
+                new DataCiteDoiAttributes.GeoLocationBox("-71.03", "-68.21", "42.89", "41.09"),
+                null,
+                List.of(new DataCiteDoiAttributes.GeoLocationPolygonPoint("41.991", "-71.032"),
+                        new DataCiteDoiAttributes.GeoLocationPolygonPoint("42.893", "-69.622"),
+                        new DataCiteDoiAttributes.GeoLocationPolygonPoint("41.000", "-70.000"),
+                        new DataCiteDoiAttributes.GeoLocationPolygonPoint("41.991", "-71.0320")))));
+
+        List<DoiViolation> violations = validator.validate(doi);
+        assertEquals(List.of("doi", "url", "types.resourceTypeGeneral", "dates[0].date", "dates[1].dateType",
+                "geoLocations[0].geoLocationPoint.pointLatitude", "geoLocations[0].geoLocationPoint.pointLongitude",
+                "geoLocations[0].geoLocationBox"), fields(violations));
+    }
+
+    @Test
+    public void customRulesCanBeAdded() {
+        List<DoiValidationRule> rules = new ArrayList<>(DataCitePublishValidator.defaultRules());
+        rules.add((doi, violations) -> {
+            if (!doi.getAttributes().getUrl().startsWith("https://researchspace.com")) {
+                violations.add(new DoiViolation("landingPage", "url", "Landing page must be in RSpace"));
+            }
+        });
+        DataCiteDoi doi = validDoi();
+        doi.getAttributes().setUrl("https://example.com");
+        assertEquals(List.of("url"), fields(new DataCitePublishValidator(rules).validate(doi)));
+    }
+
+    @Test
+    public void validatesBatchInParallel() {
+        List<DataCiteDoi> dois = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            DataCiteDoi doi = validDoi();
+            if (i % 1000 == 7) {
+                doi.getAttributes().setPublisher(" ");
+            }
+            dois.add(doi);
+        }
+        Map<Integer, List<DoiViolation>> violations = validator.validateAll(dois);
+        assertEquals(List.of(7, 1007, 2007, 3007, 4007), new ArrayList<>(violations.keySet()));
+        assertEquals(List.of("publisher"), fields(violations.get(7)));
+    }
+
+    private static List<String> fields(List<DoiViolation> violations) {
+        return violations.stream().map(DoiViolation::getField).collect(Collectors.toList());
+    }
+
+    private static DataCiteDoi validDoi() {
+        DataCiteDoi doi = DoiTestMother.newDoi();
+        doi.getAttributes().setDates(List.of(new DataCiteDoiAttributes.DoiDate("2023-07-31", "Available")));
+        doi.getAttributes().setDescriptions(List.of(new DataCiteDoiAttributes.Description("Sample", "Abstract")));
+        doi.getAttributes().setGeoLocations(List.of(new DataCiteDoiAttributes.GeoLocation(
+                new DataCiteDoiAttributes.GeoLocationPoint("52.2", "21.0"), null, "Warsaw", null)));
+        return doi;
+    }
+
+}
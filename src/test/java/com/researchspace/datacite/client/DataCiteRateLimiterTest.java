@@ -0,0 +1,72 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+public class DataCiteRateLimiterTest {
+
+    @Test
+    public void burstIsServedImmediatelyThenRequestsAreSpaced() {
+        DataCiteRateLimiter limiter = new DataCiteRateLimiter(10, 2, 1);
+        long now = System.nanoTime();
+        assertEquals(0, limiter.reserve(now));
+        assertEquals(0, limiter.reserve(now));
+
+        // third request waits for next token, i.e. ~100ms at 10 requests/s
+        long wait = limiter.reserve(now);
+        assertTrue(wait > Duration.ofMillis(90).toNanos() && wait <= Duration.ofMillis(110).toNanos(), "wait was " + wait);
+        // fourth is queued behind the third
+        assertTrue(limiter.reserve(now) > wait);
+    }
+
+    @Test
+    public void throttlingPausesAndSlowsDownUntilRecovered() {
+        DataCiteRateLimiter limiter = new DataCiteRateLimiter(10, 10, 1);
+        limiter.onThrottled(Duration.ofSeconds(2));
+        assertEquals(5, limiter.getCurrentRequestsPerSecond(), 0.001);
+        assertTrue(limiter.reserve(System.nanoTime()) > Duration.ofMillis(1900).toNanos());
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onAccepted(-1, -1);
+        }
+        assertEquals(10, limiter.getCurrentRequestsPerSecond(), 0.001);
+
+        // low remaining quota slows down again
+        limiter.onAccepted(5, 3000);
+        assertEquals(9, limiter.getCurrentRequestsPerSecond(), 0.001);
+    }
+
+    @Test
+    public void requestsQueuedDuringPauseAreSpacedAfterIt() {
+        DataCiteRateLimiter limiter = new DataCiteRateLimiter(10, 10, 1);
+        limiter.onThrottled(Duration.ofSeconds(2));
+        long now = System.nanoTime();
+        long first = limiter.reserve(now);
+        assertTrue(first > Duration.ofMillis(1900).toNanos() && first <= Duration.ofSeconds(2).toNanos(), "wait was " + first);
+
+        // later reservations during the pause don't get extra permits, and go at the halved rate of 5 requests/s
+        long later = now + Duration.ofMillis(500).toNanos();
+        for (int i = 1; i <= 3; i++) {
+            long expectedStart = now + first + i * Duration.ofMillis(200).toNanos();
+            assertEquals(expectedStart - later, limiter.reserve(later), Duration.ofMillis(1).toNanos());
+        }
+    }
+
+    @Test
+    public void parseRetryAfterHeader() {
+        HttpHeaders headers = new HttpHeaders();
+        assertNull(DataCiteRateLimiter.parseRetryAfter(headers));
+        headers.set(HttpHeaders.RETRY_AFTER, "120");
+        assertEquals(Duration.ofSeconds(120), DataCiteRateLimiter.parseRetryAfter(headers));
+        headers.set(HttpHeaders.RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT");
+        assertEquals(Duration.ZERO, DataCiteRateLimiter.parseRetryAfter(headers));
+        headers.set(HttpHeaders.RETRY_AFTER, "soon");
+        assertNull(DataCiteRateLimiter.parseRetryAfter(headers));
+    }
+
+}
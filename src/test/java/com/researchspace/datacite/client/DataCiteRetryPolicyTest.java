@@ -0,0 +1,70 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.DataCiteConnectionException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+public class DataCiteRetryPolicyTest {
+
+    private final DataCiteRetryPolicy policy = DataCiteRetryPolicy.builder()
+            .maxAttempts(4)
+            .initialBackoff(Duration.ofMillis(100))
+            .multiplier(2)
+            .maxBackoff(Duration.ofMillis(300))
+            .jitter(0)
+            .maxElapsed(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    public void backoffGrowsUntilMaxAttempts() {
+        Exception serverError = new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        assertEquals(Duration.ofMillis(100), policy.nextDelay(1, serverError, Duration.ZERO, true));
+        assertEquals(Duration.ofMillis(200), policy.nextDelay(2, serverError, Duration.ZERO, true));
+        assertEquals(Duration.ofMillis(300), policy.nextDelay(3, serverError, Duration.ZERO, true));
+        assertNull(policy.nextDelay(4, serverError, Duration.ZERO, true));
+        // elapsed budget exceeded
+        assertNull(policy.nextDelay(1, serverError, Duration.ofSeconds(5), true));
+    }
+
+    @Test
+    public void retryAfterHeaderExtendsDelay() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "2");
+        Exception tooManyRequests = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", headers, null, null);
+        assertEquals(Duration.ofSeconds(2), policy.nextDelay(1, tooManyRequests, Duration.ZERO, false));
+    }
+
+    @Test
+    public void nonIdempotentCallsRetriedOnlyIfNotProcessed() {
+        Exception readTimeout = new ResourceAccessException("timeout", new SocketTimeoutException());
+        Exception connectionRefused = new ResourceAccessException("refused", new ConnectException());
+        Exception internalError = new DataCiteConnectionException("wrapped",
+                new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+        Exception unavailable = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertTrue(policy.isRetryable(readTimeout, true));
+        assertFalse(policy.isRetryable(readTimeout, false));
+        assertTrue(policy.isRetryable(internalError, true));
+        assertFalse(policy.isRetryable(internalError, false));
+        assertTrue(policy.isRetryable(connectionRefused, false));
+        assertTrue(policy.isRetryable(unavailable, false));
+        assertNotNull(policy.nextDelay(1, unavailable, Duration.ZERO, false));
+
+        assertFalse(policy.isRetryable(new HttpClientErrorException(HttpStatus.UNPROCESSABLE_ENTITY), true));
+        assertNull(DataCiteRetryPolicy.NONE.nextDelay(1, unavailable, Duration.ZERO, true));
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.researchspace.datacite.model.CreatorTestMother;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteDoiAttributes.GeoLocation;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class DataCiteXmlCodecTest {
+
+    private static final String DOI_EXAMPLE = "src/test/resources/TestResources/doi_draft_example.json";
+
+    private final DataCiteXmlCodec codec = new DataCiteXmlCodec();
+
+    @Test
+    public void readsXmlReturnedByDataCite() throws IOException {
+        DataCiteDoi doi;
+        try (InputStream body = new FileInputStream(DOI_EXAMPLE)) {
+            doi = DataCiteJson.readDoiResponse(body, DataCiteJson.DEFAULT_READERS).getData();
+        }
+        DataCiteDoiAttributes fromXml = codec.fromBase64(doi.getAttributes().getXml());
+        assertEquals("10.82316/M906-WB49", fromXml.getDoi());
+        assertEquals("MK", fromXml.getCreators().get(0).getName());
+        assertEquals("test title", fromXml.getTitles().get(0).getTitle());
+        assertEquals("ResearchSpace", fromXml.getPublisher());
+        assertEquals(2023, fromXml.getPublicationYear());
+        assertEquals(new DataCiteDoiAttributes.Types("CreativeWork", "Other"), fromXml.getTypes());
+        assertEquals(doi.getAttributes().getSubjects().get(0).getSubject(), fromXml.getSubjects().get(0).getSubject());
+        assertEquals(doi.getAttributes().getDates(), fromXml.getDates());
+        assertEquals(doi.getAttributes().getAlternateIdentifiers(), fromXml.getAlternateIdentifiers());
+        assertEquals(doi.getAttributes().getDescriptions(), fromXml.getDescriptions());
+        assertNull(fromXml.getVersion());
+    }
+
+    @Test
+    public void roundTripsAllConvertedProperties() {
+        DataCiteDoiAttributes attributes = fullAttributes();
+        DataCiteDoiAttributes fromXml = codec.fromXml(codec.toXml(attributes));
+        assertEquals(attributes, fromXml);
+
+        assertEquals(attributes, codec.fromBase64(codec.toBase64(attributes)));
+    }
+
+    @Test
+    public void populatesXmlAttribute() {
+        DataCiteDoiAttributes first = fullAttributes();
+        DataCiteDoiAttributes second = fullAttributes();
+        second.setDoi("10.82316/abcd-0002");
+        codec.populateXml(List.of(first, second));
+        assertEquals("10.82316/abcd-0001", codec.fromBase64(first.getXml()).getDoi());
+        assertEquals("10.82316/abcd-0002", codec.fromBase64(second.getXml()).getDoi());
+    }
+
+    @Test
+    public void skipsUnknownElements() {
+        String xml = "<resource xmlns=\"http://datacite.org/schema/kernel-4\">"
+                + "<identifier identifierType=\"DOI\">10.82316/abcd</identifier>"
+                + "<creators><creator><creatorName>Doe, John</creatorName><givenName>John</givenName>"
+                + "<nameIdentifier nameIdentifierScheme=\"ORCID\">0000-0001</nameIdentifier></creator></creators>"
+                + "<rightsList><rights>CC-BY</rights></rightsList>"
+                + "<descriptions><description descriptionType=\"Abstract\">line 1<br/>line 2</description></descriptions>"
+                + "</resource>";
+        DataCiteDoiAttributes fromXml = codec.fromXml(xml);
+        assertEquals("10.82316/abcd", fromXml.getDoi());
+        assertEquals(List.of(new DataCiteDoiAttributes.Creator("Doe, John", null)), fromXml.getCreators());
+        assertEquals("line 1line 2", fromXml.getDescriptions().get(0).getDescription());
+    }
+
+    @Test
+    public void rejectsOtherDocuments() {
+        assertThrows(IllegalArgumentException.class, () -> codec.fromXml("<html><body/></html>"));
+        assertThrows(IllegalArgumentException.class, () -> codec.fromXml("<resource><titles>"));
+    }
+
+    @Test
+    public void handlesLargeLists() {
+        DataCiteDoiAttributes attributes = fullAttributes();
+        List<DataCiteDoiAttributes.Creator> creators = new ArrayList<>();
+        List<GeoLocation> geoLocations = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            creators.add(new DataCiteDoiAttributes.Creator("Creator " + i, "Personal"));
+            geoLocations.add(new GeoLocation(new DataCiteDoiAttributes.GeoLocationPoint(String.valueOf(i % 90), "10"), null, null, null));
+        }
+        attributes.setCreators(creators);
+        attributes.setGeoLocations(geoLocations);
+
+        String base64 = codec.toBase64(attributes);
+        DataCiteDoiAttributes fromXml = codec.fromBase64(base64);
+        assertEquals(creators, fromXml.getCreators());
+        assertEquals(geoLocations, fromXml.getGeoLocations());
+
+        // the enlarged buffer isn't kept, following small records still convert fine
+        assertEquals(fullAttributes(), codec.fromXml(codec.toXml(fullAttributes())));
+    }
+
+    private static DataCiteDoiAttributes fullAttributes() {
+        DataCiteDoiAttributes attributes = new DataCiteDoiAttributes();
+        attributes.setDoi("10.82316/abcd-0001");
+        attributes.setCreators(List.of(CreatorTestMother.creatorWithAfilliations(),
+                new DataCiteDoiAttributes.Creator("Doe, Jane", "Personal")));
+        attributes.setTitles(List.of(new DataCiteDoiAttributes.Title("Title with <markup> & \"quotes\"")));
+        attributes.setPublisher("ResearchSpace");
+        attributes.setPublicationYear(2023);
+        attributes.setTypes(new DataCiteDoiAttributes.Types("Sample", "PhysicalObject"));
+        attributes.setSubjects(List.of(new DataCiteDoiAttributes.Subject("FOS: Computer and information sciences",
+                "Fields of Science and Technology (FOS)", "http://www.oecd.org/science/inno/38235147.pdf", null, "1.2")));
+        attributes.setDates(List.of(new DataCiteDoiAttributes.DoiDate("2023-07-31", "Available")));
+        attributes.setAlternateIdentifiers(List.of(new DataCiteDoiAttributes.AlternateIdentifier("SA256", "RSpace Global ID")));
+        attributes.setVersion("2");
+        attributes.setDescriptions(List.of(new DataCiteDoiAttributes.Description("Description \u0105\u0119", "Abstract")));
+        attributes.setGeoLocations(List.of(new GeoLocation(
+                new DataCiteDoiAttributes.GeoLocationPoint("52.2", "21.0"),
+                new DataCiteDoiAttributes.GeoLocationBox("-71.03", "-68.21", "41.09", "42.89"),
+                "Atlantic Ocean",
+                List.of(new DataCiteDoiAttributes.GeoLocationPolygonPoint("41.991", "-71.032"),
+                        new DataCiteDoiAttributes.GeoLocationPolygonPoint("42.893", "-69.622"),
+                        new DataCiteDoiAttributes.GeoLocationPolygonPoint("41.991", "-71.032")))));
+        return attributes;
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.researchspace.datacite.model.DataCiteDoi;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
+
+public class DoiPageIteratorTest {
+
+    private static String pageJson(String nextLink, String... ids) {
+        String data = Stream.of(ids)
+                .map(id -> "{\"id\":\"" + id + "\",\"type\":\"dois\",\"attributes\":{\"doi\":\"" + id + "\",\"state\":\"findable\"}}")
+                .collect(Collectors.joining(","));
+        String links = nextLink != null ? "{\"self\":\"x\",\"next\":\"" + nextLink + "\"}" : "{\"self\":\"x\"}";
+        return "{\"data\":[" + data + "],\"meta\":{\"total\":5,\"states\":[{\"id\":\"findable\"}]},\"links\":" + links + "}";
+    }
+
+    private static DataCiteJson.DoiPage readPage(String json) {
+        try {
+            return DataCiteJson.readDoiPage(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), DataCiteJson.DEFAULT_READERS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    public void readsPageIncrementally() {
+        DataCiteJson.DoiPage page = readPage(pageJson("https://api.test.datacite.org/dois?page%5Bcursor%5D=abc", "10.1/a", "10.1/b"));
+        assertEquals(2, page.dois.size());
+        assertEquals("10.1/b", page.dois.get(1).getId());
+        assertEquals("findable", page.dois.get(1).getAttributes().getState());
+        assertEquals("https://api.test.datacite.org/dois?page%5Bcursor%5D=abc", page.nextLink);
+
+        assertNull(readPage(pageJson(null)).nextLink);
+    }
+
+    @Test
+    public void iteratesOverAllPages() {
+        DoiPageIterator iterator = new DoiPageIterator("page1", link -> {
+            switch (link) {
+                case "page1": return readPage(pageJson("page2", "10.1/a", "10.1/b"));
+                case "page2": return readPage(pageJson("page3", "10.1/c", "10.1/d"));
+                case "page3": return readPage(pageJson(null, "10.1/e"));
+                default: throw new IllegalArgumentException(link);
+            }
+        }, DoiPageIterator.DEFAULT_PREFETCH_EXECUTOR);
+
+        List<String> ids = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .map(DataCiteDoi::getId)
+                .collect(Collectors.toList());
+        assertEquals(List.of("10.1/a", "10.1/b", "10.1/c", "10.1/d", "10.1/e"), ids);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void pageLinksResolvedAgainstConfiguredHost() {
+        DataCiteApiUris uris = new DataCiteApiUris(URI.create("https://api.test.datacite.org/"));
+        assertEquals("https://api.test.datacite.org/dois?page%5Bcursor%5D=abc&page%5Bsize%5D=10",
+                uris.pageLink("https://api.datacite.org/dois?page%5Bcursor%5D=abc&page%5Bsize%5D=10").toString());
+        assertEquals("https://api.test.datacite.org/dois?prefix=10.82316&page%5Bcursor%5D=1&page%5Bsize%5D=50&affiliation=true",
+                uris.doisPage("10.82316", 50).toString());
+    }
+
+}
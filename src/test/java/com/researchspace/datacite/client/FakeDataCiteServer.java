@@ -0,0 +1,810 @@
+package com.researchspace.datacite.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+
+/**
+ * In-memory stand-in for the parts of DataCite REST API used by the client: '/dois' CRUD with
+ * draft/registered/findable state transitions, cursor pagination, 'updated' range query with sorting by
+ * 'updated' and sparse fieldsets, '/heartbeat' and '/client-prefixes'. Runs on JDK HttpServer on a random local port.
+ *
+ * Gzip-compressed request bodies are accepted, and responses are gzip-compressed for clients accepting it.
+ *
+ * Latency, error responses (429/500) and maximum throughput can be configured, so the server can be used
+ * for offline integration and load tests of the client. Requests can be held with {@link #holdRequests()}
+ * to keep calls in flight for concurrency tests. Available to other projects in the test-jar:
+ *
+ * <pre>
+ * try (FakeDataCiteServer server = FakeDataCiteServer.builder().latency(Duration.ofMillis(50)).start()) {
+ *     DataCiteClient client = new DataCiteClientImpl(server.getUri(), server.getUsername(),
+ *             server.getPassword(), server.getRepositoryPrefix());
+ *     ...
+ * }
+ * </pre>
+ */
+public class FakeDataCiteServer implements AutoCloseable {
+
+    private static final String JSON_API = "application/vnd.api+json; charset=utf-8";
+
+    private static final Pattern UPDATED_QUERY = Pattern.compile("updated:\\[(\\S+) TO \\*\\]");
+
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    /* metadata that DataCite requires before DOI can leave draft state */
+    private static final List<String> REQUIRED_FOR_REGISTRATION =
+            List.of("titles", "creators", "publisher", "publicationYear", "types", "url");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String username;
+    private final String password;
+    private final String repositoryPrefix;
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final double tooManyRequestsRate;
+    private final double serverErrorRate;
+    private final double maxRequestsPerSecond;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /* DOIs by lower-case id, sorted so pagination cursor is stable */
+    private final ConcurrentSkipListMap<String, ObjectNode> dois = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong compressedRequestCount = new AtomicLong();
+    private final AtomicLong compressedResponseCount = new AtomicLong();
+    private final AtomicLong notModifiedResponseCount = new AtomicLong();
+    private final AtomicInteger forcedErrorsLeft = new AtomicInteger();
+    private volatile int forcedErrorStatus;
+
+    /* while set, arriving requests wait for it and are counted in heldRequests */
+    private volatile CountDownLatch requestGate;
+    private final Semaphore heldRequests = new Semaphore(0);
+
+    /* fixed one-second window of throughput limit */
+    private long windowStartNanos = System.nanoTime();
+    private int windowRequests;
+
+    private FakeDataCiteServer(Builder builder) throws IOException {
+        this.username = builder.username;
+        this.password = builder.password;
+        this.repositoryPrefix = builder.repositoryPrefix;
+        this.latency = builder.latency;
+        this.latencyJitter = builder.latencyJitter;
+        this.tooManyRequestsRate = builder.tooManyRequestsRate;
+        this.serverErrorRate = builder.serverErrorRate;
+        this.maxRequestsPerSecond = builder.maxRequestsPerSecond;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-datacite");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", builder.port), builder.backlog);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return server started with default settings: no latency, no errors
+     */
+    public static FakeDataCiteServer start() throws IOException {
+        return builder().start();
+    }
+
+    public URI getUri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getRepositoryPrefix() {
+        return repositoryPrefix;
+    }
+
+    /**
+     * @return number of requests received so far, including rejected ones
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return number of requests received with gzip-compressed body
+     */
+    public long getCompressedRequestCount() {
+        return compressedRequestCount.get();
+    }
+
+    /**
+     * @return number of responses sent with gzip-compressed body, to clients accepting gzip encoding
+     */
+    public long getCompressedResponseCount() {
+        return compressedResponseCount.get();
+    }
+
+    /**
+     * @return number of 304 responses to conditional DOI retrievals
+     */
+    public long getNotModifiedResponseCount() {
+        return notModifiedResponseCount.get();
+    }
+
+    /**
+     * @return number of DOIs currently stored
+     */
+    public int getDoiCount() {
+        return dois.size();
+    }
+
+    /**
+     * @return state of stored DOI ('draft', 'registered' or 'findable'), or null if there is no such DOI
+     */
+    public String getDoiState(String doiId) {
+        ObjectNode doi = dois.get(doiId.toLowerCase());
+        return doi != null ? doi.path("attributes").path("state").asText(null) : null;
+    }
+
+    /**
+     * Makes the server respond with given status to the next requests, regardless of configured error rates.
+     */
+    public void failNextRequests(int count, int status) {
+        forcedErrorStatus = status;
+        forcedErrorsLeft.set(count);
+    }
+
+    /**
+     * Holds requests arriving from now on until {@link #releaseRequests()}, so tests can keep calls in flight
+     * without relying on latency.
+     */
+    public void holdRequests() {
+        requestGate = new CountDownLatch(1);
+    }
+
+    /**
+     * Waits until given number of requests arrived while holding requests.
+     *
+     * @return false if they didn't arrive within the timeout
+     */
+    public boolean awaitHeldRequests(int count, Duration timeout) throws InterruptedException {
+        return heldRequests.tryAcquire(count, timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Lets held requests, and requests arriving from now on, through.
+     */
+    public void releaseRequests() {
+        CountDownLatch gate = requestGate;
+        requestGate = null;
+        if (gate != null) {
+            gate.countDown();
+        }
+    }
+
+    /**
+     * Removes all stored DOIs.
+     */
+    public void reset() {
+        dois.clear();
+    }
+
+    @Override
+    public void close() {
+        releaseRequests();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            byte[] body = requestBody.readAllBytes();
+            if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                try (InputStream decompressed = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                    body = decompressed.readAllBytes();
+                }
+                compressedRequestCount.incrementAndGet();
+            }
+            awaitRequestGate();
+            simulateLatency();
+            Response response = injectedError();
+            if (response == null) {
+                response = route(exchange, body);
+            }
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            send(exchange, response, acceptEncoding != null && acceptEncoding.contains("gzip"));
+        } catch (Exception e) {
+            send(exchange, error(500, "Internal Server Error", e.toString()), false);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void awaitRequestGate() throws InterruptedException {
+        CountDownLatch gate = requestGate;
+        if (gate != null) {
+            heldRequests.release();
+            gate.await();
+        }
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        long delayMillis = latency.toMillis();
+        if (!latencyJitter.isZero()) {
+            delayMillis += ThreadLocalRandom.current().nextLong(latencyJitter.toMillis() + 1);
+        }
+        if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+        }
+    }
+
+    private Response injectedError() {
+        if (forcedErrorsLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+            return forcedErrorStatus == 429 ? tooManyRequests() : error(forcedErrorStatus, "Injected error", null);
+        }
+        if (maxRequestsPerSecond > 0 && !acquireThroughputPermit()) {
+            return tooManyRequests();
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        if (random < tooManyRequestsRate) {
+            return tooManyRequests();
+        }
+        if (random < tooManyRequestsRate + serverErrorRate) {
+            return error(500, "Internal Server Error", null);
+        }
+        return null;
+    }
+
+    private synchronized boolean acquireThroughputPermit() {
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= 1_000_000_000L) {
+            windowStartNanos = now;
+            windowRequests = 0;
+        }
+        return ++windowRequests <= maxRequestsPerSecond;
+    }
+
+    private Response route(HttpExchange exchange, byte[] body) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = StringUtils.removeEnd(exchange.getRequestURI().getPath(), "/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        if ("/heartbeat".equals(path)) {
+            return new Response(200, "text/plain", "OK".getBytes(StandardCharsets.UTF_8));
+        }
+        if ("/client-prefixes".equals(path)) {
+            return clientPrefixes(query);
+        }
+        if ("/dois".equals(path)) {
+            if ("POST".equals(method)) {
+                return authorized(exchange) ? createDoi(body) : notFound();
+            }
+            if ("GET".equals(method)) {
+                return listDois(exchange, query);
+            }
+            return error(405, "Method Not Allowed", null);
+        }
+        if (path.startsWith("/dois/")) {
+            String doiId = URLDecoder.decode(path.substring("/dois/".length()), StandardCharsets.UTF_8).toLowerCase();
+            switch (method) {
+                case "GET":
+                    return retrieveDoi(exchange, doiId, query);
+                case "PUT":
+                    return authorized(exchange) ? updateDoi(doiId, body) : notFound();
+                case "DELETE":
+                    return authorized(exchange) ? deleteDoi(doiId) : notFound();
+                default:
+                    return error(405, "Method Not Allowed", null);
+            }
+        }
+        return notFound();
+    }
+
+    private boolean authorized(HttpExchange exchange) {
+        String expected = "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        return expected.equals(exchange.getRequestHeaders().getFirst("Authorization"));
+    }
+
+    private Response clientPrefixes(Map<String, String> query) throws IOException {
+        boolean matches = username.equals(query.get("client-id")) && repositoryPrefix.equals(query.get("prefix-id"));
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode data = response.putArray("data");
+        if (matches) {
+            ObjectNode clientPrefix = data.addObject();
+            clientPrefix.put("id", UUID.nameUUIDFromBytes((username + repositoryPrefix).getBytes(StandardCharsets.UTF_8)).toString());
+            clientPrefix.put("type", "client-prefixes");
+        }
+        response.putObject("meta").put("total", matches ? 1 : 0);
+        return json(200, response);
+    }
+
+    private Response createDoi(byte[] body) throws IOException {
+        ObjectNode data = readData(body);
+        if (data == null) {
+            return error(400, "Bad Request", "Request body is not a valid DOI");
+        }
+        ObjectNode attributes = data.with("attributes");
+        String prefix = attributes.path("prefix").asText("");
+        if (!repositoryPrefix.equals(prefix)) {
+            return error(403, "You are not authorized to access this resource.", null);
+        }
+        String suffix = attributes.path("suffix").asText("");
+        String doiId = attributes.path("doi").asText("");
+        if (doiId.isEmpty()) {
+            doiId = prefix + "/" + (suffix.isEmpty() ? generateSuffix() : suffix);
+        }
+        String key = doiId.toLowerCase();
+        synchronized (dois) {
+            if (dois.containsKey(key)) {
+                return error(422, "This DOI has already been taken", "doi");
+            }
+            String now = DATE_FORMAT.format(Instant.now());
+            ObjectNode doi = objectMapper.createObjectNode();
+            doi.put("id", key);
+            doi.put("type", "dois");
+            doi.set("attributes", attributes);
+            doi.set("relationships", objectMapper.createObjectNode());
+            attributes.put("doi", key);
+            attributes.put("prefix", prefix);
+            attributes.put("suffix", key.substring(prefix.length() + 1));
+            attributes.put("state", "draft");
+            attributes.put("created", now);
+            attributes.put("updated", now);
+            attributes.putNull("registered");
+            Response invalid = applyEvent(doi, attributes.path("event").asText(null));
+            if (invalid != null) {
+                return invalid;
+            }
+            dois.put(key, doi);
+            return doiResponse(201, doi);
+        }
+    }
+
+    private Response retrieveDoi(HttpExchange exchange, String doiId, Map<String, String> query) throws IOException {
+        ObjectNode doi = dois.get(doiId);
+        if (doi == null) {
+            return notFound();
+        }
+        String eTag = eTag(doi);
+        if (isNotModified(exchange, doi, eTag)) {
+            notModifiedResponseCount.incrementAndGet();
+            Response notModified = new Response(304, null, new byte[0]);
+            notModified.headers.put("ETag", eTag);
+            return notModified;
+        }
+        String fields = query.get("fields[dois]");
+        if (fields != null) {
+            ObjectNode sparse = doi.deepCopy();
+            Set<String> requested = Set.of(fields.split(","));
+            sparse.with("attributes").retain(requested);
+            sparse.remove("relationships");
+            return doiResponse(200, sparse);
+        }
+        return doiResponse(200, doi);
+    }
+
+    private Response listDois(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String prefix = query.get("prefix");
+        int pageSize = Math.min(1000, Integer.parseInt(query.getOrDefault("page[size]", "25")));
+        String cursor = query.getOrDefault("page[cursor]", "1");
+        String after = "1".equals(cursor) ? "" : new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String searchQuery = query.get("query");
+        Instant updatedSince = searchQuery != null ? parseUpdatedSince(searchQuery) : null;
+        boolean sortedByUpdated = "updated".equals(query.get("sort"));
+
+        /* DOIs in listing order, keyed by their position in the listing, which is used as cursor */
+        NavigableMap<String, ObjectNode> listed = dois;
+        if (updatedSince != null || sortedByUpdated) {
+            listed = new TreeMap<>();
+            for (ObjectNode doi : dois.values()) {
+                String updated = doi.path("attributes").path("updated").asText();
+                if (updatedSince == null || !Instant.parse(updated).isBefore(updatedSince)) {
+                    listed.put((sortedByUpdated ? updated + " " : "") + doi.path("id").asText(), doi);
+                }
+            }
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode data = response.putArray("data");
+        String lastKey = null;
+        Iterator<Map.Entry<String, ObjectNode>> entries = listed.tailMap(after, false).entrySet().iterator();
+        while (entries.hasNext() && data.size() < pageSize) {
+            Map.Entry<String, ObjectNode> entry = entries.next();
+            if (prefix == null || entry.getValue().path("id").asText().startsWith(prefix.toLowerCase() + "/")) {
+                data.add(entry.getValue());
+                lastKey = entry.getKey();
+            }
+        }
+        ObjectNode links = response.putObject("links");
+        if (data.size() == pageSize && entries.hasNext()) {
+            String nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(lastKey.getBytes(StandardCharsets.UTF_8));
+            links.put("next", getUri().resolve("/dois?page%5Bcursor%5D=" + nextCursor + "&page%5Bsize%5D=" + pageSize
+                    + (prefix != null ? "&prefix=" + prefix : "")
+                    + (searchQuery != null ? "&query=" + URLEncoder.encode(searchQuery, StandardCharsets.UTF_8) : "")
+                    + (sortedByUpdated ? "&sort=updated" : "")).toString());
+        }
+        response.putObject("meta").put("total", listed.size());
+        return json(200, response);
+    }
+
+    /* only 'updated:[<timestamp> TO *]' search query is supported */
+    private static Instant parseUpdatedSince(String searchQuery) {
+        Matcher matcher = UPDATED_QUERY.matcher(searchQuery);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported query " + searchQuery);
+        }
+        return Instant.parse(matcher.group(1).replace("\\:", ":"));
+    }
+
+    private Response updateDoi(String doiId, byte[] body) throws IOException {
+        ObjectNode data = readData(body);
+        if (data == null) {
+            return error(400, "Bad Request", "Request body is not a valid DOI");
+        }
+        synchronized (dois) {
+            ObjectNode existing = dois.get(doiId);
+            if (existing == null) {
+                return notFound();
+            }
+            ObjectNode updated = existing.deepCopy();
+            ObjectNode attributes = updated.with("attributes");
+            /* client sends unset attributes as nulls (or zeros), these don't overwrite stored values */
+            data.with("attributes").fields().forEachRemaining(field -> {
+                JsonNode value = field.getValue();
+                boolean unset = value.isNull() || (value.isNumber() && value.asDouble() == 0);
+                if (!unset && !isReadOnly(field.getKey())) {
+                    attributes.set(field.getKey(), field.getValue());
+                }
+            });
+            attributes.put("updated", DATE_FORMAT.format(Instant.now()));
+            Response invalid = applyEvent(updated, data.path("attributes").path("event").asText(null));
+            if (invalid != null) {
+                return invalid;
+            }
+            attributes.remove("event");
+            dois.put(doiId, updated);
+            return doiResponse(200, updated);
+        }
+    }
+
+    private Response deleteDoi(String doiId) {
+        synchronized (dois) {
+            ObjectNode existing = dois.get(doiId);
+            if (existing == null) {
+                return notFound();
+            }
+            if (!"draft".equals(existing.path("attributes").path("state").asText())) {
+                return error(405, "This DOI is registered and can't be deleted.", null);
+            }
+            dois.remove(doiId);
+            return new Response(204, null, new byte[0]);
+        }
+    }
+
+    /** Moves DOI to the state requested by the event, returns error response if transition is not allowed */
+    private Response applyEvent(ObjectNode doi, String event) {
+        ObjectNode attributes = (ObjectNode) doi.get("attributes");
+        attributes.remove("event");
+        if (event == null || event.isEmpty()) {
+            return null;
+        }
+        String state = attributes.path("state").asText();
+        String newState;
+        switch (event) {
+            case "publish":
+                newState = "findable";
+                break;
+            case "register":
+                newState = "findable".equals(state) ? state : "registered";
+                break;
+            case "hide":
+                if ("draft".equals(state)) {
+                    return error(422, "Draft DOI can't be hidden", "event");
+                }
+                newState = "registered";
+                break;
+            default:
+                return error(422, "Unknown event " + event, "event");
+        }
+        if ("draft".equals(state)) {
+            for (String field : REQUIRED_FOR_REGISTRATION) {
+                JsonNode value = attributes.get(field);
+                if (value == null || value.isNull() || (value.isContainerNode() && value.size() == 0)
+                        || (value.isTextual() && value.asText().isEmpty()) || (value.isInt() && value.asInt() == 0)) {
+                    return error(422, "can't be blank", field);
+                }
+            }
+            attributes.put("registered", DATE_FORMAT.format(Instant.now()));
+        }
+        attributes.put("state", newState);
+        attributes.put("isActive", "findable".equals(newState));
+        return null;
+    }
+
+    private static boolean isReadOnly(String attribute) {
+        return Set.of("doi", "prefix", "suffix", "state", "isActive", "created", "updated", "registered").contains(attribute);
+    }
+
+    private ObjectNode readData(byte[] body) throws IOException {
+        JsonNode request = body.length > 0 ? objectMapper.readTree(body) : null;
+        JsonNode data = request != null ? request.get("data") : null;
+        return data instanceof ObjectNode ? (ObjectNode) data : null;
+    }
+
+    private String generateSuffix() {
+        String random = Long.toString(ThreadLocalRandom.current().nextLong(36L * 36 * 36 * 36 * 36 * 36 * 36 * 36), 36);
+        String padded = StringUtils.leftPad(random, 8, '0');
+        return padded.substring(0, 4) + "-" + padded.substring(4);
+    }
+
+    /* If-None-Match takes precedence, If-Modified-Since is evaluated only without it, as in RFC 7232 */
+    private boolean isNotModified(HttpExchange exchange, ObjectNode doi, String eTag) {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return eTag.equals(ifNoneMatch);
+        }
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        Instant since = Instant.from(DateTimeFormatter.RFC_1123_DATE_TIME.parse(ifModifiedSince));
+        return !lastModified(doi).isAfter(since);
+    }
+
+    /* HTTP dates have one-second precision */
+    private static Instant lastModified(ObjectNode doi) {
+        return Instant.from(DATE_FORMAT.parse(doi.path("attributes").path("updated").asText()))
+                .truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private String eTag(ObjectNode doi) {
+        return "W/\"" + Integer.toHexString(doi.hashCode()) + "\"";
+    }
+
+    private Response doiResponse(int status, ObjectNode doi) throws IOException {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("data", doi);
+        Response result = json(status, response);
+        result.headers.put("ETag", eTag(doi));
+        if (doi.path("attributes").hasNonNull("updated")) {
+            result.headers.put("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    lastModified(doi).atOffset(ZoneOffset.UTC)));
+        }
+        return result;
+    }
+
+    private Response json(int status, JsonNode body) throws IOException {
+        return new Response(status, JSON_API, objectMapper.writeValueAsBytes(body));
+    }
+
+    private Response notFound() {
+        return error(404, "The resource you are looking for doesn't exist.", null);
+    }
+
+    private Response tooManyRequests() {
+        Response response = error(429, "Too Many Requests", null);
+        response.headers.put("Retry-After", "1");
+        return response;
+    }
+
+    private Response error(int status, String title, String source) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ObjectNode error = response.putArray("errors").addObject();
+        error.put("status", String.valueOf(status));
+        if (source != null) {
+            error.put("source", source);
+        }
+        error.put("title", title);
+        try {
+            return json(status, response);
+        } catch (IOException e) {
+            return new Response(status, null, new byte[0]);
+        }
+    }
+
+    private void send(HttpExchange exchange, Response response, boolean gzip) throws IOException {
+        if (response.contentType != null) {
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        }
+        response.headers.forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        byte[] body = response.body;
+        if (gzip && body.length > 0) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream compressing = new GZIPOutputStream(compressed)) {
+                compressing.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            compressedResponseCount.incrementAndGet();
+        }
+        boolean noBody = body.length == 0;
+        exchange.sendResponseHeaders(response.status, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery != null) {
+            for (String param : rawQuery.split("&")) {
+                int eq = param.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? param : param.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8);
+                params.put(name, value);
+            }
+        }
+        return params;
+    }
+
+    private static class Response {
+
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        Response(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    public static class Builder {
+
+        private String username = "FAKE.CLIENT";
+        private String password = "password";
+        private String repositoryPrefix = "10.82316";
+        private int port;
+        private int backlog = 1000;
+        private Duration latency = Duration.ZERO;
+        private Duration latencyJitter = Duration.ZERO;
+        private double tooManyRequestsRate;
+        private double serverErrorRate;
+        private double maxRequestsPerSecond;
+
+        /**
+         * @param username client id accepted by the server, 'FAKE.CLIENT' by default
+         * @param password password accepted by the server, 'password' by default
+         */
+        public Builder credentials(String username, String password) {
+            this.username = username;
+            this.password = password;
+            return this;
+        }
+
+        /**
+         * @param repositoryPrefix prefix that the client is allowed to create DOIs with, '10.82316' by default
+         */
+        public Builder repositoryPrefix(String repositoryPrefix) {
+            this.repositoryPrefix = repositoryPrefix;
+            return this;
+        }
+
+        /**
+         * @param port port to listen on, random free port by default
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param backlog maximum number of queued incoming connections
+         */
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * @param latency time added to processing of every request
+         */
+        public Builder latency(Duration latency) {
+            return latency(latency, Duration.ZERO);
+        }
+
+        /**
+         * @param latency minimum time added to processing of every request
+         * @param jitter maximum random time added on top of latency
+         */
+        public Builder latency(Duration latency, Duration jitter) {
+            Validate.isTrue(!latency.isNegative() && !jitter.isNegative(), "latency can't be negative");
+            this.latency = latency;
+            this.latencyJitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param rate fraction of requests (0 - 1) rejected with 429 Too Many Requests
+         */
+        public Builder tooManyRequestsRate(double rate) {
+            Validate.isTrue(rate >= 0 && rate <= 1, "rate must be between 0 and 1");
+            this.tooManyRequestsRate = rate;
+            return this;
+        }
+
+        /**
+         * @param rate fraction of requests (0 - 1) failing with 500 Internal Server Error
+         */
+        public Builder serverErrorRate(double rate) {
+            Validate.isTrue(rate >= 0 && rate <= 1, "rate must be between 0 and 1");
+            this.serverErrorRate = rate;
+            return this;
+        }
+
+        /**
+         * @param maxRequestsPerSecond requests above this rate are rejected with 429, 0 for no limit (default)
+         */
+        public Builder maxRequestsPerSecond(double maxRequestsPerSecond) {
+            Validate.isTrue(maxRequestsPerSecond >= 0, "maxRequestsPerSecond can't be negative");
+            this.maxRequestsPerSecond = maxRequestsPerSecond;
+            return this;
+        }
+
+        public FakeDataCiteServer start() throws IOException {
+            Validate.isTrue(tooManyRequestsRate + serverErrorRate <= 1, "sum of error rates can't exceed 1");
+            return new FakeDataCiteServer(this);
+        }
+    }
+
+}
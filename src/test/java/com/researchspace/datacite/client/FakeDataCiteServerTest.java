@@ -0,0 +1,203 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.researchspace.datacite.model.CreatorTestMother;
+import com.researchspace.datacite.model.DataCiteApiException;
+import com.researchspace.datacite.model.DataCiteConnectionException;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import com.researchspace.datacite.model.DataCiteNotFoundException;
+import com.researchspace.datacite.model.DataCiteServerException;
+import com.researchspace.datacite.model.DataCiteValidationException;
+import com.researchspace.datacite.model.DoiTestMother;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FakeDataCiteServerTest {
+
+    private FakeDataCiteServer server;
+
+    private DataCiteClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = FakeDataCiteServer.start();
+        client = new DataCiteClientImpl(server.getUri(), server.getUsername(), server.getPassword(), server.getRepositoryPrefix());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testConnection() {
+        assertTrue(client.testConnectionToDataCite());
+
+        DataCiteClient wrongPrefixClient = new DataCiteClientImpl(server.getUri(), server.getUsername(), server.getPassword(), "asdf");
+        DataCiteConnectionException exception = assertThrows(DataCiteConnectionException.class, wrongPrefixClient::testConnectionToDataCite);
+        assertEquals("Cannot find repository prefix for provided client-id and prefix-id. Is repositoryPrefix correct?", exception.getMessage());
+
+        DataCiteClient wrongPasswordClient = new DataCiteClientImpl(server.getUri(), server.getUsername(), "invalidPass", server.getRepositoryPrefix());
+        exception = assertThrows(DataCiteNotFoundException.class, wrongPasswordClient::testConnectionToDataCite);
+        assertEquals("NotFound error when connecting to DataCite Members API. Are connection credentials correct?", exception.getMessage());
+    }
+
+    @Test
+    public void draftDoiLifecycle() {
+        DataCiteDoi created = client.registerDoi(DoiTestMother.newDoi());
+        String doiId = created.getId();
+        assertNotNull(doiId);
+        assertEquals("draft", created.getAttributes().getState());
+        assertEquals(CreatorTestMother.affiliation, created.getAttributes().getCreators().get(0).getAffiliation()[0]);
+        assertEquals(created, client.retrieveDoi(doiId));
+
+        DataCiteDoi published = client.publishDoi(created);
+        assertEquals("findable", published.getAttributes().getState());
+        assertNull(created.getAttributes().getEvent());
+        assertEquals("findable", server.getDoiState(doiId));
+
+        // registered DOIs can't be deleted
+        DataCiteApiException notDeleted = assertThrows(DataCiteApiException.class, () -> client.deleteDoi(doiId));
+        assertEquals(405, notDeleted.getStatus());
+        assertEquals("This DOI is registered and can't be deleted.", notDeleted.getErrors().get(0).getTitle());
+
+        DataCiteDoi retracted = client.retractDoi(published);
+        assertEquals("registered", retracted.getAttributes().getState());
+
+        DataCiteDoi draft = client.registerDoi(DoiTestMother.newDoi());
+        assertTrue(client.deleteDoi(draft.getId()));
+        assertEquals(1, server.getDoiCount());
+        DataCiteNotFoundException deleted = assertThrows(DataCiteNotFoundException.class, () -> client.retrieveDoi(draft.getId()));
+        assertEquals("DataCite API responded with status 404: The resource you are looking for doesn't exist.", deleted.getMessage());
+    }
+
+    @Test
+    public void publishingIncompleteDoiFails() {
+        DataCiteDoi draft = new DataCiteDoi();
+        draft.getAttributes().setTitles(List.of(new DataCiteDoiAttributes.Title("no url")));
+        DataCiteDoi created = client.registerDoi(draft);
+        DataCiteValidationException exception = assertThrows(DataCiteValidationException.class, () -> client.publishDoi(created));
+        assertEquals(422, exception.getStatus());
+        assertEquals(1, exception.getErrors().size());
+        assertEquals("can't be blank", exception.getErrors().get(0).getTitle());
+        assertNotNull(exception.getErrors().get(0).getSource());
+        assertTrue(exception.getMessage().startsWith("DataCite API responded with status 422: can't be blank ("), exception.getMessage());
+        assertEquals("draft", server.getDoiState(created.getId()));
+    }
+
+    @Test
+    public void listsDoisAcrossPages() {
+        for (int i = 0; i < 7; i++) {
+            client.registerDoi(DoiTestMother.newDoi());
+        }
+        try (Stream<DataCiteDoi> listed = client.listDois(3)) {
+            assertEquals(7, listed.map(DataCiteDoi::getId).distinct().count());
+        }
+    }
+
+    @Test
+    public void injectedErrorsAreRetried() {
+        DataCiteDoi created = client.registerDoi(DoiTestMother.newDoi());
+        server.failNextRequests(1, 500);
+        assertThrows(DataCiteServerException.class, () -> client.retrieveDoi(created.getId()));
+
+        DataCiteClient retryingClient = DataCiteClientImpl.builder()
+                .dataciteApiURI(server.getUri())
+                .username(server.getUsername()).password(server.getPassword())
+                .repositoryPrefix(server.getRepositoryPrefix())
+                .retryPolicy(DataCiteRetryPolicy.builder().initialBackoff(Duration.ofMillis(10)).jitter(0).build())
+                .build();
+        server.failNextRequests(2, 500);
+        assertEquals(created.getId(), retryingClient.retrieveDoi(created.getId()).getId());
+    }
+
+    @Test
+    public void conditionalRetrievalReturnsCopyOfUnmodifiedDoi() {
+        DataCiteClient conditionalClient = DataCiteClientImpl.builder()
+                .dataciteApiURI(server.getUri())
+                .username(server.getUsername()).password(server.getPassword())
+                .repositoryPrefix(server.getRepositoryPrefix())
+                .conditionalRequests(100)
+                .build();
+        String doiId = conditionalClient.registerDoi(DoiTestMother.newDoi()).getId();
+        DataCiteDoi first = conditionalClient.retrieveDoi(doiId);
+        first.getAttributes().setUrl("https://example.com");
+
+        DataCiteDoi second = conditionalClient.retrieveDoi(doiId);
+        assertEquals(1, server.getNotModifiedResponseCount());
+        assertNotSame(first, second);
+        assertEquals("https://researchspace.com", second.getAttributes().getUrl());
+
+        // update forgets the validators, so changed DOI is retrieved in full
+        second.getAttributes().setUrl("https://researchspace.com/updated");
+        conditionalClient.updateDoi(second);
+        assertEquals("https://researchspace.com/updated", conditionalClient.retrieveDoi(doiId).getAttributes().getUrl());
+        assertEquals(1, server.getNotModifiedResponseCount());
+    }
+
+    @Test
+    public void compressesRequestsAndResponses() {
+        DataCiteClient compressingClient = DataCiteClientImpl.builder()
+                .dataciteApiURI(server.getUri())
+                .username(server.getUsername()).password(server.getPassword())
+                .repositoryPrefix(server.getRepositoryPrefix())
+                .requestCompression(true)
+                .build();
+        DataCiteDoi created = compressingClient.registerDoi(DoiTestMother.newDoi());
+        created.getAttributes().setDescriptions(List.of(new DataCiteDoiAttributes.Description("a".repeat(10_000), "Abstract")));
+        DataCiteDoi updated = compressingClient.updateDoi(created);
+        assertEquals(10_000, updated.getAttributes().getDescriptions().get(0).getDescription().length());
+        assertEquals(updated, compressingClient.retrieveDoi(created.getId()));
+        assertEquals(2, server.getCompressedRequestCount());
+        assertEquals(3, server.getCompressedResponseCount());
+
+        // responses are decompressed by default, request compression is opt-in
+        assertTrue(client.deleteDoi(client.registerDoi(DoiTestMother.newDoi()).getId()));
+        assertEquals(2, server.getCompressedRequestCount());
+        assertEquals(4, server.getCompressedResponseCount());
+    }
+
+    @Test
+    public void handlesManyConcurrentRequests() throws Exception {
+        try (FakeDataCiteServer slowServer = FakeDataCiteServer.builder().latency(Duration.ofMillis(20)).start()) {
+            DataCiteClient concurrentClient = DataCiteClientImpl.builder()
+                    .dataciteApiURI(slowServer.getUri())
+                    .username(slowServer.getUsername()).password(slowServer.getPassword())
+                    .repositoryPrefix(slowServer.getRepositoryPrefix())
+                    .maxConnections(50)
+                    .build();
+            ExecutorService executor = Executors.newFixedThreadPool(50);
+            try {
+                List<CompletableFuture<DataCiteDoi>> futures = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    futures.add(CompletableFuture.supplyAsync(() -> concurrentClient.registerDoi(DoiTestMother.newDoi()), executor));
+                }
+                List<String> ids = futures.stream().map(CompletableFuture::join).map(DataCiteDoi::getId).collect(Collectors.toList());
+                assertEquals(500, ids.stream().distinct().count());
+                assertEquals(500, slowServer.getDoiCount());
+                assertFalse(ids.contains(null));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+}
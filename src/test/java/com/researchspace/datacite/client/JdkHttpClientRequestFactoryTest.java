@@ -0,0 +1,82 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+public class JdkHttpClientRequestFactoryTest {
+
+    @Test
+    public void concurrentExchangesLimitedToMaxConnections() throws Exception {
+        try (FakeDataCiteServer server = FakeDataCiteServer.builder().latency(Duration.ofMillis(200)).start()) {
+            JdkHttpClientRequestFactory factory = JdkHttpClientRequestFactory.builder().maxConnections(2).build();
+            RestTemplate restTemplate = new RestTemplate(factory);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                long startNanos = System.nanoTime();
+                List<CompletableFuture<String>> calls = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    calls.add(CompletableFuture.supplyAsync(() -> restTemplate.getForObject(
+                            server.getUri().resolve("heartbeat"), String.class), executor));
+                }
+                for (CompletableFuture<String> call : calls) {
+                    call.get(5, TimeUnit.SECONDS);
+                }
+                // 4 exchanges, 2 at a time, each taking at least 200ms
+                assertTrue(Duration.ofNanos(System.nanoTime() - startNanos).toMillis() >= 400);
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(2, factory.getConnectionPermits().getAvailablePermits());
+        }
+    }
+
+    @Test
+    public void permitHeldUntilResponseClosed() throws IOException {
+        try (FakeDataCiteServer server = FakeDataCiteServer.start()) {
+            JdkHttpClientRequestFactory factory = JdkHttpClientRequestFactory.builder().maxConnections(1).build();
+            ConnectionPermits permits = factory.getConnectionPermits();
+
+            ClientHttpResponse response = factory.createRequest(server.getUri().resolve("heartbeat"), HttpMethod.GET).execute();
+            assertEquals(0, permits.getAvailablePermits());
+            CompletableFuture<Void> waiting = permits.acquireAsync();
+            assertFalse(waiting.isDone());
+
+            response.close();
+            assertTrue(waiting.isDone());
+            permits.release();
+            assertEquals(1, permits.getAvailablePermits());
+        }
+    }
+
+    @Test
+    public void failedExchangeReleasesPermit() throws IOException {
+        JdkHttpClientRequestFactory factory = JdkHttpClientRequestFactory.builder()
+                .maxConnections(1).connectTimeout(Duration.ofSeconds(1)).build();
+        int closedPort;
+        try (FakeDataCiteServer server = FakeDataCiteServer.start()) {
+            closedPort = server.getUri().getPort();
+        }
+        try {
+            factory.createRequest(URI.create("http://127.0.0.1:" + closedPort + "/heartbeat"), HttpMethod.GET).execute();
+        } catch (IOException e) {
+            // expected, nothing listens on the port any more
+        }
+        assertEquals(1, factory.getConnectionPermits().getAvailablePermits());
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class KeySequencerTest {
+
+    private static final int CALLERS = 10;
+
+    private final KeySequencer<String> sequencer = new KeySequencer<>();
+
+    @Test
+    public void callsOfTheSameKeyRunOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        List<Integer> concurrency = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(CompletableFuture.runAsync(() -> sequencer.execute("10.82316/abc", () -> {
+                    concurrency.add(running.incrementAndGet());
+                    sleepQuietly(10);
+                    return running.decrementAndGet();
+                }), executor));
+            }
+            for (CompletableFuture<Void> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(CALLERS, concurrency.size());
+        assertTrue(concurrency.stream().allMatch(count -> count == 1), concurrency.toString());
+        assertEquals(0, sequencer.size());
+    }
+
+    @Test
+    public void otherKeysAreNotBlocked() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<String> blocked = CompletableFuture.supplyAsync(
+                    () -> sequencer.execute("10.82316/abc", () -> { awaitQuietly(release); return "abc"; }), executor);
+            assertEquals("def", sequencer.execute("10.82316/def", () -> "def"));
+            assertFalse(blocked.isDone());
+
+            release.countDown();
+            assertEquals("abc", blocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, sequencer.size());
+    }
+
+    @Test
+    public void failedCallReleasesTheKey() {
+        assertThrows(IllegalStateException.class,
+                () -> sequencer.execute("key", () -> { throw new IllegalStateException("DataCite down"); }));
+        assertEquals("ok", sequencer.execute("key", () -> "ok"));
+        assertEquals(0, sequencer.size());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
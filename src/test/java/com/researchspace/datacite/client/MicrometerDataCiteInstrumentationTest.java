@@ -0,0 +1,81 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.researchspace.datacite.model.DataCiteConnectionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+public class MicrometerDataCiteInstrumentationTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MicrometerDataCiteInstrumentation instrumentation = new MicrometerDataCiteInstrumentation(registry);
+
+    @Test
+    public void observationRecordsTimingAndEvents() {
+        DataCiteInstrumentation.Observation observation = instrumentation.start(DataCiteOperation.PUBLISH);
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.ACTIVE).tag("operation", "publish").gauge().value());
+
+        observation.onResponse(429);
+        observation.onThrottled(Duration.ofSeconds(1));
+        observation.onRetry(1, new IllegalStateException(), Duration.ofSeconds(1));
+        observation.onResponse(200);
+        observation.stop(null);
+
+        assertEquals(0, registry.get(MicrometerDataCiteInstrumentation.ACTIVE).tag("operation", "publish").gauge().value());
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.REQUESTS)
+                .tags("operation", "publish", "outcome", "success").timer().count());
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.RESPONSES)
+                .tags("operation", "publish", "status", "429").counter().count());
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.RETRIES).tag("operation", "publish").counter().count());
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.THROTTLED).tag("operation", "publish").counter().count());
+    }
+
+    @Test
+    public void clientCallsAreRecorded() {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(DataCiteInstrumentation.interceptor());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        DataCiteClient client = DataCiteClientImpl.builder()
+                .dataciteApiURI(URI.create("https://api.test.datacite.org/"))
+                .username("user").password("pwd").repositoryPrefix("10.82316")
+                .restTemplate(restTemplate)
+                .retryPolicy(DataCiteRetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).jitter(0).build())
+                .instrumentation(instrumentation)
+                .build();
+
+        server.expect(ExpectedCount.once(), method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(ExpectedCount.once(), method(HttpMethod.GET))
+                .andRespond(withSuccess("{\"data\":{\"id\":\"10.82316/abc\"}}", MediaType.APPLICATION_JSON));
+        assertEquals("10.82316/abc", client.retrieveDoi("10.82316/abc").getId());
+
+        server.expect(ExpectedCount.once(), method(HttpMethod.DELETE))
+                .andRespond(withStatus(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThrows(DataCiteConnectionException.class, () -> client.deleteDoi("10.82316/abc"));
+        server.verify();
+
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.REQUESTS)
+                .tags("operation", "retrieve", "outcome", "success").timer().count());
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.RESPONSES)
+                .tags("operation", "retrieve", "status", "503").counter().count());
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.RETRIES).tag("operation", "retrieve").counter().count());
+        assertEquals(1, registry.get(MicrometerDataCiteInstrumentation.REQUESTS)
+                .tags("operation", "delete", "outcome", "error", "exception", "DataCiteConnectionException").timer().count());
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.researchspace.datacite.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.researchspace.datacite.model.CreatorTestMother;
+import com.researchspace.datacite.model.DataCiteDoi;
+import com.researchspace.datacite.model.DataCiteDoiAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    private static final int CALLERS = 10;
+
+    private final SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+
+    @Test
+    public void concurrentCallersShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch allArrived = new CountDownLatch(CALLERS);
+        Object result = new Object();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    allArrived.countDown();
+                    return singleFlight.execute("10.82316/abc", () -> {
+                        executions.incrementAndGet();
+                        awaitQuietly(allArrived);
+                        sleepQuietly(100); // let the last arrived caller join
+                        return result;
+                    });
+                }, executor));
+            }
+            for (CompletableFuture<Object> future : futures) {
+                assertSame(result, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+
+            // following call is executed again
+            singleFlight.execute("10.82316/abc", () -> executions.incrementAndGet());
+            assertEquals(2, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failureIsSharedAndNotCached() {
+        IllegalStateException failure = new IllegalStateException("DataCite down");
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("key", () -> { throw failure; })));
+        assertEquals("ok", singleFlight.execute("key", () -> "ok"));
+    }
+
+    @Test
+    public void coalescingClientSendsOneRequestForConcurrentRetrievals() throws Exception {
+        try (FakeDataCiteServer server = FakeDataCiteServer.builder().latency(Duration.ofMillis(300)).start()) {
+            DataCiteClient client = DataCiteClientImpl.builder()
+                    .dataciteApiURI(server.getUri())
+                    .username(server.getUsername()).password(server.getPassword())
+                    .repositoryPrefix(server.getRepositoryPrefix())
+                    .coalesceRequests(true)
+                    .build();
+            DataCiteDoi doi = new DataCiteDoi();
+            doi.getAttributes().setTitles(List.of(new DataCiteDoiAttributes.Title("title")));
+            doi.getAttributes().setCreators(List.of(CreatorTestMother.creatorWithAfilliations()));
+            String doiId = client.registerDoi(doi).getId();
+
+            long requestsBefore = server.getRequestCount();
+            ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<CompletableFuture<DataCiteDoi>> futures = new ArrayList<>();
+                for (int i = 0; i < CALLERS; i++) {
+                    futures.add(CompletableFuture.supplyAsync(() -> {
+                        awaitQuietly(start);
+                        return client.retrieveDoi(doiId);
+                    }, executor));
+                }
+                start.countDown();
+                for (CompletableFuture<DataCiteDoi> future : futures) {
+                    assertEquals(doiId, future.get(5, TimeUnit.SECONDS).getId());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(1, server.getRequestCount() - requestsBefore);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
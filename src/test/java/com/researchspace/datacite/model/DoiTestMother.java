@@ -0,0 +1,29 @@
+package com.researchspace.datacite.model;
+
+import java.util.List;
+
+public class DoiTestMother {
+
+    /**
+     * @return DOI with all attributes DataCite requires to publish it
+     */
+    public static DataCiteDoi newDoi() {
+        DataCiteDoi doi = new DataCiteDoi();
+        doi.getAttributes().setTitles(List.of(new DataCiteDoiAttributes.Title("new title")));
+        doi.getAttributes().setTypes(new DataCiteDoiAttributes.Types("RS type", "PhysicalObject"));
+        doi.getAttributes().setCreators(List.of(CreatorTestMother.creatorWithAfilliations()));
+        doi.getAttributes().setPublisher("ResearchSpace");
+        doi.getAttributes().setPublicationYear(2023);
+        doi.getAttributes().setUrl("https://researchspace.com");
+        return doi;
+    }
+
+    /**
+     * @return publishable DOI with given id
+     */
+    public static DataCiteDoi newDoi(String doiId) {
+        DataCiteDoi doi = newDoi();
+        doi.getAttributes().setDoi(doiId);
+        return doi;
+    }
+}
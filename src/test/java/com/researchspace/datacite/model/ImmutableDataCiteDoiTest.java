@@ -0,0 +1,85 @@
+package com.researchspace.datacite.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ImmutableDataCiteDoiTest {
+
+    @Test
+    public void roundTripsAllValues() throws IOException {
+        DataCiteDoi doi = new ObjectMapper().readValue(new File("src/test/resources/TestResources/doi_draft_example.json"),
+                DataCiteDoiRequestWrapper.class).getData();
+        doi.getAttributes().setViewCount(3);
+        doi.getAttributes().setCitationCount(1);
+
+        ImmutableDataCiteDoi snapshot = doi.toImmutable();
+        assertEquals("10.82316/m906-wb49", snapshot.getId());
+        assertEquals(3, snapshot.getViewCount());
+        assertEquals(doi.getAttributes().getCreated().toInstant(), snapshot.getCreated());
+        assertEquals(doi.getAttributes().getContributors(), snapshot.getContributors());
+        assertEquals(doi.getAttributes().getSchemaVersion(), snapshot.getSchemaVersion());
+        assertEquals(doi.getRelationships(), snapshot.getRelationships());
+        assertEquals(doi, snapshot.toDataCiteDoi());
+        assertEquals(snapshot, ImmutableDataCiteDoi.of(snapshot.toDataCiteDoi()));
+    }
+
+    @Test
+    public void snapshotIsIndependentOfSource() {
+        DataCiteDoi doi = new DataCiteDoi();
+        doi.getAttributes().setUrl("https://researchspace.com");
+        doi.getAttributes().setTitles(new ArrayList<>(List.of(new DataCiteDoiAttributes.Title("title"))));
+        ImmutableDataCiteDoi snapshot = ImmutableDataCiteDoi.of(doi);
+
+        doi.getAttributes().setUrl("https://example.com");
+        doi.getAttributes().getTitles().get(0).setTitle("changed");
+        doi.getAttributes().getTitles().add(new DataCiteDoiAttributes.Title("added"));
+        assertEquals("https://researchspace.com", snapshot.getUrl());
+        assertEquals(List.of(new DataCiteDoiAttributes.Title("title")), snapshot.getTitles());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getTitles().clear());
+
+        snapshot.getTitles().get(0).setTitle("changed through getter");
+        assertEquals("title", snapshot.getTitles().get(0).getTitle());
+
+        DataCiteDoi copy = snapshot.toDataCiteDoi();
+        copy.getAttributes().getTitles().get(0).setTitle("changed copy");
+        assertEquals("title", snapshot.getTitles().get(0).getTitle());
+    }
+
+    @Test
+    public void withMethodsCopyOnWrite() {
+        ImmutableDataCiteDoi draft = ImmutableDataCiteDoi.builder()
+                .id("10.5072/abc")
+                .titles(List.of(new DataCiteDoiAttributes.Title("title")))
+                .updated(Instant.parse("2023-07-31T12:00:00Z"))
+                .build();
+        assertNull(draft.getCreated());
+        assertEquals(0, draft.getDownloadCount());
+
+        ImmutableDataCiteDoi publishing = draft.withEvent("publish");
+        assertNull(draft.getEvent());
+        assertEquals("publish", publishing.getEvent());
+        assertEquals(draft.getTitles(), publishing.getTitles());
+        assertEquals(draft.getUpdated(), publishing.getUpdated());
+
+        ImmutableDataCiteDoi retitled = draft.withTitles(List.of(new DataCiteDoiAttributes.Title("new title")));
+        assertEquals("title", draft.getTitles().get(0).getTitle());
+        assertEquals("new title", retitled.getTitles().get(0).getTitle());
+        assertNotEquals(draft, retitled);
+
+        ImmutableDataCiteDoi viewed = draft.toBuilder().viewCount(5).build();
+        assertEquals(0, draft.getViewCount());
+        assertEquals(5, viewed.getViewCount());
+        assertEquals(draft, viewed.toBuilder().viewCount(0).build());
+    }
+
+}